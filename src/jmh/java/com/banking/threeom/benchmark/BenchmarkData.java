@@ -0,0 +1,46 @@
+package com.banking.threeom.benchmark;
+
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.Transaction;
+import com.banking.threeom.domain.enumeration.TransactionOperationType;
+import com.banking.threeom.domain.enumeration.TransactionSourceType;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * Representative entities shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {}
+
+    static BankAccount bankAccount(long id) {
+        BankAccount bankAccount = new BankAccount()
+            .id(id)
+            .firstName("Olena")
+            .lastName("Kovalenko")
+            .email("olena.kovalenko@example.com")
+            .phoneNumber("+380501234567")
+            .address("12 Khreshchatyk St, Kyiv")
+            .additionalInfo("Salary account")
+            .balance(new Balance().id(id).initialBalance(Money.parse("1000.00")).currentBalance(Money.parse("1234.56")));
+        bankAccount.setVersion(3L);
+        return bankAccount;
+    }
+
+    static Transaction transfer(long id) {
+        return new Transaction()
+            .id(id)
+            .transactionType(TransactionOperationType.TRANSFER)
+            .amount(Money.parse("42.50"))
+            .transactionDate(ZonedDateTime.of(2026, 10, 18, 12, 30, 0, 0, ZoneOffset.UTC))
+            .sourceType(TransactionSourceType.USER)
+            .destinationType(TransactionSourceType.USER)
+            .status(TransactionStatus.SUCCESS)
+            .sourceBankAccount(bankAccount(1L))
+            .destinationBankAccount(bankAccount(2L));
+    }
+}
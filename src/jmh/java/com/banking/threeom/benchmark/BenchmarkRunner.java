@@ -0,0 +1,27 @@
+package com.banking.threeom.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks matching {@code jmh.include} and writes the results as JSON to {@code jmh.result}.
+ * <p>
+ * Launched by Surefire in the {@code benchmark} Maven profile; each benchmark class forks its own JVM.
+ */
+class BenchmarkRunner {
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(System.getProperty("jmh.include", "com.banking.threeom.benchmark.*"))
+            .resultFormat(ResultFormatType.JSON)
+            .result(System.getProperty("jmh.result", "target/jmh-result.json"))
+            .shouldFailOnError(true)
+            .build();
+        new Runner(options).run();
+    }
+}
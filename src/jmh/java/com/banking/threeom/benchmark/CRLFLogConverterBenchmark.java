@@ -0,0 +1,79 @@
+package com.banking.threeom.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.banking.threeom.config.CRLFLogConverter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link CRLFLogConverter#transform} on every log line: a clean message, a message with line breaks to escape, and a
+ * message of a logger trusted to be safe.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CRLFLogConverterBenchmark {
+
+    private static final String CLEAN_MESSAGE =
+        "Request to execute Transaction : Transaction{id=42, transactionType='TRANSFER', amount=42.50, status='WAITING'}";
+
+    private static final String MULTILINE_MESSAGE = "Request to create BankAccount :\r\nfirstName=Olena\tlastName=Kovalenko\n";
+
+    private ExposedCRLFLogConverter converter;
+
+    private ILoggingEvent applicationEvent;
+
+    private ILoggingEvent hibernateEvent;
+
+    @Setup
+    public void setUp() {
+        converter = new ExposedCRLFLogConverter();
+        converter.setOptionList(List.of("red"));
+        applicationEvent = event("com.banking.threeom.service.TransferService");
+        hibernateEvent = event("org.hibernate.SQL");
+    }
+
+    @Benchmark
+    public String cleanMessage() {
+        return converter.apply(applicationEvent, CLEAN_MESSAGE);
+    }
+
+    @Benchmark
+    public String multilineMessage() {
+        return converter.apply(applicationEvent, MULTILINE_MESSAGE);
+    }
+
+    @Benchmark
+    public String safeLogger() {
+        return converter.apply(hibernateEvent, MULTILINE_MESSAGE);
+    }
+
+    private static ILoggingEvent event(String loggerName) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerName(loggerName);
+        event.setLevel(Level.DEBUG);
+        return event;
+    }
+
+    private static class ExposedCRLFLogConverter extends CRLFLogConverter {
+
+        String apply(ILoggingEvent event, String in) {
+            return transform(event, in);
+        }
+    }
+}
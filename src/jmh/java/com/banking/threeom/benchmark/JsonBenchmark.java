@@ -0,0 +1,123 @@
+package com.banking.threeom.benchmark;
+
+import com.banking.threeom.config.JacksonConfiguration;
+import com.banking.threeom.service.dto.BankAccountDTO;
+import com.banking.threeom.service.dto.TransactionDTO;
+import com.banking.threeom.service.mapper.BankAccountMapper;
+import com.banking.threeom.service.mapper.TransactionMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * JSON serialization and deserialization of the DTOs with the modules registered by {@link JacksonConfiguration},
+ * as done by the REST resources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectWriter transactionWriter;
+
+    private ObjectWriter transactionPageWriter;
+
+    private ObjectWriter bankAccountWriter;
+
+    private ObjectReader transactionReader;
+
+    private ObjectReader bankAccountReader;
+
+    private TransactionDTO transactionDTO;
+
+    private List<TransactionDTO> transactionPage;
+
+    private BankAccountDTO bankAccountDTO;
+
+    private byte[] transactionJson;
+
+    private byte[] bankAccountJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        JacksonConfiguration configuration = new JacksonConfiguration();
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder
+            .json()
+            .modules(
+                configuration.javaTimeModule(),
+                configuration.jdk8TimeModule(),
+                configuration.hibernate5Module(),
+                configuration.problemModule(),
+                configuration.constraintViolationProblemModule()
+            )
+            // Spring Boot defaults
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+            .build();
+
+        TransactionMapper transactionMapper = Mappers.getMapper(TransactionMapper.class);
+        transactionDTO = transactionMapper.toDto(BenchmarkData.transfer(1L));
+        transactionPage =
+            LongStream
+                .rangeClosed(1, PAGE_SIZE)
+                .mapToObj(id -> transactionMapper.toDto(BenchmarkData.transfer(id)))
+                .collect(Collectors.toList());
+        bankAccountDTO = Mappers.getMapper(BankAccountMapper.class).toDto(BenchmarkData.bankAccount(1L));
+
+        transactionWriter = objectMapper.writerFor(TransactionDTO.class);
+        transactionPageWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, TransactionDTO.class));
+        bankAccountWriter = objectMapper.writerFor(BankAccountDTO.class);
+        transactionReader = objectMapper.readerFor(TransactionDTO.class);
+        bankAccountReader = objectMapper.readerFor(BankAccountDTO.class);
+        transactionJson = transactionWriter.writeValueAsBytes(transactionDTO);
+        bankAccountJson = bankAccountWriter.writeValueAsBytes(bankAccountDTO);
+    }
+
+    @Benchmark
+    public byte[] serializeTransaction() throws JsonProcessingException {
+        return transactionWriter.writeValueAsBytes(transactionDTO);
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionPage() throws JsonProcessingException {
+        return transactionPageWriter.writeValueAsBytes(transactionPage);
+    }
+
+    @Benchmark
+    public TransactionDTO deserializeTransaction() throws IOException {
+        return transactionReader.readValue(transactionJson);
+    }
+
+    @Benchmark
+    public byte[] serializeBankAccount() throws JsonProcessingException {
+        return bankAccountWriter.writeValueAsBytes(bankAccountDTO);
+    }
+
+    @Benchmark
+    public BankAccountDTO deserializeBankAccount() throws IOException {
+        return bankAccountReader.readValue(bankAccountJson);
+    }
+}
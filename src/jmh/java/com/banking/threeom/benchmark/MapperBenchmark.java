@@ -0,0 +1,72 @@
+package com.banking.threeom.benchmark;
+
+import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.Transaction;
+import com.banking.threeom.service.dto.BankAccountDTO;
+import com.banking.threeom.service.dto.TransactionDTO;
+import com.banking.threeom.service.mapper.BankAccountMapper;
+import com.banking.threeom.service.mapper.TransactionMapper;
+import java.util.concurrent.TimeUnit;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DTO to entity mapping of {@link TransactionMapper} and {@link BankAccountMapper}, in both directions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final TransactionMapper transactionMapper = Mappers.getMapper(TransactionMapper.class);
+
+    private final BankAccountMapper bankAccountMapper = Mappers.getMapper(BankAccountMapper.class);
+
+    private Transaction transaction;
+
+    private TransactionDTO transactionDTO;
+
+    private BankAccount bankAccount;
+
+    private BankAccountDTO bankAccountDTO;
+
+    @Setup
+    public void setUp() {
+        transaction = BenchmarkData.transfer(1L);
+        transactionDTO = transactionMapper.toDto(transaction);
+        bankAccount = BenchmarkData.bankAccount(1L);
+        bankAccountDTO = bankAccountMapper.toDto(bankAccount);
+    }
+
+    @Benchmark
+    public TransactionDTO transactionToDto() {
+        return transactionMapper.toDto(transaction);
+    }
+
+    @Benchmark
+    public Transaction transactionToEntity() {
+        return transactionMapper.toEntity(transactionDTO);
+    }
+
+    @Benchmark
+    public BankAccountDTO bankAccountToDto() {
+        return bankAccountMapper.toDto(bankAccount);
+    }
+
+    @Benchmark
+    public BankAccount bankAccountToEntity() {
+        return bankAccountMapper.toEntity(bankAccountDTO);
+    }
+}
@@ -0,0 +1,55 @@
+package com.banking.threeom.benchmark;
+
+import com.banking.threeom.utils.PaginationUtil;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Link header generation of {@link PaginationUtil} for a page in the middle of a large result, so that every link
+ * is written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaginationUtilBenchmark {
+
+    private static final String URI = "http://localhost:8080/api/transactions?sort=id,desc";
+
+    private final Page<Object> page = new PageImpl<>(Collections.emptyList(), PageRequest.of(50, 20), 1_000_000);
+
+    private final Slice<Object> slice = new SliceImpl<>(Collections.emptyList(), PageRequest.of(50, 20), true);
+
+    @Benchmark
+    public HttpHeaders paginationHeaders() {
+        return PaginationUtil.generatePaginationHttpHeaders(UriComponentsBuilder.fromHttpUrl(URI), page);
+    }
+
+    @Benchmark
+    public HttpHeaders sliceHeaders() {
+        return PaginationUtil.generateSliceHttpHeaders(UriComponentsBuilder.fromHttpUrl(URI), slice);
+    }
+
+    @Benchmark
+    public HttpHeaders cursorHeaders() {
+        return PaginationUtil.generateCursorHttpHeaders(UriComponentsBuilder.fromHttpUrl(URI), "MjAyNi0xMC0xOFQxMjozMDowMFp8NDI", 20);
+    }
+}
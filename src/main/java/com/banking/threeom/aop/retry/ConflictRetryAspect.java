@@ -0,0 +1,125 @@
+package com.banking.threeom.aop.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aspect re-running {@link RetryOnConflict} methods after an optimistic locking conflict.
+ * <p>
+ * It is ordered before the transaction interceptor, so every attempt runs in its own database transaction. Between
+ * attempts it sleeps for a random time up to an exponentially growing bound ("full jitter"), so that the writers
+ * which collided do not collide again. A method called inside an already running transaction is not retried: the
+ * conflict is left to the outermost caller.
+ * <p>
+ * Every conflict is counted in the {@code banking.optimistic.lock.conflicts} meter, tagged with the entity and its
+ * id. To bound the number of time series, only the first {@code maxTrackedIds} ids get their own tag, later ones
+ * are counted as {@code other}.
+ */
+@Aspect
+public class ConflictRetryAspect implements Ordered {
+
+    static final String CONFLICTS_METER = "banking.optimistic.lock.conflicts";
+
+    static final String OTHER_ID = "other";
+
+    private final Logger log = LoggerFactory.getLogger(ConflictRetryAspect.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private final int maxTrackedIds;
+
+    private final Set<String> trackedIds = ConcurrentHashMap.newKeySet();
+
+    public ConflictRetryAspect(
+        MeterRegistry meterRegistry,
+        int maxAttempts,
+        long initialBackoffMillis,
+        long maxBackoffMillis,
+        int maxTrackedIds
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.maxTrackedIds = maxTrackedIds;
+    }
+
+    @Override
+    public int getOrder() {
+        // Outside of the transaction interceptor, which has the lowest precedence
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+    /**
+     * Advice that retries a method failing with an optimistic locking conflict.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable the last conflict once all attempts failed, or any other exception of the method.
+     */
+    @Around("@annotation(com.banking.threeom.aop.retry.RetryOnConflict)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        for (int attempt = 1;; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                recordConflict(e);
+                if (attempt >= maxAttempts) {
+                    log.debug("Giving up {}() after {} conflicting attempts", joinPoint.getSignature().getName(), attempt);
+                    throw e;
+                }
+                log.debug("Conflict in {}() on attempt {}, retrying: {}", joinPoint.getSignature().getName(), attempt, e.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void recordConflict(OptimisticLockingFailureException e) {
+        String entity = "unknown";
+        String id = "unknown";
+        if (e instanceof ObjectOptimisticLockingFailureException) {
+            ObjectOptimisticLockingFailureException objectFailure = (ObjectOptimisticLockingFailureException) e;
+            if (objectFailure.getPersistentClassName() != null) {
+                String className = objectFailure.getPersistentClassName();
+                entity = className.substring(className.lastIndexOf('.') + 1);
+            }
+            if (objectFailure.getIdentifier() != null) {
+                id = trackedId(entity + ':' + objectFailure.getIdentifier()) ? String.valueOf(objectFailure.getIdentifier()) : OTHER_ID;
+            }
+        }
+        Counter.builder(CONFLICTS_METER).tag("entity", entity).tag("id", id).register(meterRegistry).increment();
+    }
+
+    private boolean trackedId(String key) {
+        return trackedIds.contains(key) || (trackedIds.size() < maxTrackedIds && trackedIds.add(key));
+    }
+
+    private void backoff(int attempt) throws InterruptedException {
+        long bound = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        if (bound > 0) {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.banking.threeom.aop.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a transactional service method that is re-run in a new database transaction when it fails with an
+ * {@link org.springframework.dao.OptimisticLockingFailureException}.
+ * <p>
+ * The method must be safe to run again from the start: it should re-read the entities it changes and compute what
+ * it writes from them, or from state the database does not hold, rather than apply values computed before the
+ * conflict. A write checked against a version given by the client never succeeds on a retry, so it is not annotated.
+ *
+ * @see ConflictRetryAspect
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RetryOnConflict {
+}
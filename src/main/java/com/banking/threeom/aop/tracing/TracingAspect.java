@@ -0,0 +1,361 @@
+package com.banking.threeom.aop.tracing;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+
+/**
+ * Aspect tracing the execution of repository, service and Web REST Spring components.
+ * <p>
+ * Every call is timed into a {@link LatencyHistogram} of its method, and failures are counted, without locking nor
+ * logging. The arguments of a call are only rendered for a random {@code sampleRate} of the calls, before the call, and
+ * for the calls slower than {@code slowThresholdMillis}, after the call. These samples are kept in a ring of the
+ * {@code maxSamples} latest ones; sampled calls are logged at debug level and slow calls at warn level, by the logger
+ * of the traced class. Unless {@code renderArguments} is set, as in development, only the types of the arguments are
+ * rendered, since their values hold personal data such as the emails and phone numbers of the bank accounts.
+ * <p>
+ * The settings can be changed at runtime through the {@code tracing} actuator endpoint, see {@link TracingEndpoint}.
+ * Once disabled, the aspect only costs the proxy call.
+ */
+@Aspect
+public class TracingAspect implements Ordered {
+
+    private final Map<Method, MethodStats> methods = new ConcurrentHashMap<>();
+
+    private final AtomicReferenceArray<TraceSample> samples;
+
+    private final AtomicLong sampleSequence = new AtomicLong();
+
+    private final int maxArgumentLength;
+
+    private final boolean renderArguments;
+
+    private volatile boolean enabled;
+
+    private volatile double sampleRate;
+
+    private volatile long slowThresholdNanos;
+
+    /**
+     * @param enabled whether calls are traced.
+     * @param sampleRate the fraction of the calls, between {@code 0} and {@code 1}, whose arguments are sampled.
+     * @param slowThresholdMillis the duration from which the arguments of a call are sampled.
+     * @param maxSamples the number of latest samples kept.
+     * @param maxArgumentLength the length at which the rendered arguments of a call are truncated.
+     * @param renderArguments whether the values of the arguments are rendered, rather than their types only.
+     */
+    public TracingAspect(
+        boolean enabled,
+        double sampleRate,
+        long slowThresholdMillis,
+        int maxSamples,
+        int maxArgumentLength,
+        boolean renderArguments
+    ) {
+        this.samples = new AtomicReferenceArray<>(maxSamples);
+        this.maxArgumentLength = maxArgumentLength;
+        this.renderArguments = renderArguments;
+        setEnabled(enabled);
+        setSampleRate(sampleRate);
+        setSlowThresholdMillis(slowThresholdMillis);
+    }
+
+    /**
+     * Pointcut that matches all repositories, services and Web REST endpoints.
+     */
+    @Pointcut(
+        "within(@org.springframework.stereotype.Repository *)" +
+        " || within(@org.springframework.stereotype.Service *)" +
+        " || within(@org.springframework.web.bind.annotation.RestController *)"
+    )
+    public void springBeanPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches all Spring beans in the application's main packages.
+     */
+    @Pointcut(
+        "within(com.banking.threeom.repository..*)" +
+        " || within(com.banking.threeom.service..*)" +
+        " || within(com.banking.threeom.web.rest..*)"
+    )
+    public void applicationPackagePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that times a method and samples its arguments.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable whatever the method throws.
+     */
+    @Around("applicationPackagePointcut() && springBeanPointcut()")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
+        double rate = sampleRate;
+        boolean sampled = rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+        String arguments = sampled ? render(joinPoint.getArgs()) : null;
+        Throwable failure = null;
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            MethodStats stats = stats(joinPoint);
+            stats.record(elapsed, failure != null);
+            boolean slow = elapsed >= slowThresholdNanos;
+            if (sampled || slow) {
+                // The arguments of a slow call are rendered once it is known to be slow, after it may have changed them
+                sample(stats, joinPoint, arguments != null ? arguments : render(joinPoint.getArgs()), elapsed, slow, failure);
+            }
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        // Outside of the retries and transactions, so that a call is timed as its caller sees it
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("The sample rate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    public boolean isRenderArguments() {
+        return renderArguments;
+    }
+
+    public long getSlowThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    public void setSlowThresholdMillis(long slowThresholdMillis) {
+        if (slowThresholdMillis < 0) {
+            throw new IllegalArgumentException("The slow call threshold must not be negative: " + slowThresholdMillis);
+        }
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+    }
+
+    /**
+     * @return the statistics of the methods called since the start or the last {@link #reset()}.
+     */
+    public Collection<MethodStats> getMethods() {
+        return methods.values();
+    }
+
+    /**
+     * @return the latest samples, the most recent first.
+     */
+    public List<TraceSample> getSamples() {
+        List<TraceSample> latest = new ArrayList<>(samples.length());
+        long last = sampleSequence.get();
+        for (long sequence = last - 1; sequence >= Math.max(0, last - samples.length()); sequence--) {
+            TraceSample sample = samples.get((int) (sequence % samples.length()));
+            if (sample != null) {
+                latest.add(sample);
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Forget the statistics and the samples.
+     */
+    public void reset() {
+        methods.clear();
+        for (int i = 0; i < samples.length(); i++) {
+            samples.set(i, null);
+        }
+    }
+
+    private MethodStats stats(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodStats stats = methods.get(method);
+        return stats != null ? stats : methods.computeIfAbsent(method, MethodStats::new);
+    }
+
+    private void sample(
+        MethodStats stats,
+        ProceedingJoinPoint joinPoint,
+        String arguments,
+        long elapsed,
+        boolean slow,
+        Throwable failure
+    ) {
+        String error = failure == null ? null : failure.toString();
+        TraceSample sample = new TraceSample(Instant.now(), stats.getName(), elapsed, arguments, error, slow);
+        if (samples.length() > 0) {
+            samples.set((int) (sampleSequence.getAndIncrement() % samples.length()), sample);
+        }
+        Logger log = LoggerFactory.getLogger(joinPoint.getSignature().getDeclaringTypeName());
+        if (slow) {
+            log.warn(
+                "Slow call: {}() took {} ms with argument[s] = {}{}",
+                joinPoint.getSignature().getName(),
+                sample.getDurationMillis(),
+                arguments,
+                error == null ? "" : " and failed with " + error
+            );
+        } else if (log.isDebugEnabled()) {
+            log.debug(
+                "Sampled call: {}() took {} ms with argument[s] = {}{}",
+                joinPoint.getSignature().getName(),
+                sample.getDurationMillis(),
+                arguments,
+                error == null ? "" : " and failed with " + error
+            );
+        }
+    }
+
+    String render(Object[] args) {
+        if (!renderArguments) {
+            return Arrays
+                .stream(args)
+                .map(arg -> arg == null ? "null" : arg.getClass().getSimpleName())
+                .collect(Collectors.joining(", ", "[", "]"));
+        }
+        String text;
+        try {
+            text = Arrays.toString(args);
+        } catch (RuntimeException e) {
+            // e.g. a lazy association outside of its session
+            return "<unavailable: " + e + ">";
+        }
+        return text.length() > maxArgumentLength ? text.substring(0, maxArgumentLength) + "..." : text;
+    }
+
+    /**
+     * Statistics of the calls to a method.
+     */
+    public static class MethodStats {
+
+        private final String name;
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private final LongAdder errors = new LongAdder();
+
+        MethodStats(Method method) {
+            StringBuilder text = new StringBuilder(method.getDeclaringClass().getSimpleName())
+                .append('.')
+                .append(method.getName())
+                .append('(');
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                text.append(i > 0 ? ", " : "").append(parameterTypes[i].getSimpleName());
+            }
+            this.name = text.append(')').toString();
+        }
+
+        void record(long nanos, boolean failed) {
+            latency.record(nanos);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram.Snapshot getLatency() {
+            return latency.snapshot();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+    }
+
+    /**
+     * Arguments and outcome of a sampled call.
+     */
+    public static class TraceSample {
+
+        private final Instant timestamp;
+
+        private final String method;
+
+        private final long durationNanos;
+
+        private final String arguments;
+
+        private final String error;
+
+        private final boolean slow;
+
+        TraceSample(Instant timestamp, String method, long durationNanos, String arguments, String error, boolean slow) {
+            this.timestamp = timestamp;
+            this.method = method;
+            this.durationNanos = durationNanos;
+            this.arguments = arguments;
+            this.error = error;
+            this.slow = slow;
+        }
+
+        public Instant getTimestamp() {
+            return timestamp;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public double getDurationMillis() {
+            return durationNanos / 1_000_000.0;
+        }
+
+        public String getArguments() {
+            return arguments;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isSlow() {
+            return slow;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.banking.threeom.aop.tracing;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Actuator endpoint of the {@link TracingAspect}, at {@code /actuator/tracing}. It is only exposed over the web by
+ * the {@code dev} profile, as it can switch tracing off and its samples show which calls were made.
+ * <ul>
+ *     <li>{@code GET} returns the settings, the latency of every traced method in milliseconds, the highest total time
+ *     first, and the latest samples;</li>
+ *     <li>{@code POST} with any of {@code enabled}, {@code sampleRate} and {@code slowThresholdMillis} changes the
+ *     settings until the next restart;</li>
+ *     <li>{@code DELETE} forgets the latencies and the samples.</li>
+ * </ul>
+ */
+@Endpoint(id = "tracing")
+public class TracingEndpoint {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final TracingAspect tracingAspect;
+
+    public TracingEndpoint(TracingAspect tracingAspect) {
+        this.tracingAspect = tracingAspect;
+    }
+
+    @ReadOperation
+    public Map<String, Object> tracing() {
+        Map<String, Object> tracing = settings();
+        tracing.put("methods", methods());
+        tracing.put("samples", tracingAspect.getSamples());
+        return tracing;
+    }
+
+    @WriteOperation
+    public Map<String, Object> configure(
+        @Nullable Boolean enabled,
+        @Nullable Double sampleRate,
+        @Nullable Long slowThresholdMillis
+    ) {
+        try {
+            if (sampleRate != null) {
+                tracingAspect.setSampleRate(sampleRate);
+            }
+            if (slowThresholdMillis != null) {
+                tracingAspect.setSlowThresholdMillis(slowThresholdMillis);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        if (enabled != null) {
+            tracingAspect.setEnabled(enabled);
+        }
+        return settings();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        tracingAspect.reset();
+    }
+
+    private Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("enabled", tracingAspect.isEnabled());
+        settings.put("sampleRate", tracingAspect.getSampleRate());
+        settings.put("slowThresholdMillis", tracingAspect.getSlowThresholdMillis());
+        settings.put("renderArguments", tracingAspect.isRenderArguments());
+        return settings;
+    }
+
+    private List<Map<String, Object>> methods() {
+        return tracingAspect
+            .getMethods()
+            .stream()
+            .map(TracingEndpoint::method)
+            .sorted(Comparator.comparingDouble(method -> -(double) method.get("total")))
+            .collect(Collectors.toList());
+    }
+
+    private static Map<String, Object> method(TracingAspect.MethodStats stats) {
+        LatencyHistogram.Snapshot latency = stats.getLatency();
+        Map<String, Object> method = new LinkedHashMap<>();
+        method.put("name", stats.getName());
+        method.put("count", latency.getCount());
+        method.put("errors", stats.getErrors());
+        method.put("total", latency.getMean() * latency.getCount() / NANOS_PER_MILLI);
+        method.put("mean", latency.getMean() / NANOS_PER_MILLI);
+        method.put("p50", latency.getValueAtPercentile(0.5) / NANOS_PER_MILLI);
+        method.put("p95", latency.getValueAtPercentile(0.95) / NANOS_PER_MILLI);
+        method.put("p99", latency.getValueAtPercentile(0.99) / NANOS_PER_MILLI);
+        method.put("max", latency.getMax() / NANOS_PER_MILLI);
+        return method;
+    }
+}
@@ -1,10 +1,12 @@
 package com.banking.threeom.config;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -22,13 +24,13 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     private final Logger log = LoggerFactory.getLogger(AsyncConfiguration.class);
 
-    //private final TaskExecutionProperties taskExecutionProperties;
+    private final TaskExecutionProperties taskExecutionProperties;
 
-    /*public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties) {
+    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties) {
         this.taskExecutionProperties = taskExecutionProperties;
-    }*/
+    }
 
-    /*@Override
+    @Override
     @Bean(name = "taskExecutor")
     public Executor getAsyncExecutor() {
         log.debug("Creating Async Task Executor");
@@ -38,7 +40,46 @@ public class AsyncConfiguration implements AsyncConfigurer {
         executor.setQueueCapacity(taskExecutionProperties.getPool().getQueueCapacity());
         executor.setThreadNamePrefix(taskExecutionProperties.getThreadNamePrefix());
         return new ExceptionHandlingAsyncTaskExecutor(executor);
-    }*/
+    }
+
+    /**
+     * Fixed-size pool executing claimed transactions. Each worker holds one database connection while it runs, so
+     * {@code application.transaction-processing.workers} must stay well below the connection pool size. When the
+     * bounded queue is full the polling thread runs the transaction itself, which stops it from claiming more.
+     */
+    @Bean(name = "transactionProcessingExecutor")
+    public Executor transactionProcessingExecutor(
+        @Value("${application.transaction-processing.workers:8}") int workers,
+        @Value("${application.transaction-processing.queue-capacity:256}") int queueCapacity
+    ) {
+        log.debug("Creating Transaction Processing Executor with {} workers", workers);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("banking-3-om-transaction-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Pool sending the buffered events of the {@code AccountEventHub} subscriptions. A subscription is queued at most
+     * once at a time, so the unbounded queue holds at most one task per subscriber. The hub grows the core pool, up to
+     * {@code max-threads}, for every thread left blocked on a send to a stalled subscriber.
+     */
+    @Bean(name = "accountEventExecutor")
+    public ThreadPoolTaskExecutor accountEventExecutor(
+        @Value("${application.account-events.threads:2}") int threads,
+        @Value("${application.account-events.max-threads:16}") int maxThreads
+    ) {
+        log.debug("Creating Account Event Executor with {} to {} threads", threads, maxThreads);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(Math.max(threads, maxThreads));
+        executor.setThreadNamePrefix("banking-3-om-account-event-");
+        return executor;
+    }
 
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
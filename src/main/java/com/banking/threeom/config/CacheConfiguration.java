@@ -0,0 +1,108 @@
+package com.banking.threeom.config;
+
+import com.banking.threeom.config.cache.NearCacheRegionFactory;
+import com.banking.threeom.config.cache.RedissonCacheInvalidationTopic;
+import java.util.concurrent.TimeUnit;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.expiry.Duration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.redisson.jcache.configuration.RedissonConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate second-level cache on Redis, enabled by {@code application.cache.redis.enabled}.
+ * <p>
+ * Every entity and collection region is a Redisson JCache cache shared by all the nodes, fronted on each node by a
+ * bounded near cache kept coherent through a Redis pub/sub channel, see {@link NearCacheRegionFactory}.
+ */
+@Configuration
+@EnableCaching
+@ConditionalOnProperty(prefix = "application.cache.redis", name = "enabled", havingValue = "true")
+public class CacheConfiguration {
+
+    private static final String INVALIDATION_TOPIC = "banking:hibernate:near-cache-invalidations";
+
+    @Bean(destroyMethod = "shutdown")
+    public RedissonClient redissonClient(
+        @Value("${application.cache.redis.server}") String server,
+        @Value("${application.cache.redis.connection-pool-size:64}") int connectionPoolSize,
+        @Value("${application.cache.redis.connection-minimum-idle-size:24}") int connectionMinimumIdleSize
+    ) {
+        Config config = new Config();
+        config
+            .useSingleServer()
+            .setAddress(server)
+            .setConnectionPoolSize(connectionPoolSize)
+            .setConnectionMinimumIdleSize(connectionMinimumIdleSize);
+        return Redisson.create(config);
+    }
+
+    @Bean
+    public javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(
+        RedissonClient redissonClient,
+        @Value("${application.cache.redis.expiration-seconds:3600}") long expirationSeconds
+    ) {
+        MutableConfiguration<Object, Object> jcacheConfig = new MutableConfiguration<>();
+        jcacheConfig.setStatisticsEnabled(true);
+        jcacheConfig.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(new Duration(TimeUnit.SECONDS, expirationSeconds)));
+        return RedissonConfiguration.fromInstance(redissonClient, jcacheConfig);
+    }
+
+    @Bean
+    public JCacheManagerCustomizer cacheManagerCustomizer(javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration) {
+        return cm -> {
+            createCache(cm, com.banking.threeom.domain.Balance.class.getName(), jcacheConfiguration);
+            createCache(cm, com.banking.threeom.domain.BankAccount.class.getName(), jcacheConfiguration);
+            createCache(cm, com.banking.threeom.domain.BankAccount.class.getName() + ".incomingTransactions", jcacheConfiguration);
+            createCache(cm, com.banking.threeom.domain.BankAccount.class.getName() + ".outgoingTransactions", jcacheConfiguration);
+            createCache(cm, com.banking.threeom.domain.Transaction.class.getName(), jcacheConfiguration);
+            // jhipster-needle-redis-add-entry
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(
+        javax.cache.CacheManager cm,
+        RedissonClient redissonClient,
+        @Value("${application.cache.near-cache.max-entries:10000}") int nearCacheMaxEntries,
+        @Value("${application.cache.near-cache.time-to-live-ms:60000}") long nearCacheTimeToLiveMillis
+    ) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(
+                AvailableSettings.CACHE_REGION_FACTORY,
+                new NearCacheRegionFactory(
+                    new RedissonCacheInvalidationTopic(redissonClient, INVALIDATION_TOPIC),
+                    nearCacheMaxEntries,
+                    nearCacheTimeToLiveMillis
+                )
+            );
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cm);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private void createCache(
+        javax.cache.CacheManager cm,
+        String cacheName,
+        javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration
+    ) {
+        javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        } else {
+            cm.createCache(cacheName, jcacheConfiguration);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.banking.threeom.config;
+
+import com.banking.threeom.aop.retry.ConflictRetryAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.*;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class ConflictRetryAspectConfiguration {
+
+    @Bean
+    public ConflictRetryAspect conflictRetryAspect(
+        MeterRegistry meterRegistry,
+        @Value("${application.conflict-retry.max-attempts:3}") int maxAttempts,
+        @Value("${application.conflict-retry.initial-backoff-ms:5}") long initialBackoffMillis,
+        @Value("${application.conflict-retry.max-backoff-ms:100}") long maxBackoffMillis,
+        @Value("${application.conflict-retry.max-tracked-ids:1000}") int maxTrackedIds
+    ) {
+        return new ConflictRetryAspect(meterRegistry, maxAttempts, initialBackoffMillis, maxBackoffMillis, maxTrackedIds);
+    }
+}
@@ -0,0 +1,40 @@
+package com.banking.threeom.config;
+
+import com.banking.threeom.config.metrics.TimedDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Times the SQL statements of the application data source, see {@link TimedDataSource}. Disabled by
+ * {@code application.metrics.sql.enabled=false}.
+ * <p>
+ * The pool metrics ({@code hikaricp.connections.*}: active, idle and pending connections, acquisition time and
+ * timeouts) and the repository metrics ({@code spring.data.repository.invocations}) are bound by Spring Boot; their
+ * histograms are configured under {@code management.metrics.distribution} in {@code application.yml}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.metrics.sql", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseMetricsConfiguration {
+
+    @Bean
+    public static BeanPostProcessor timedDataSourcePostProcessor(
+        ObjectProvider<MeterRegistry> meterRegistry,
+        @Value("${application.metrics.sql.max-cached-statements:2000}") int maxCachedStatements
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof TimedDataSource)) {
+                    return new TimedDataSource((DataSource) bean, meterRegistry::getObject, maxCachedStatements);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.banking.threeom.config;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+/**
+ * {@link AsyncTaskExecutor} logging the exceptions of the tasks it runs, which would otherwise only end in a
+ * {@link Future} nobody reads. It takes over the lifecycle of the executor it wraps, which is not a bean itself.
+ */
+public class ExceptionHandlingAsyncTaskExecutor implements AsyncTaskExecutor, InitializingBean, DisposableBean {
+
+    static final String EXCEPTION_MESSAGE = "Caught async exception";
+
+    private final Logger log = LoggerFactory.getLogger(ExceptionHandlingAsyncTaskExecutor.class);
+
+    private final AsyncTaskExecutor executor;
+
+    public ExceptionHandlingAsyncTaskExecutor(AsyncTaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(createWrappedRunnable(task));
+    }
+
+    @Override
+    @Deprecated
+    public void execute(Runnable task, long startTimeout) {
+        executor.execute(createWrappedRunnable(task), startTimeout);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return executor.submit(createWrappedRunnable(task));
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(createCallable(task));
+    }
+
+    private <T> Callable<T> createCallable(Callable<T> task) {
+        return () -> {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                handle(e);
+                throw e;
+            }
+        };
+    }
+
+    private Runnable createWrappedRunnable(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                handle(e);
+            }
+        };
+    }
+
+    private void handle(Exception e) {
+        log.error(EXCEPTION_MESSAGE, e);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (executor instanceof InitializingBean) {
+            ((InitializingBean) executor).afterPropertiesSet();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (executor instanceof DisposableBean) {
+            ((DisposableBean) executor).destroy();
+        }
+    }
+}
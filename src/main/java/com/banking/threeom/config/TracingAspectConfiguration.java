@@ -0,0 +1,28 @@
+package com.banking.threeom.config;
+
+import com.banking.threeom.aop.tracing.TracingAspect;
+import com.banking.threeom.aop.tracing.TracingEndpoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.*;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class TracingAspectConfiguration {
+
+    @Bean
+    public TracingAspect tracingAspect(
+        @Value("${application.tracing.enabled:true}") boolean enabled,
+        @Value("${application.tracing.sample-rate:0.01}") double sampleRate,
+        @Value("${application.tracing.slow-threshold-ms:500}") long slowThresholdMillis,
+        @Value("${application.tracing.max-samples:100}") int maxSamples,
+        @Value("${application.tracing.max-argument-length:1000}") int maxArgumentLength,
+        @Value("${application.tracing.render-arguments:false}") boolean renderArguments
+    ) {
+        return new TracingAspect(enabled, sampleRate, slowThresholdMillis, maxSamples, maxArgumentLength, renderArguments);
+    }
+
+    @Bean
+    public TracingEndpoint tracingEndpoint(TracingAspect tracingAspect) {
+        return new TracingEndpoint(tracingAspect);
+    }
+}
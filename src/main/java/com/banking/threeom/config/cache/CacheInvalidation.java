@@ -0,0 +1,50 @@
+package com.banking.threeom.config.cache;
+
+import java.io.Serializable;
+
+/**
+ * Message telling the other nodes to drop a key, or a whole region, from their near cache.
+ */
+public class CacheInvalidation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String origin;
+
+    private final String region;
+
+    private final Object key;
+
+    /**
+     * @param origin the id of the node which changed the cache, that ignores its own messages.
+     * @param region the name of the cache region.
+     * @param key the changed key, or {@code null} when the whole region was cleared.
+     */
+    public CacheInvalidation(String origin, String region, Object key) {
+        this.origin = origin;
+        this.region = region;
+        this.key = key;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CacheInvalidation{" +
+            "origin='" + origin + "'" +
+            ", region='" + region + "'" +
+            ", key=" + key +
+            "}";
+    }
+}
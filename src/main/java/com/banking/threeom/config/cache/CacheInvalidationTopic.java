@@ -0,0 +1,22 @@
+package com.banking.threeom.config.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Publish/subscribe channel carrying {@link CacheInvalidation}s between the nodes sharing the second-level cache.
+ */
+public interface CacheInvalidationTopic {
+    /**
+     * Publish an invalidation to every subscribed node, this one included.
+     *
+     * @param invalidation the invalidation.
+     */
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * Subscribe to the invalidations published by any node.
+     *
+     * @param listener the listener, called on a thread of the topic.
+     */
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
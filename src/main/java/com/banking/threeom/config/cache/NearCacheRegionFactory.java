@@ -0,0 +1,86 @@
+package com.banking.threeom.config.cache;
+
+import com.banking.threeom.utils.ExpiringCache;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JCache region factory adding a {@link NearCacheStorageAccess} in front of every entity and collection region.
+ * <p>
+ * The nodes keep their near caches coherent through a {@link CacheInvalidationTopic}: a node changing a key
+ * publishes it, the other nodes drop it. Invalidations are asynchronous, so another node may read the previous
+ * version of an entry for the time the message takes to arrive; the {@code @Version} of the entities turns a write
+ * based on such a read into an optimistic locking conflict. The near cache entries also expire after
+ * {@code timeToLiveMillis}, which bounds the staleness should a message be lost.
+ */
+public class NearCacheRegionFactory extends JCacheRegionFactory {
+
+    private final Logger log = LoggerFactory.getLogger(NearCacheRegionFactory.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, NearCacheStorageAccess> regions = new ConcurrentHashMap<>();
+
+    private final CacheInvalidationTopic invalidationTopic;
+
+    private final int maxEntries;
+
+    private final long timeToLiveMillis;
+
+    /**
+     * @param invalidationTopic the channel shared by the nodes.
+     * @param maxEntries the maximum number of entries of the near cache of each region.
+     * @param timeToLiveMillis the time a near cache entry is kept.
+     */
+    public NearCacheRegionFactory(CacheInvalidationTopic invalidationTopic, int maxEntries, long timeToLiveMillis) {
+        this.invalidationTopic = invalidationTopic;
+        this.maxEntries = maxEntries;
+        this.timeToLiveMillis = timeToLiveMillis;
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, @SuppressWarnings("rawtypes") Map configValues) {
+        super.prepareForUse(settings, configValues);
+        invalidationTopic.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(
+        DomainDataRegionConfig regionConfig,
+        DomainDataRegionBuildingContext buildingContext
+    ) {
+        String region = regionConfig.getRegionName();
+        NearCacheStorageAccess storageAccess = new NearCacheStorageAccess(
+            super.createDomainDataStorageAccess(regionConfig, buildingContext),
+            new ExpiringCache<>(maxEntries, timeToLiveMillis),
+            key -> invalidationTopic.publish(new CacheInvalidation(nodeId, region, key))
+        );
+        regions.put(region, storageAccess);
+        return storageAccess;
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.clear();
+        super.releaseFromUse();
+    }
+
+    void onInvalidation(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.getOrigin())) {
+            return;
+        }
+        NearCacheStorageAccess storageAccess = regions.get(invalidation.getRegion());
+        if (storageAccess != null) {
+            log.trace("Invalidating {}", invalidation);
+            storageAccess.invalidateLocally(invalidation.getKey());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.banking.threeom.config.cache;
+
+import com.banking.threeom.utils.ExpiringCache;
+import java.util.function.Consumer;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Two-tier storage of a second-level cache region: a bounded in-process near cache in front of the shared remote
+ * cache.
+ * <p>
+ * Reads are served from the near cache when possible and fill it on a miss. Writes go through to the remote cache
+ * and publish an invalidation, so that the other nodes drop their copy of the key. Entries loaded from the
+ * database do not change the cached value and are not published.
+ */
+public class NearCacheStorageAccess implements DomainDataStorageAccess {
+
+    private final DomainDataStorageAccess remote;
+
+    private final ExpiringCache<Object, Object> local;
+
+    private final Consumer<Object> invalidationPublisher;
+
+    /**
+     * @param remote the shared cache.
+     * @param local the near cache.
+     * @param invalidationPublisher publishes the invalidation of a key, or of the whole region for {@code null}.
+     */
+    public NearCacheStorageAccess(
+        DomainDataStorageAccess remote,
+        ExpiringCache<Object, Object> local,
+        Consumer<Object> invalidationPublisher
+    ) {
+        this.remote = remote;
+        this.local = local;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        Object value = local.get(key);
+        if (value == null) {
+            value = remote.getFromCache(key, session);
+            if (value != null) {
+                local.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void putFromLoad(Object key, Object value, SharedSessionContractImplementor session) {
+        remote.putFromLoad(key, value, session);
+        local.put(key, value);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        remote.putIntoCache(key, value, session);
+        local.put(key, value);
+        invalidationPublisher.accept(key);
+    }
+
+    @Override
+    public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+        remote.removeFromCache(key, session);
+        local.remove(key);
+        invalidationPublisher.accept(key);
+    }
+
+    @Override
+    public void clearCache(SharedSessionContractImplementor session) {
+        remote.clearCache(session);
+        local.clear();
+        invalidationPublisher.accept(null);
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return local.get(key) != null || remote.contains(key);
+    }
+
+    @Override
+    public void evictData() {
+        remote.evictData();
+        local.clear();
+        invalidationPublisher.accept(null);
+    }
+
+    @Override
+    public void evictData(Object key) {
+        remote.evictData(key);
+        local.remove(key);
+        invalidationPublisher.accept(key);
+    }
+
+    @Override
+    public void release() {
+        local.clear();
+        remote.release();
+    }
+
+    /**
+     * Drop a key changed by another node from the near cache.
+     *
+     * @param key the key, or {@code null} for the whole region.
+     */
+    public void invalidateLocally(Object key) {
+        if (key == null) {
+            local.clear();
+        } else {
+            local.remove(key);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.banking.threeom.config.cache;
+
+import java.util.function.Consumer;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+
+/**
+ * {@link CacheInvalidationTopic} on a Redis pub/sub channel. Invalidations are published asynchronously: the write
+ * which caused them does not wait for a Redis round trip.
+ */
+public class RedissonCacheInvalidationTopic implements CacheInvalidationTopic {
+
+    private final RTopic topic;
+
+    public RedissonCacheInvalidationTopic(RedissonClient redissonClient, String name) {
+        this.topic = redissonClient.getTopic(name);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        topic.publishAsync(invalidation);
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        topic.addListener(CacheInvalidation.class, (channel, invalidation) -> listener.accept(invalidation));
+    }
+}
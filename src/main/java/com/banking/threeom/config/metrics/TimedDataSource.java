@@ -0,0 +1,285 @@
+package com.banking.threeom.config.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * {@link DataSource} timing every SQL statement executed on its connections in the {@value #STATEMENTS_METER} timer.
+ * <p>
+ * The timer is tagged with the {@code operation} ({@code select}, {@code insert}, {@code update}, {@code delete},
+ * {@code merge}, {@code call} or {@code other}) and the first {@code table} of the statement outside of its
+ * subqueries, which keeps the number of time series bounded by the schema rather than by the statement texts. The
+ * timers of the first {@code maxCachedStatements} distinct statements are cached, so that the text of the statements
+ * the application repeats is parsed once.
+ * <p>
+ * Connections and statements are wrapped in JDK proxies; {@code unwrap} and {@code isWrapperFor} reach the pool and
+ * the driver, and this data source itself unwraps to the pool, as Spring Boot needs to bind the pool metrics.
+ */
+public class TimedDataSource extends DelegatingDataSource implements Closeable {
+
+    public static final String STATEMENTS_METER = "banking.sql.statements";
+
+    private static final Set<String> TIMED_METHODS = Set.of(
+        "execute",
+        "executeQuery",
+        "executeUpdate",
+        "executeLargeUpdate",
+        "executeBatch",
+        "executeLargeBatch"
+    );
+
+    private static final Set<String> OPERATIONS = Set.of("select", "insert", "update", "delete", "merge", "call");
+
+    private final Supplier<MeterRegistry> meterRegistrySupplier;
+
+    private final int maxCachedStatements;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry meterRegistry;
+
+    /**
+     * @param target the pool.
+     * @param meterRegistrySupplier the registry, looked up on the first statement since the data source is created
+     * before the metrics.
+     * @param maxCachedStatements the number of distinct statements whose timer is cached.
+     */
+    public TimedDataSource(DataSource target, Supplier<MeterRegistry> meterRegistrySupplier, int maxCachedStatements) {
+        super(target);
+        this.meterRegistrySupplier = meterRegistrySupplier;
+        this.maxCachedStatements = maxCachedStatements;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return wrap(Connection.class, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Connection connection = super.getConnection(username, password);
+        return wrap(Connection.class, new ConnectionHandler(connection));
+    }
+
+    /**
+     * Close the pool, which Spring would otherwise no longer find on shutdown.
+     */
+    @Override
+    public void close() throws IOException {
+        DataSource target = getTargetDataSource();
+        if (target instanceof Closeable) {
+            ((Closeable) target).close();
+        }
+    }
+
+    private void record(String sql, long nanos) {
+        Timer timer = sql == null ? null : timers.get(sql);
+        if (timer == null) {
+            timer = timer(sql);
+            if (sql != null && timers.size() < maxCachedStatements) {
+                timers.put(sql, timer);
+            }
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String sql) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            registry = meterRegistrySupplier.get();
+            meterRegistry = registry;
+        }
+        return Timer
+            .builder(STATEMENTS_METER)
+            .description("Execution time of the SQL statements")
+            .tags(tags(sql))
+            .register(registry);
+    }
+
+    /**
+     * @return the {@code operation} and {@code table} tags of a statement.
+     */
+    static Tags tags(String sql) {
+        if (sql == null) {
+            return Tags.of("operation", "other", "table", "none");
+        }
+        String text = sql.toLowerCase(Locale.ROOT);
+        int start = skipWhitespace(text, 0);
+        String operation = word(text, start);
+        String table;
+        switch (operation) {
+            case "insert":
+            case "merge":
+                table = tableAfter(text, " into ", start);
+                break;
+            case "update":
+                table = word(text, skipWhitespace(text, start + operation.length()));
+                break;
+            case "delete":
+            case "select":
+                table = tableAfter(text, " from ", start);
+                break;
+            case "with":
+                operation = "select";
+                table = tableAfter(text, " from ", start);
+                break;
+            default:
+                table = "";
+        }
+        if (!OPERATIONS.contains(operation)) {
+            operation = "other";
+        }
+        return Tags.of("operation", operation, "table", table.isEmpty() ? "none" : table);
+    }
+
+    /**
+     * @return the identifier following the first {@code keyword} outside of parentheses and quotes, so that the table
+     * of a statement is not taken from one of its subqueries.
+     */
+    private static String tableAfter(String text, String keyword, int from) {
+        int depth = 0;
+        boolean quoted = false;
+        for (int index = from; index < text.length(); index++) {
+            char c = text.charAt(index);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && c == '(') {
+                depth++;
+            } else if (!quoted && c == ')') {
+                depth--;
+            } else if (!quoted && depth == 0 && text.startsWith(keyword, index)) {
+                return word(text, skipWhitespace(text, index + keyword.length()));
+            }
+        }
+        return "";
+    }
+
+    private static int skipWhitespace(String text, int index) {
+        while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return the identifier starting at {@code index}, without quotes and schema.
+     */
+    private static String word(String text, int index) {
+        int start = index;
+        int end = index;
+        while (end < text.length()) {
+            char c = text.charAt(end);
+            if (c == '.') {
+                start = end + 1;
+            } else if (!(Character.isLetterOrDigit(c) || c == '_' || c == '"')) {
+                break;
+            }
+            end++;
+        }
+        return text.substring(start, end).replace("\"", "");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(TimedDataSource.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private abstract static class DelegatingHandler implements InvocationHandler {
+
+        final Object target;
+
+        DelegatingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    // Hibernate keeps statements in hash maps, by identity
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return handle(method, args);
+            }
+        }
+
+        abstract Object handle(Method method, Object[] args) throws Throwable;
+
+        Object delegate(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private final class ConnectionHandler extends DelegatingHandler {
+
+        private ConnectionHandler(Connection target) {
+            super(target);
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = delegate(method, args);
+            if (result instanceof Statement && !"unwrap".equals(method.getName())) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return wrap(method.getReturnType(), new StatementHandler((Statement) result, sql));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler extends DelegatingHandler {
+
+        /**
+         * The SQL of a prepared statement, or the first one added to the batch of a plain statement.
+         */
+        private String sql;
+
+        private StatementHandler(Statement target, String sql) {
+            super(target);
+            this.sql = sql;
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("addBatch".equals(name) && sql == null && args != null && args.length == 1) {
+                sql = (String) args[0];
+            }
+            if (!TIMED_METHODS.contains(name)) {
+                return delegate(method, args);
+            }
+            String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            long start = System.nanoTime();
+            try {
+                return delegate(method, args);
+            } finally {
+                record(executed, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package com.banking.threeom.domain;
 
+import com.banking.threeom.domain.money.Money;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.io.Serializable;
-import java.math.BigDecimal;
 import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Type;
 
 /**
  * A Balance.
@@ -25,13 +26,26 @@ public class Balance implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
+    @Type(type = "com.banking.threeom.domain.money.MoneyType")
     @Column(name = "initial_balance", precision = 21, scale = 2, nullable = false)
-    private BigDecimal initialBalance;
+    private Money initialBalance;
 
     @NotNull
+    @Type(type = "com.banking.threeom.domain.money.MoneyType")
     @Column(name = "current_balance", precision = 21, scale = 2, nullable = false)
-    private BigDecimal currentBalance;
+    private Money currentBalance;
+
+    /**
+     * The number of {@link BalanceStripe}s of a hot balance, {@code 0} otherwise. Only changed by the updates of
+     * the striping, never by saving the entity.
+     */
+    @Column(name = "stripes", nullable = false, updatable = false)
+    private int stripes;
 
     @JsonIgnoreProperties(value = { "balance", "incomingTransactions", "outgoingTransactions" }, allowSetters = true)
     @OneToOne(mappedBy = "balance")
@@ -52,32 +66,48 @@ public class Balance implements Serializable {
         this.id = id;
     }
 
-    public BigDecimal getInitialBalance() {
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Money getInitialBalance() {
         return this.initialBalance;
     }
 
-    public Balance initialBalance(BigDecimal initialBalance) {
+    public Balance initialBalance(Money initialBalance) {
         this.setInitialBalance(initialBalance);
         return this;
     }
 
-    public void setInitialBalance(BigDecimal initialBalance) {
+    public void setInitialBalance(Money initialBalance) {
         this.initialBalance = initialBalance;
     }
 
-    public BigDecimal getCurrentBalance() {
+    public Money getCurrentBalance() {
         return this.currentBalance;
     }
 
-    public Balance currentBalance(BigDecimal currentBalance) {
+    public Balance currentBalance(Money currentBalance) {
         this.setCurrentBalance(currentBalance);
         return this;
     }
 
-    public void setCurrentBalance(BigDecimal currentBalance) {
+    public void setCurrentBalance(Money currentBalance) {
         this.currentBalance = currentBalance;
     }
 
+    public int getStripes() {
+        return this.stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
     public BankAccount getBankAccount() {
         return this.bankAccount;
     }
@@ -121,8 +151,10 @@ public class Balance implements Serializable {
     public String toString() {
         return "Balance{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", initialBalance=" + getInitialBalance() +
             ", currentBalance=" + getCurrentBalance() +
+            ", stripes=" + getStripes() +
             "}";
     }
 }
@@ -0,0 +1,123 @@
+package com.banking.threeom.domain;
+
+import com.banking.threeom.domain.money.Money;
+import java.io.Serializable;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+import org.hibernate.annotations.Type;
+
+/**
+ * One of the sub-balances a hot {@link Balance} is striped into; the balance holds the sum of its current balance and
+ * of the amounts of its stripes.
+ */
+@Entity
+@Table(
+    name = "balance_stripe",
+    uniqueConstraints = @UniqueConstraint(
+        name = "ux_balance_stripe_balance_id_stripe_index",
+        columnNames = { "balance_id", "stripe_index" }
+    )
+)
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class BalanceStripe implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "balance_id", nullable = false)
+    private Long balanceId;
+
+    @Column(name = "stripe_index", nullable = false)
+    private int stripeIndex;
+
+    @NotNull
+    @Type(type = "com.banking.threeom.domain.money.MoneyType")
+    @Column(name = "amount", precision = 21, scale = 2, nullable = false)
+    private Money amount;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public BalanceStripe id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBalanceId() {
+        return this.balanceId;
+    }
+
+    public BalanceStripe balanceId(Long balanceId) {
+        this.setBalanceId(balanceId);
+        return this;
+    }
+
+    public void setBalanceId(Long balanceId) {
+        this.balanceId = balanceId;
+    }
+
+    public int getStripeIndex() {
+        return this.stripeIndex;
+    }
+
+    public BalanceStripe stripeIndex(int stripeIndex) {
+        this.setStripeIndex(stripeIndex);
+        return this;
+    }
+
+    public void setStripeIndex(int stripeIndex) {
+        this.stripeIndex = stripeIndex;
+    }
+
+    public Money getAmount() {
+        return this.amount;
+    }
+
+    public BalanceStripe amount(Money amount) {
+        this.setAmount(amount);
+        return this;
+    }
+
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BalanceStripe)) {
+            return false;
+        }
+        return id != null && id.equals(((BalanceStripe) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BalanceStripe{" +
+            "id=" + getId() +
+            ", balanceId=" + getBalanceId() +
+            ", stripeIndex=" + getStripeIndex() +
+            ", amount=" + getAmount() +
+            "}";
+    }
+}
@@ -26,6 +26,10 @@ public class BankAccount implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "first_name", nullable = false)
     private String firstName;
@@ -77,6 +81,14 @@ public class BankAccount implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getFirstName() {
         return this.firstName;
     }
@@ -254,6 +266,7 @@ public class BankAccount implements Serializable {
     public String toString() {
         return "BankAccount{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", firstName='" + getFirstName() + "'" +
             ", lastName='" + getLastName() + "'" +
             ", email='" + getEmail() + "'" +
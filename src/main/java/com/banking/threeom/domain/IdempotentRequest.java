@@ -0,0 +1,158 @@
+package com.banking.threeom.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+import org.hibernate.annotations.Type;
+
+/**
+ * A create request received with an {@code Idempotency-Key}, and the response returned for it.
+ */
+@Entity
+@Table(
+    name = "idempotent_request",
+    uniqueConstraints = @UniqueConstraint(name = "ux_idempotent_request_scope_key", columnNames = { "scope", "idempotency_key" })
+)
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class IdempotentRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Size(max = 50)
+    @Column(name = "scope", length = 50, nullable = false)
+    private String scope;
+
+    @NotNull
+    @Size(max = 255)
+    @Column(name = "idempotency_key", length = 255, nullable = false)
+    private String idempotencyKey;
+
+    @NotNull
+    @Size(max = 64)
+    @Column(name = "request_hash", length = 64, nullable = false)
+    private String requestHash;
+
+    @Lob
+    @Type(type = "org.hibernate.type.TextType")
+    @Column(name = "response")
+    private String response;
+
+    @NotNull
+    @Column(name = "created_date", nullable = false)
+    private Instant createdDate;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public IdempotentRequest id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getScope() {
+        return this.scope;
+    }
+
+    public IdempotentRequest scope(String scope) {
+        this.setScope(scope);
+        return this;
+    }
+
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+
+    public String getIdempotencyKey() {
+        return this.idempotencyKey;
+    }
+
+    public IdempotentRequest idempotencyKey(String idempotencyKey) {
+        this.setIdempotencyKey(idempotencyKey);
+        return this;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return this.requestHash;
+    }
+
+    public IdempotentRequest requestHash(String requestHash) {
+        this.setRequestHash(requestHash);
+        return this;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public String getResponse() {
+        return this.response;
+    }
+
+    public IdempotentRequest response(String response) {
+        this.setResponse(response);
+        return this;
+    }
+
+    public void setResponse(String response) {
+        this.response = response;
+    }
+
+    public Instant getCreatedDate() {
+        return this.createdDate;
+    }
+
+    public IdempotentRequest createdDate(Instant createdDate) {
+        this.setCreatedDate(createdDate);
+        return this;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IdempotentRequest)) {
+            return false;
+        }
+        return id != null && id.equals(((IdempotentRequest) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IdempotentRequest{" +
+            "id=" + getId() +
+            ", scope='" + getScope() + "'" +
+            ", idempotencyKey='" + getIdempotencyKey() + "'" +
+            ", requestHash='" + getRequestHash() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,155 @@
+package com.banking.threeom.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+import org.hibernate.annotations.Type;
+
+/**
+ * An event about an entity, written in the database transaction that changed the entity and relayed to the
+ * downstream systems afterwards, see {@code OutboxRelay}.
+ */
+@Entity
+@Table(name = "outbox_event")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class OutboxEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Size(max = 50)
+    @Column(name = "aggregate_type", length = 50, nullable = false)
+    private String aggregateType;
+
+    @NotNull
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @NotNull
+    @Size(max = 50)
+    @Column(name = "event_type", length = 50, nullable = false)
+    private String eventType;
+
+    @NotNull
+    @Lob
+    @Type(type = "org.hibernate.type.TextType")
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @NotNull
+    @Column(name = "created_date", nullable = false)
+    private Instant createdDate;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public OutboxEvent id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getAggregateType() {
+        return this.aggregateType;
+    }
+
+    public OutboxEvent aggregateType(String aggregateType) {
+        this.setAggregateType(aggregateType);
+        return this;
+    }
+
+    public void setAggregateType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public Long getAggregateId() {
+        return this.aggregateId;
+    }
+
+    public OutboxEvent aggregateId(Long aggregateId) {
+        this.setAggregateId(aggregateId);
+        return this;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public String getEventType() {
+        return this.eventType;
+    }
+
+    public OutboxEvent eventType(String eventType) {
+        this.setEventType(eventType);
+        return this;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getPayload() {
+        return this.payload;
+    }
+
+    public OutboxEvent payload(String payload) {
+        this.setPayload(payload);
+        return this;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedDate() {
+        return this.createdDate;
+    }
+
+    public OutboxEvent createdDate(Instant createdDate) {
+        this.setCreatedDate(createdDate);
+        return this;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OutboxEvent)) {
+            return false;
+        }
+        return id != null && id.equals(((OutboxEvent) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+            "id=" + getId() +
+            ", aggregateType='" + getAggregateType() + "'" +
+            ", aggregateId=" + getAggregateId() +
+            ", eventType='" + getEventType() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
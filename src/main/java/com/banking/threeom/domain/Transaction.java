@@ -3,14 +3,16 @@ package com.banking.threeom.domain;
 import com.banking.threeom.domain.enumeration.TransactionOperationType;
 import com.banking.threeom.domain.enumeration.TransactionSourceType;
 import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.io.Serializable;
-import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Type;
 
 /**
  * A Transaction.
@@ -35,8 +37,9 @@ public class Transaction implements Serializable {
     private TransactionOperationType transactionType;
 
     @NotNull
+    @Type(type = "com.banking.threeom.domain.money.MoneyType")
     @Column(name = "amount", precision = 21, scale = 2, nullable = false)
-    private BigDecimal amount;
+    private Money amount;
 
     @NotNull
     @Column(name = "transaction_date", nullable = false)
@@ -57,6 +60,9 @@ public class Transaction implements Serializable {
     @Column(name = "status", nullable = false)
     private TransactionStatus status;
 
+    @Column(name = "claimed_date")
+    private Instant claimedDate;
+
     @ManyToOne
     @JsonIgnoreProperties(value = { "balance", "incomingTransactions", "outgoingTransactions" }, allowSetters = true)
     private BankAccount sourceBankAccount;
@@ -93,16 +99,16 @@ public class Transaction implements Serializable {
         this.transactionType = transactionType;
     }
 
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return this.amount;
     }
 
-    public Transaction amount(BigDecimal amount) {
+    public Transaction amount(Money amount) {
         this.setAmount(amount);
         return this;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -158,6 +164,19 @@ public class Transaction implements Serializable {
         this.status = status;
     }
 
+    public Instant getClaimedDate() {
+        return this.claimedDate;
+    }
+
+    public Transaction claimedDate(Instant claimedDate) {
+        this.setClaimedDate(claimedDate);
+        return this;
+    }
+
+    public void setClaimedDate(Instant claimedDate) {
+        this.claimedDate = claimedDate;
+    }
+
     public BankAccount getSourceBankAccount() {
         return this.sourceBankAccount;
     }
@@ -214,6 +233,7 @@ public class Transaction implements Serializable {
             ", sourceType='" + getSourceType() + "'" +
             ", destinationType='" + getDestinationType() + "'" +
             ", status='" + getStatus() + "'" +
+            ", claimedDate='" + getClaimedDate() + "'" +
             "}";
     }
 }
@@ -0,0 +1,193 @@
+package com.banking.threeom.domain.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * An amount of money held as a {@code long} number of minor units (cents), the scale of the {@code decimal(21,2)}
+ * money columns.
+ * <p>
+ * Immutable. Arithmetic is exact and throws an {@link ArithmeticException} on overflow instead of wrapping around.
+ * Persisted through {@link MoneyType} and written to JSON as a plain decimal number with two fraction digits, the
+ * same wire format as the {@link BigDecimal} it replaces.
+ */
+@JsonSerialize(using = MoneyJsonSerializer.class)
+@JsonDeserialize(using = MoneyJsonDeserializer.class)
+public final class Money implements Comparable<Money>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of fraction digits of an amount.
+     */
+    public static final int SCALE = 2;
+
+    static final long MINOR_UNITS_PER_UNIT = 100;
+
+    /**
+     * The maximum number of characters written by {@link #format(char[])}: sign, 19 digits and the decimal point.
+     */
+    static final int MAX_CHARS = 21;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * @param amount the amount, with at most two fraction digits.
+     * @return the amount as money.
+     * @throws ArithmeticException if the amount has more than two significant fraction digits or does not fit.
+     */
+    public static Money of(BigDecimal amount) {
+        return ofMinorUnits(amount.setScale(SCALE).unscaledValue().longValueExact());
+    }
+
+    /**
+     * @param text a plain decimal number such as {@code -12.3}, with at most two fraction digits.
+     * @return the amount as money.
+     * @throws NumberFormatException if the text is not such a number.
+     * @throws ArithmeticException if the amount does not fit.
+     */
+    public static Money parse(CharSequence text) {
+        char[] chars = text.toString().toCharArray();
+        return ofMinorUnits(parseMinorUnits(chars, 0, chars.length));
+    }
+
+    /**
+     * Parse a plain decimal number without allocating.
+     */
+    static long parseMinorUnits(char[] text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text[i] == '-' || text[i] == '+')) {
+            negative = text[i] == '-';
+            i++;
+        }
+        long units = 0;
+        int integerDigits = 0;
+        while (i < end && isDigit(text[i])) {
+            units = Math.addExact(Math.multiplyExact(units, 10), text[i] - '0');
+            integerDigits++;
+            i++;
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < end && text[i] == '.') {
+            i++;
+            while (i < end && isDigit(text[i])) {
+                int digit = text[i] - '0';
+                if (fractionDigits < SCALE) {
+                    fraction = fraction * 10 + digit;
+                } else if (digit != 0) {
+                    throw new NumberFormatException("More than " + SCALE + " fraction digits: " + new String(text, start, end - start));
+                }
+                fractionDigits++;
+                i++;
+            }
+        }
+        if (i != end || integerDigits + fractionDigits == 0) {
+            throw new NumberFormatException("Not a decimal amount: " + new String(text, start, end - start));
+        }
+        for (int digits = Math.min(fractionDigits, SCALE); digits < SCALE; digits++) {
+            fraction *= 10;
+        }
+        long minorUnits = Math.addExact(Math.multiplyExact(units, MINOR_UNITS_PER_UNIT), fraction);
+        return negative ? -minorUnits : minorUnits;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return other.minorUnits == 0 ? this : ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return other.minorUnits == 0 ? this : ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinorUnits(Math.negateExact(minorUnits));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Write the amount as a plain decimal number with two fraction digits into {@code buffer}, ending at
+     * {@code buffer.length}.
+     *
+     * @param buffer a buffer of at least {@link #MAX_CHARS} characters.
+     * @return the index of the first written character.
+     */
+    int format(char[] buffer) {
+        int position = buffer.length;
+        // Work on the negative value, which also holds Long.MIN_VALUE
+        long remaining = minorUnits < 0 ? minorUnits : -minorUnits;
+        for (int digits = 0; digits < SCALE; digits++) {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        }
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (minorUnits < 0) {
+            buffer[--position] = '-';
+        }
+        return position;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        return minorUnits == ((Money) o).minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        char[] buffer = new char[MAX_CHARS];
+        int start = format(buffer);
+        return new String(buffer, start, buffer.length - start);
+    }
+}
@@ -0,0 +1,55 @@
+package com.banking.threeom.domain.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import java.io.IOException;
+
+/**
+ * Reads a {@link Money} from a JSON number or numeric string, such as {@code 12.3} or {@code "12.30"}.
+ * <p>
+ * Plain decimal numbers are parsed straight from the parser text buffer. Numbers in exponent notation go through
+ * {@link java.math.BigDecimal}. Amounts with more than two significant fraction digits or out of the {@code long}
+ * range are rejected.
+ */
+public class MoneyJsonDeserializer extends StdScalarDeserializer<Money> {
+
+    private static final long serialVersionUID = 1L;
+
+    public MoneyJsonDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT && p.getNumberType() == JsonParser.NumberType.INT) {
+            return Money.ofMinorUnits(p.getIntValue() * Money.MINOR_UNITS_PER_UNIT);
+        }
+        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING) {
+            return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+        }
+        char[] text = p.getTextCharacters();
+        int start = p.getTextOffset();
+        int end = start + p.getTextLength();
+        try {
+            return Money.ofMinorUnits(Money.parseMinorUnits(text, start, end));
+        } catch (NumberFormatException e) {
+            if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                return ofDecimal(p, ctxt);
+            }
+            return (Money) ctxt.handleWeirdStringValue(Money.class, p.getText(), "not a decimal amount with at most 2 fraction digits");
+        } catch (ArithmeticException e) {
+            return (Money) ctxt.handleWeirdNumberValue(Money.class, p.getNumberValue(), "amount out of range");
+        }
+    }
+
+    private static Money ofDecimal(JsonParser p, DeserializationContext ctxt) throws IOException {
+        try {
+            return Money.of(p.getDecimalValue());
+        } catch (ArithmeticException e) {
+            return (Money) ctxt.handleWeirdNumberValue(Money.class, p.getNumberValue(), "not an amount with at most 2 fraction digits");
+        }
+    }
+}
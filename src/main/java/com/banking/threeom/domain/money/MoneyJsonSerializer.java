@@ -0,0 +1,28 @@
+package com.banking.threeom.domain.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+
+/**
+ * Writes a {@link Money} as a JSON number with two fraction digits, such as {@code 12.30}, formatted into a
+ * per-thread buffer.
+ */
+public class MoneyJsonSerializer extends StdSerializer<Money> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[Money.MAX_CHARS]);
+
+    public MoneyJsonSerializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        char[] buffer = BUFFER.get();
+        int start = value.format(buffer);
+        gen.writeNumber(buffer, start, buffer.length - start);
+    }
+}
@@ -0,0 +1,83 @@
+package com.banking.threeom.domain.money;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+/**
+ * Hibernate mapping of a {@link Money} onto a {@code decimal(21,2)} column.
+ * <p>
+ * Usage: {@code @Type(type = "com.banking.threeom.domain.money.MoneyType")} on the attribute.
+ */
+public class MoneyType implements UserType {
+
+    private static final int[] SQL_TYPES = { Types.NUMERIC };
+
+    @Override
+    public int[] sqlTypes() {
+        return SQL_TYPES;
+    }
+
+    @Override
+    public Class<Money> returnedClass() {
+        return Money.class;
+    }
+
+    @Override
+    public boolean equals(Object x, Object y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Object x) {
+        return x.hashCode();
+    }
+
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner)
+        throws SQLException {
+        BigDecimal value = rs.getBigDecimal(names[0]);
+        return value == null ? null : Money.of(value);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session)
+        throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.NUMERIC);
+        } else {
+            st.setBigDecimal(index, ((Money) value).toBigDecimal());
+        }
+    }
+
+    @Override
+    public Object deepCopy(Object value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(Object value) {
+        return (Serializable) value;
+    }
+
+    @Override
+    public Object assemble(Serializable cached, Object owner) {
+        return cached;
+    }
+
+    @Override
+    public Object replace(Object original, Object target, Object owner) {
+        return original;
+    }
+}
@@ -0,0 +1,11 @@
+package com.banking.threeom.repository;
+
+/**
+ * Read-only projection of the id of a {@link com.banking.threeom.domain.Balance} and of its number of stripes,
+ * {@code 0} unless it is hot.
+ */
+public interface BalanceRef {
+    Long getId();
+
+    int getStripes();
+}
@@ -1,7 +1,13 @@
 package com.banking.threeom.repository;
 
 import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.money.Money;
+import java.math.BigDecimal;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +15,34 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface BalanceRepository extends JpaRepository<Balance, Long> {}
+public interface BalanceRepository extends JpaRepository<Balance, Long>, BalanceUpdates {
+    /**
+     * A page of balances without the {@code count(*)} of {@link #findAll(Pageable)}.
+     */
+    Slice<Balance> findAllBy(Pageable pageable);
+
+    /**
+     * The balances no bank account refers to, as an anti-join served by the unique index on
+     * {@code bank_account.balance_id}. Fetching the (null) bank account spares Hibernate one select per balance to
+     * resolve the inverse side of the one-to-one.
+     */
+    @Query(
+        "select balance from Balance balance left join fetch balance.bankAccount bankAccount " +
+        "where bankAccount.id is null order by balance.id"
+    )
+    Slice<Balance> findAllWhereBankAccountIsNull(Pageable pageable);
+
+    @Query("select balance.stripes from Balance balance where balance.id = :id")
+    Optional<Integer> findStripesById(@Param("id") Long id);
+
+    /**
+     * Lock the row of a balance until the end of the transaction, and read its own current balance, without the
+     * stripes. Being native, it bypasses the balances already loaded, which the {@link BalanceUpdates} may have left
+     * stale.
+     *
+     * @param id the id of the balance.
+     * @return the current balance of the row, empty if the balance does not exist.
+     */
+    @Query(value = "select current_balance from balance where id = :id for update", nativeQuery = true)
+    Optional<BigDecimal> lockCurrentBalanceById(@Param("id") Long id);
+}
@@ -0,0 +1,76 @@
+package com.banking.threeom.repository;
+
+import com.banking.threeom.domain.BalanceStripe;
+import com.banking.threeom.domain.money.Money;
+import java.math.BigDecimal;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the BalanceStripe entity. The amounts are only changed by bulk updates, so the
+ * stripes are never loaded as entities once created.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface BalanceStripeRepository extends JpaRepository<BalanceStripe, Long> {
+    /**
+     * Add {@code delta} to the amount of a stripe in a single {@code UPDATE}, without reading the row first.
+     *
+     * @param balanceId the id of the balance.
+     * @param stripeIndex the index of the stripe.
+     * @param delta the amount to add, negative to subtract.
+     * @return the number of updated rows, {@code 0} if the stripe does not exist.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        "update BalanceStripe stripe set stripe.amount = stripe.amount + :delta " +
+        "where stripe.balanceId = :balanceId and stripe.stripeIndex = :stripeIndex"
+    )
+    int addToAmount(@Param("balanceId") Long balanceId, @Param("stripeIndex") int stripeIndex, @Param("delta") Money delta);
+
+    /**
+     * Add {@code delta} to the amount of a stripe as {@link #addToAmount(Long, int, Money)} does, unless the result
+     * would be below {@code floor}; the check and the update are atomic.
+     *
+     * @return the number of updated rows, {@code 0} if the stripe does not exist or would go below the floor.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        "update BalanceStripe stripe set stripe.amount = stripe.amount + :delta " +
+        "where stripe.balanceId = :balanceId and stripe.stripeIndex = :stripeIndex and stripe.amount + :delta >= :floor"
+    )
+    int addToAmountIfAtLeast(
+        @Param("balanceId") Long balanceId,
+        @Param("stripeIndex") int stripeIndex,
+        @Param("delta") Money delta,
+        @Param("floor") Money floor
+    );
+
+    @Modifying(flushAutomatically = true)
+    @Query(
+        "update BalanceStripe stripe set stripe.amount = :amount " +
+        "where stripe.balanceId = :balanceId and stripe.stripeIndex = :stripeIndex"
+    )
+    int updateAmount(@Param("balanceId") Long balanceId, @Param("stripeIndex") int stripeIndex, @Param("amount") Money amount);
+
+    /**
+     * Lock the stripes of a balance until the end of the transaction, in index order, and read their amounts.
+     *
+     * @param balanceId the id of the balance.
+     * @return the amounts of the stripes, by index.
+     */
+    @Query(
+        value = "select amount from balance_stripe where balance_id = :balanceId order by stripe_index for update",
+        nativeQuery = true
+    )
+    List<BigDecimal> lockAmountsByBalanceId(@Param("balanceId") Long balanceId);
+
+    @Query(value = "select coalesce(sum(amount), 0) from balance_stripe where balance_id = :balanceId", nativeQuery = true)
+    BigDecimal sumAmountsByBalanceId(@Param("balanceId") Long balanceId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from BalanceStripe stripe where stripe.balanceId = :balanceId")
+    int deleteByBalanceId(@Param("balanceId") Long balanceId);
+}
@@ -0,0 +1,41 @@
+package com.banking.threeom.repository;
+
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.money.Money;
+
+/**
+ * The atomic updates of the {@link Balance} rows, issued without reading the rows first. The version is incremented,
+ * so that a concurrent update of a loaded entity fails instead of overwriting the update. Only the updated balance is
+ * evicted from the second-level cache; the balances already loaded are left stale.
+ */
+public interface BalanceUpdates {
+    /**
+     * Add {@code delta} to the current balance in a single {@code UPDATE}.
+     *
+     * @param id the id of the balance.
+     * @param delta the amount to add, negative to subtract.
+     * @return the number of updated rows, {@code 0} if the balance does not exist.
+     */
+    int addToCurrentBalance(Long id, Money delta);
+
+    /**
+     * Add {@code delta} to the current balance as {@link #addToCurrentBalance(Long, Money)} does, unless the result
+     * would be below {@code floor}; the check and the update are atomic.
+     *
+     * @param id the id of the balance.
+     * @param delta the amount to add, negative to subtract.
+     * @param floor the lowest allowed current balance.
+     * @return the number of updated rows, {@code 0} if the balance does not exist or would go below the floor.
+     */
+    int addToCurrentBalanceIfAtLeast(Long id, Money delta, Money floor);
+
+    /**
+     * Set the number of stripes and the own current balance of a balance in a single {@code UPDATE}.
+     *
+     * @param id the id of the balance.
+     * @param stripes the number of stripes.
+     * @param currentBalance the current balance of the row, without the stripes.
+     * @return the number of updated rows, {@code 0} if the balance does not exist.
+     */
+    int updateStripes(Long id, int stripes, Money currentBalance);
+}
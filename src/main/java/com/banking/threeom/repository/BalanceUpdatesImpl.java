@@ -0,0 +1,77 @@
+package com.banking.threeom.repository;
+
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.money.Money;
+import java.sql.PreparedStatement;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+
+/**
+ * The {@link BalanceUpdates}, run on the JDBC connection of the session. A Hibernate bulk update, JPQL or native,
+ * would clear the whole second-level cache region of the balances on every money movement; instead the updated
+ * balance alone is evicted, right away and again once the transaction completes, so that a concurrent transaction
+ * cannot cache the row it read before the update committed.
+ */
+public class BalanceUpdatesImpl implements BalanceUpdates {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int addToCurrentBalance(Long id, Money delta) {
+        return update(
+            id,
+            "update balance set current_balance = current_balance + ?, version = version + 1 where id = ?",
+            delta.toBigDecimal(),
+            id
+        );
+    }
+
+    @Override
+    public int addToCurrentBalanceIfAtLeast(Long id, Money delta, Money floor) {
+        return update(
+            id,
+            "update balance set current_balance = current_balance + ?, version = version + 1 " +
+            "where id = ? and current_balance + ? >= ?",
+            delta.toBigDecimal(),
+            id,
+            delta.toBigDecimal(),
+            floor.toBigDecimal()
+        );
+    }
+
+    @Override
+    public int updateStripes(Long id, int stripes, Money currentBalance) {
+        return update(
+            id,
+            "update balance set stripes = ?, current_balance = ?, version = version + 1 where id = ?",
+            stripes,
+            currentBalance.toBigDecimal(),
+            id
+        );
+    }
+
+    private int update(Long id, String sql, Object... parameters) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        // As @Modifying(flushAutomatically = true) would
+        session.flush();
+        int updated = session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int index = 0; index < parameters.length; index++) {
+                    statement.setObject(index + 1, parameters[index]);
+                }
+                return statement.executeUpdate();
+            }
+        });
+        if (updated > 0 && session.getFactory().getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            SessionFactoryImplementor sessionFactory = session.getFactory();
+            sessionFactory.getCache().evictEntityData(Balance.class, id);
+            session
+                .getActionQueue()
+                .registerProcess((success, completedSession) -> sessionFactory.getCache().evictEntityData(Balance.class, id));
+        }
+        return updated;
+    }
+}
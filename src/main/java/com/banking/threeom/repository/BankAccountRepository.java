@@ -1,7 +1,15 @@
 package com.banking.threeom.repository;
 
 import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.money.Money;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +17,52 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface BankAccountRepository extends JpaRepository<BankAccount, Long> {}
+public interface BankAccountRepository extends JpaRepository<BankAccount, Long> {
+    /**
+     * A page of bankAccounts without the {@code count(*)} of {@link #findAll(Pageable)}.
+     */
+    Slice<BankAccount> findAllBy(Pageable pageable);
+
+    @Query("select bankAccount.balance.id from BankAccount bankAccount where bankAccount.id = :id")
+    Optional<Long> findBalanceIdById(@Param("id") Long id);
+
+    /**
+     * The id of the balance of a bank account and its number of stripes, to move money without loading the balance.
+     */
+    @Query(
+        "select bankAccount.balance.id as id, bankAccount.balance.stripes as stripes " +
+        "from BankAccount bankAccount where bankAccount.id = :id"
+    )
+    Optional<BalanceRef> findBalanceRefById(@Param("id") Long id);
+
+    /**
+     * The current balance of a bank account, including the stripes of a hot balance.
+     */
+    default Optional<Money> findCurrentBalanceById(Long id) {
+        return findCurrentBalanceAmountById(id).map(Money::of);
+    }
+
+    @Query(
+        value = "select balance.current_balance + coalesce(" +
+        "(select sum(stripe.amount) from balance_stripe stripe where stripe.balance_id = balance.id), 0) " +
+        "from bank_account bankAccount join balance balance on balance.id = bankAccount.balance_id " +
+        "where bankAccount.id = :id",
+        nativeQuery = true
+    )
+    Optional<BigDecimal> findCurrentBalanceAmountById(@Param("id") Long id);
+
+    @Query("select bankAccount.id from BankAccount bankAccount where bankAccount.balance.id = :balanceId")
+    Optional<Long> findIdByBalanceId(@Param("balanceId") Long balanceId);
+
+    /**
+     * The phone numbers among {@code phoneNumbers} that already belong to a bankAccount.
+     */
+    @Query("select bankAccount.phoneNumber from BankAccount bankAccount where bankAccount.phoneNumber in :phoneNumbers")
+    List<String> findExistingPhoneNumbers(@Param("phoneNumbers") Collection<String> phoneNumbers);
+
+    /**
+     * The emails among {@code emails} that already belong to a bankAccount.
+     */
+    @Query("select bankAccount.email from BankAccount bankAccount where bankAccount.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+}
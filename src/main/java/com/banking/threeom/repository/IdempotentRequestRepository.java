@@ -0,0 +1,21 @@
+package com.banking.threeom.repository;
+
+import com.banking.threeom.domain.IdempotentRequest;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the IdempotentRequest entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface IdempotentRequestRepository extends JpaRepository<IdempotentRequest, Long> {
+    Optional<IdempotentRequest> findOneByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    @Modifying
+    @Query("delete from IdempotentRequest idempotentRequest where idempotentRequest.createdDate < :createdBefore")
+    int deleteAllCreatedBefore(@Param("createdBefore") Instant createdBefore);
+}
@@ -0,0 +1,26 @@
+package com.banking.threeom.repository;
+
+import com.banking.threeom.domain.OutboxEvent;
+import java.util.List;
+import javax.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the OutboxEvent entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * Lock the oldest events with {@code SELECT ... FOR UPDATE}. Unlike a {@code SKIP LOCKED} claim, a concurrent
+     * caller waits for the rows, so the events are relayed by one node at a time and in order.
+     *
+     * @param pageable the number of events to lock.
+     * @return the locked events, ordered by id.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select outboxEvent from OutboxEvent outboxEvent order by outboxEvent.id")
+    List<OutboxEvent> findOldestForUpdate(Pageable pageable);
+}
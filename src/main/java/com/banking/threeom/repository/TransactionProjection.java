@@ -0,0 +1,31 @@
+package com.banking.threeom.repository;
+
+import com.banking.threeom.domain.enumeration.TransactionOperationType;
+import com.banking.threeom.domain.enumeration.TransactionSourceType;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
+import java.time.ZonedDateTime;
+
+/**
+ * Read-only projection of a {@link com.banking.threeom.domain.Transaction} with the ids of its bank accounts
+ * instead of the accounts themselves, read from the foreign key columns without loading any entity.
+ */
+public interface TransactionProjection {
+    Long getId();
+
+    TransactionOperationType getTransactionType();
+
+    Money getAmount();
+
+    ZonedDateTime getTransactionDate();
+
+    TransactionSourceType getSourceType();
+
+    TransactionSourceType getDestinationType();
+
+    TransactionStatus getStatus();
+
+    Long getSourceBankAccountId();
+
+    Long getDestinationBankAccountId();
+}
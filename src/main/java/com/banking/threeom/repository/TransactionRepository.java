@@ -1,7 +1,19 @@
 package com.banking.threeom.repository;
 
 import com.banking.threeom.domain.Transaction;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +21,115 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {}
+public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+    String SELECT_PROJECTION =
+        "select transaction.id as id, transaction.transactionType as transactionType, transaction.amount as amount, " +
+        "transaction.transactionDate as transactionDate, transaction.sourceType as sourceType, " +
+        "transaction.destinationType as destinationType, transaction.status as status, " +
+        "transaction.sourceBankAccount.id as sourceBankAccountId, " +
+        "transaction.destinationBankAccount.id as destinationBankAccountId " +
+        "from Transaction transaction";
+
+    /**
+     * A page of transactions as projections, in a single select: unlike {@link #findAll(Pageable)} it does not load
+     * the eager bank accounts, and their balances, of every transaction.
+     */
+    @Query(value = SELECT_PROJECTION, countQuery = "select count(transaction) from Transaction transaction")
+    Page<TransactionProjection> findAllProjectedBy(Pageable pageable);
+
+    /**
+     * A page of transactions as projections, without the {@code count(*)} of {@link #findAllProjectedBy(Pageable)}.
+     */
+    @Query(SELECT_PROJECTION)
+    Slice<TransactionProjection> findSliceProjectedBy(Pageable pageable);
+
+    /**
+     * Lock the oldest transactions in the given status with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so that
+     * concurrent callers on any node each get a disjoint set of rows.
+     *
+     * @param status the status of the transactions to lock.
+     * @param pageable the number of transactions to lock.
+     * @return the locked transactions, ordered by id.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    // -2 is org.hibernate.LockOptions.SKIP_LOCKED, ignored by dialects without SKIP LOCKED support
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select transaction from Transaction transaction where transaction.status = :status order by transaction.id")
+    List<Transaction> findAllByStatusForUpdateSkipLocked(@Param("status") TransactionStatus status, Pageable pageable);
+
+    /**
+     * The first page of the keyset pagination of {@link #findAllProjectedBefore(ZonedDateTime, Long, Pageable)}.
+     */
+    @Query(SELECT_PROJECTION + " order by transaction.transactionDate desc, transaction.id desc")
+    List<TransactionProjection> findAllProjectedByOrderByTransactionDateDescIdDesc(Pageable pageable);
+
+    /**
+     * Keyset pagination: the transactions strictly after the given {@code (transactionDate, id)} in descending
+     * order, read by an index range scan whatever the depth of the page, as projections.
+     */
+    @Query(
+        SELECT_PROJECTION +
+        " where (transaction.transactionDate, transaction.id) < (:transactionDate, :id) " +
+        "order by transaction.transactionDate desc, transaction.id desc"
+    )
+    List<TransactionProjection> findAllProjectedBefore(
+        @Param("transactionDate") ZonedDateTime transactionDate,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    /**
+     * Keyset pagination of the transactions debited from a bank account, newest first, read by a range scan of the
+     * {@code (source_bank_account_id, transaction_date)} index, as projections.
+     */
+    @Query(
+        SELECT_PROJECTION +
+        " where transaction.sourceBankAccount.id = :bankAccountId and transaction.status in :statuses " +
+        "and transaction.transactionDate >= :from " +
+        "and (transaction.transactionDate, transaction.id) < (:transactionDate, :id) " +
+        "order by transaction.transactionDate desc, transaction.id desc"
+    )
+    List<TransactionProjection> findAllProjectedBySourceBankAccountBefore(
+        @Param("bankAccountId") Long bankAccountId,
+        @Param("statuses") Collection<TransactionStatus> statuses,
+        @Param("from") ZonedDateTime from,
+        @Param("transactionDate") ZonedDateTime transactionDate,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    /**
+     * Keyset pagination of the transactions credited to a bank account, newest first, read by a range scan of the
+     * {@code (destination_bank_account_id, transaction_date)} index, as projections.
+     */
+    @Query(
+        SELECT_PROJECTION +
+        " where transaction.destinationBankAccount.id = :bankAccountId and transaction.status in :statuses " +
+        "and transaction.transactionDate >= :from " +
+        "and (transaction.transactionDate, transaction.id) < (:transactionDate, :id) " +
+        "order by transaction.transactionDate desc, transaction.id desc"
+    )
+    List<TransactionProjection> findAllProjectedByDestinationBankAccountBefore(
+        @Param("bankAccountId") Long bankAccountId,
+        @Param("statuses") Collection<TransactionStatus> statuses,
+        @Param("from") ZonedDateTime from,
+        @Param("transactionDate") ZonedDateTime transactionDate,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select transaction from Transaction transaction where transaction.id = :id")
+    Optional<Transaction> findOneForUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query(
+        "update Transaction transaction set transaction.status = :status, transaction.claimedDate = null " +
+        "where transaction.status = :claimedStatus and transaction.claimedDate < :claimedBefore"
+    )
+    int releaseClaims(
+        @Param("claimedStatus") TransactionStatus claimedStatus,
+        @Param("claimedBefore") Instant claimedBefore,
+        @Param("status") TransactionStatus status
+    );
+}
@@ -0,0 +1,21 @@
+package com.banking.threeom.service;
+
+/**
+ * Outcome of an atomic adjustment of a current balance, see {@link BalanceService#adjust}.
+ */
+public enum AdjustmentResult {
+    /**
+     * The delta was added.
+     */
+    APPLIED,
+
+    /**
+     * The balance was left unchanged, as the result would have been below the floor.
+     */
+    OVERDRAFT,
+
+    /**
+     * There is no such balance.
+     */
+    NOT_FOUND
+}
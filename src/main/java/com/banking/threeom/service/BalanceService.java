@@ -1,23 +1,28 @@
 package com.banking.threeom.service;
 
 import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.money.Money;
 import com.banking.threeom.repository.BalanceRepository;
+import com.banking.threeom.repository.BankAccountRepository;
 import com.banking.threeom.service.dto.BalanceDTO;
+import com.banking.threeom.service.events.AccountEventHub;
 import com.banking.threeom.service.mapper.BalanceMapper;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
- * Service Implementation for managing {@link Balance}.
+ * Service Implementation for managing {@link Balance}. Updated balances are published to the {@link AccountEventHub}.
+ * <p>
+ * The current balance of a hot balance includes its stripes, see {@link BalanceStripeService}: it is read as their sum,
+ * and setting it sets the base row to the new current balance less the stripes, which are locked meanwhile.
  */
 @Service
 @Transactional
@@ -29,9 +34,28 @@ public class BalanceService {
 
     private final BalanceMapper balanceMapper;
 
-    public BalanceService(BalanceRepository balanceRepository, BalanceMapper balanceMapper) {
+    private final RowCountService rowCountService;
+
+    private final BankAccountRepository bankAccountRepository;
+
+    private final BalanceStripeService balanceStripeService;
+
+    private final AccountEventHub accountEventHub;
+
+    public BalanceService(
+        BalanceRepository balanceRepository,
+        BalanceMapper balanceMapper,
+        RowCountService rowCountService,
+        BankAccountRepository bankAccountRepository,
+        BalanceStripeService balanceStripeService,
+        AccountEventHub accountEventHub
+    ) {
         this.balanceRepository = balanceRepository;
         this.balanceMapper = balanceMapper;
+        this.rowCountService = rowCountService;
+        this.bankAccountRepository = bankAccountRepository;
+        this.balanceStripeService = balanceStripeService;
+        this.accountEventHub = accountEventHub;
     }
 
     /**
@@ -44,11 +68,14 @@ public class BalanceService {
         log.debug("Request to save Balance : {}", balanceDTO);
         Balance balance = balanceMapper.toEntity(balanceDTO);
         balance = balanceRepository.save(balance);
+        rowCountService.invalidate(Balance.class);
         return balanceMapper.toDto(balance);
     }
 
     /**
-     * Update a balance.
+     * Update a balance. If the DTO has a version, the update fails with a {@link ConcurrencyFailureException} unless
+     * it is the current version of the entity. Without a version the last write wins, but a conflict with a concurrent
+     * write fails rather than being retried over it.
      *
      * @param balanceDTO the entity to save.
      * @return the persisted entity.
@@ -56,12 +83,21 @@ public class BalanceService {
     public BalanceDTO update(BalanceDTO balanceDTO) {
         log.debug("Request to update Balance : {}", balanceDTO);
         Balance balance = balanceMapper.toEntity(balanceDTO);
-        balance = balanceRepository.save(balance);
-        return balanceMapper.toDto(balance);
+        Optional<Balance> existingBalance = balanceRepository.findById(balanceDTO.getId());
+        balance.setVersion(
+            existingBalance.map(existing -> checkVersion(existing, balanceDTO.getVersion())).orElse(balanceDTO.getVersion())
+        );
+        existingBalance.ifPresent(existing -> {
+            balance.setStripes(existing.getStripes());
+            balance.setCurrentBalance(toBase(balance, balanceDTO.getCurrentBalance()));
+        });
+        BalanceDTO result = toDto(balanceRepository.saveAndFlush(balance));
+        publish(result);
+        return result;
     }
 
     /**
-     * Partially update a balance.
+     * Partially update a balance. The version of the DTO, if any, is checked as in {@link #update(BalanceDTO)}.
      *
      * @param balanceDTO the entity to update partially.
      * @return the persisted entity.
@@ -72,12 +108,47 @@ public class BalanceService {
         return balanceRepository
             .findById(balanceDTO.getId())
             .map(existingBalance -> {
+                checkVersion(existingBalance, balanceDTO.getVersion());
                 balanceMapper.partialUpdate(existingBalance, balanceDTO);
+                if (balanceDTO.getCurrentBalance() != null) {
+                    existingBalance.setCurrentBalance(toBase(existingBalance, balanceDTO.getCurrentBalance()));
+                }
 
                 return existingBalance;
             })
-            .map(balanceRepository::save)
-            .map(balanceMapper::toDto);
+            .map(balanceRepository::saveAndFlush)
+            .map(balance -> {
+                BalanceDTO result = toDto(balance);
+                publish(result);
+                return result;
+            });
+    }
+
+    /**
+     * Add {@code delta} to the current balance of a balance in a single {@code UPDATE}, unless the result would be
+     * below {@code floor}. Unlike {@link #partialUpdate(BalanceDTO)}, the row is not read first, and concurrent
+     * adjustments queue on the row lock instead of overwriting each other. When the base row of a hot balance alone
+     * would go below the floor, its stripes are locked and counted too.
+     *
+     * @param id the id of the balance.
+     * @param delta the amount to add, negative to subtract.
+     * @param floor the lowest allowed current balance.
+     * @return whether the delta was added, from the number of updated rows.
+     */
+    public AdjustmentResult adjust(Long id, Money delta, Money floor) {
+        log.debug("Request to adjust Balance : {} by {}", id, delta);
+        if (balanceRepository.addToCurrentBalanceIfAtLeast(id, delta, floor) == 0) {
+            Optional<Integer> stripes = balanceRepository.findStripesById(id);
+            if (stripes.isEmpty()) {
+                return AdjustmentResult.NOT_FOUND;
+            }
+            AdjustmentResult result = stripes.get() > 0 ? balanceStripeService.adjust(id, delta, floor) : AdjustmentResult.OVERDRAFT;
+            if (result != AdjustmentResult.APPLIED) {
+                return result;
+            }
+        }
+        bankAccountRepository.findIdByBalanceId(id).ifPresent(accountEventHub::publishBalanceChange);
+        return AdjustmentResult.APPLIED;
     }
 
     /**
@@ -89,21 +160,37 @@ public class BalanceService {
     @Transactional(readOnly = true)
     public Page<BalanceDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Balances");
-        return balanceRepository.findAll(pageable).map(balanceMapper::toDto);
+        return balanceRepository.findAll(pageable).map(this::toDto);
+    }
+
+    /**
+     * Get all the balances, with a total computed in the given mode.
+     *
+     * @param pageable the pagination information.
+     * @param countMode how to count the balances, or {@code null} for the default mode.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<BalanceDTO> findAll(Pageable pageable, CountMode countMode) {
+        log.debug("Request to get all Balances with {} count", countMode);
+        if (countMode == CountMode.EXACT) {
+            return findAll(pageable);
+        }
+        Slice<BalanceDTO> slice = balanceRepository.findAllBy(pageable).map(this::toDto);
+        long total = rowCountService.count(Balance.class, countMode, balanceRepository::count);
+        return new PageImpl<>(slice.getContent(), pageable, total);
     }
 
     /**
-     *  Get all the balances where BankAccount is {@code null}.
+     *  Get the balances where BankAccount is {@code null}.
+     *
+     *  @param pageable the pagination information.
      *  @return the list of entities.
      */
     @Transactional(readOnly = true)
-    public List<BalanceDTO> findAllWhereBankAccountIsNull() {
-        log.debug("Request to get all balances where BankAccount is null");
-        return StreamSupport
-            .stream(balanceRepository.findAll().spliterator(), false)
-            .filter(balance -> balance.getBankAccount() == null)
-            .map(balanceMapper::toDto)
-            .collect(Collectors.toCollection(LinkedList::new));
+    public Slice<BalanceDTO> findAllWhereBankAccountIsNull(Pageable pageable) {
+        log.debug("Request to get balances where BankAccount is null");
+        return balanceRepository.findAllWhereBankAccountIsNull(pageable).map(this::toDto);
     }
 
     /**
@@ -115,7 +202,7 @@ public class BalanceService {
     @Transactional(readOnly = true)
     public Optional<BalanceDTO> findOne(Long id) {
         log.debug("Request to get Balance : {}", id);
-        return balanceRepository.findById(id).map(balanceMapper::toDto);
+        return balanceRepository.findById(id).map(this::toDto);
     }
 
     /**
@@ -125,6 +212,39 @@ public class BalanceService {
      */
     public void delete(Long id) {
         log.debug("Request to delete Balance : {}", id);
+        balanceStripeService.deleteStripes(id);
         balanceRepository.deleteById(id);
+        rowCountService.invalidate(Balance.class);
+    }
+
+    private BalanceDTO toDto(Balance balance) {
+        BalanceDTO balanceDTO = balanceMapper.toDto(balance);
+        if (balance.getStripes() > 0 && balanceDTO.getCurrentBalance() != null) {
+            balanceDTO.setCurrentBalance(balanceDTO.getCurrentBalance().plus(balanceStripeService.getStripedAmount(balance.getId())));
+        }
+        return balanceDTO;
+    }
+
+    /**
+     * @return the current balance to set on the base row of a balance for it to hold {@code currentBalance}.
+     */
+    private Money toBase(Balance balance, Money currentBalance) {
+        if (balance.getStripes() == 0 || currentBalance == null) {
+            return currentBalance;
+        }
+        return currentBalance.minus(balanceStripeService.lockStripedAmount(balance.getId()));
+    }
+
+    private void publish(BalanceDTO balance) {
+        bankAccountRepository.findIdByBalanceId(balance.getId()).ifPresent(accountEventHub::publishBalanceChange);
+    }
+
+    private static Long checkVersion(Balance balance, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(balance.getVersion())) {
+            throw new ConcurrencyFailureException(
+                "Balance " + balance.getId() + " is at version " + balance.getVersion() + ", not " + expectedVersion
+            );
+        }
+        return balance.getVersion();
     }
 }
@@ -0,0 +1,273 @@
+package com.banking.threeom.service;
+
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.BalanceStripe;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BalanceRef;
+import com.banking.threeom.repository.BalanceRepository;
+import com.banking.threeom.repository.BalanceStripeRepository;
+import com.banking.threeom.repository.BankAccountRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service moving money on the {@link Balance} rows, and striping the balance of a hot bank account, e.g. a bank-owned
+ * account that is the counterparty of most transactions, into {@link BalanceStripe}s.
+ * <p>
+ * The current balance of a hot balance is its own current balance, the base, plus the amounts of its K stripes. A
+ * credit is added to a random stripe, so that concurrent credits queue on K row locks instead of one. A debit is
+ * subtracted from the first stripe holding enough, starting from a random one, then from the base; when no single row
+ * holds enough, the balance is rebalanced: its stripes and base are locked, and the total less the debit is spread
+ * evenly again, unless the total is below the debit. The stripes are always locked in index order and before the
+ * base.
+ */
+@Service
+@Transactional
+public class BalanceStripeService {
+
+    public static final int MIN_STRIPES = 2;
+
+    public static final int MAX_STRIPES = 64;
+
+    /**
+     * The row a credit was added to when it is the base rather than a stripe.
+     */
+    public static final int BASE = -1;
+
+    private final Logger log = LoggerFactory.getLogger(BalanceStripeService.class);
+
+    private final BalanceRepository balanceRepository;
+
+    private final BalanceStripeRepository balanceStripeRepository;
+
+    private final BankAccountRepository bankAccountRepository;
+
+    public BalanceStripeService(
+        BalanceRepository balanceRepository,
+        BalanceStripeRepository balanceStripeRepository,
+        BankAccountRepository bankAccountRepository
+    ) {
+        this.balanceRepository = balanceRepository;
+        this.balanceStripeRepository = balanceStripeRepository;
+        this.bankAccountRepository = bankAccountRepository;
+    }
+
+    /**
+     * Mark a bank account as hot: fold its balance and spread it evenly over {@code stripes} stripes. An already hot
+     * bank account is striped again.
+     *
+     * @param bankAccountId the id of the bank account.
+     * @param stripes the number of stripes, between {@value #MIN_STRIPES} and {@value #MAX_STRIPES}.
+     * @return whether the bank account exists.
+     */
+    public boolean stripe(Long bankAccountId, int stripes) {
+        log.debug("Request to stripe the Balance of BankAccount {} into {} stripes", bankAccountId, stripes);
+        if (stripes < MIN_STRIPES || stripes > MAX_STRIPES) {
+            throw new IllegalArgumentException("The stripes must be between " + MIN_STRIPES + " and " + MAX_STRIPES + ": " + stripes);
+        }
+        Optional<Long> balanceId = bankAccountRepository.findBalanceIdById(bankAccountId);
+        Optional<Money> total = balanceId.flatMap(this::lockTotal);
+        if (total.isEmpty()) {
+            return false;
+        }
+        Money share = share(total.get(), stripes);
+        balanceStripeRepository.deleteByBalanceId(balanceId.get());
+        balanceStripeRepository.saveAll(
+            IntStream
+                .range(0, stripes)
+                .mapToObj(index -> new BalanceStripe().balanceId(balanceId.get()).stripeIndex(index).amount(share))
+                .collect(Collectors.toList())
+        );
+        balanceRepository.updateStripes(balanceId.get(), stripes, rest(total.get(), share, stripes));
+        return true;
+    }
+
+    /**
+     * Unmark a hot bank account: fold its stripes back into its balance.
+     *
+     * @param bankAccountId the id of the bank account.
+     * @return whether the bank account exists.
+     */
+    public boolean unstripe(Long bankAccountId) {
+        log.debug("Request to unstripe the Balance of BankAccount {}", bankAccountId);
+        Optional<Long> balanceId = bankAccountRepository.findBalanceIdById(bankAccountId);
+        Optional<Money> total = balanceId.flatMap(this::lockTotal);
+        if (total.isEmpty()) {
+            return false;
+        }
+        balanceStripeRepository.deleteByBalanceId(balanceId.get());
+        balanceRepository.updateStripes(balanceId.get(), 0, total.get());
+        return true;
+    }
+
+    /**
+     * Add an amount to a balance, on a random stripe if it is hot.
+     *
+     * @param balance the balance.
+     * @param amount the amount to add, negative to subtract.
+     * @return the index of the stripe the amount was added to, {@link #BASE} for the base, empty if the balance does
+     * not exist.
+     */
+    public OptionalInt credit(BalanceRef balance, Money amount) {
+        int stripes = balance.getStripes();
+        if (stripes > 0) {
+            int stripe = randomStripe(stripes);
+            if (balanceStripeRepository.addToAmount(balance.getId(), stripe, amount) == 1) {
+                return OptionalInt.of(stripe);
+            }
+        }
+        // Not hot, or no longer
+        return balanceRepository.addToCurrentBalance(balance.getId(), amount) == 1 ? OptionalInt.of(BASE) : OptionalInt.empty();
+    }
+
+    /**
+     * Undo a credit on the row it was added to, which the transaction already holds the lock of, so that no other row
+     * of the balance gets locked out of order.
+     *
+     * @param balance the balance.
+     * @param row the row returned by {@link #credit(BalanceRef, Money)}.
+     * @param amount the amount that was added.
+     */
+    public void undoCredit(BalanceRef balance, int row, Money amount) {
+        if (row == BASE) {
+            balanceRepository.addToCurrentBalance(balance.getId(), amount.negate());
+        } else {
+            balanceStripeRepository.addToAmount(balance.getId(), row, amount.negate());
+        }
+    }
+
+    /**
+     * Subtract an amount from a balance, unless its current balance would go negative.
+     *
+     * @param balance the balance.
+     * @param amount the amount to subtract.
+     * @return whether the amount was subtracted.
+     */
+    public boolean debit(BalanceRef balance, Money amount) {
+        Money delta = amount.negate();
+        int stripes = balance.getStripes();
+        int first = stripes > 0 ? randomStripe(stripes) : 0;
+        for (int i = 0; i < stripes; i++) {
+            if (balanceStripeRepository.addToAmountIfAtLeast(balance.getId(), (first + i) % stripes, delta, Money.ZERO) == 1) {
+                return true;
+            }
+        }
+        if (balanceRepository.addToCurrentBalanceIfAtLeast(balance.getId(), delta, Money.ZERO) == 1) {
+            return true;
+        }
+        if (stripes == 0 || !rebalance(balance.getId(), amount)) {
+            log.debug("Insufficient funds on Balance : {}", balance.getId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Add {@code delta} to a hot balance unless its current balance, stripes included, would be below {@code floor};
+     * the stripes and the base are locked to check it.
+     *
+     * @param balanceId the id of the balance.
+     * @param delta the amount to add, negative to subtract.
+     * @param floor the lowest allowed current balance.
+     * @return whether the delta was added.
+     */
+    public AdjustmentResult adjust(Long balanceId, Money delta, Money floor) {
+        Optional<Money> total = lockTotal(balanceId);
+        if (total.isEmpty()) {
+            return AdjustmentResult.NOT_FOUND;
+        }
+        if (total.get().plus(delta).compareTo(floor) < 0) {
+            return AdjustmentResult.OVERDRAFT;
+        }
+        balanceRepository.addToCurrentBalance(balanceId, delta);
+        return AdjustmentResult.APPLIED;
+    }
+
+    /**
+     * @param balanceId the id of a balance.
+     * @return the sum of the amounts of its stripes, {@code 0} unless it is hot.
+     */
+    @Transactional(readOnly = true)
+    public Money getStripedAmount(Long balanceId) {
+        return Money.of(balanceStripeRepository.sumAmountsByBalanceId(balanceId));
+    }
+
+    /**
+     * Lock the stripes of a balance until the end of the transaction, so that its stripes no longer change.
+     *
+     * @param balanceId the id of a balance.
+     * @return the sum of the amounts of its stripes, {@code 0} unless it is hot.
+     */
+    public Money lockStripedAmount(Long balanceId) {
+        return sum(balanceStripeRepository.lockAmountsByBalanceId(balanceId));
+    }
+
+    /**
+     * Delete the stripes of a balance, before deleting the balance itself.
+     *
+     * @param balanceId the id of the balance.
+     */
+    public void deleteStripes(Long balanceId) {
+        balanceStripeRepository.deleteByBalanceId(balanceId);
+    }
+
+    private boolean rebalance(Long balanceId, Money amount) {
+        List<BigDecimal> amounts = balanceStripeRepository.lockAmountsByBalanceId(balanceId);
+        Optional<BigDecimal> base = balanceRepository.lockCurrentBalanceById(balanceId);
+        if (base.isEmpty()) {
+            return false;
+        }
+        Money rest = Money.of(base.get()).plus(sum(amounts)).minus(amount);
+        if (rest.isNegative()) {
+            return false;
+        }
+        log.debug("Rebalance the {} stripes of Balance : {}", amounts.size(), balanceId);
+        Money share = share(rest, amounts.size());
+        for (int index = 0; index < amounts.size(); index++) {
+            balanceStripeRepository.updateAmount(balanceId, index, share);
+        }
+        balanceRepository.updateStripes(balanceId, amounts.size(), rest(rest, share, amounts.size()));
+        return true;
+    }
+
+    /**
+     * Lock the stripes and the base of a balance.
+     *
+     * @return the current balance, stripes included, empty if the balance does not exist.
+     */
+    private Optional<Money> lockTotal(Long balanceId) {
+        Money striped = lockStripedAmount(balanceId);
+        return balanceRepository.lockCurrentBalanceById(balanceId).map(base -> Money.of(base).plus(striped));
+    }
+
+    private static Money sum(List<BigDecimal> amounts) {
+        return amounts.stream().map(Money::of).reduce(Money.ZERO, Money::plus);
+    }
+
+    /**
+     * @return the amount of each stripe when spreading {@code total} evenly, nothing if it is negative.
+     */
+    private static Money share(Money total, int stripes) {
+        return stripes == 0 || total.signum() <= 0 ? Money.ZERO : Money.ofMinorUnits(total.getMinorUnits() / stripes);
+    }
+
+    /**
+     * @return what is left for the base once every stripe got its share.
+     */
+    private static Money rest(Money total, Money share, int stripes) {
+        return total.minus(Money.ofMinorUnits(share.getMinorUnits() * stripes));
+    }
+
+    private static int randomStripe(int stripes) {
+        return ThreadLocalRandom.current().nextInt(stripes);
+    }
+}
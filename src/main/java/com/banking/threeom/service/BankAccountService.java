@@ -1,14 +1,18 @@
 package com.banking.threeom.service;
 
 import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.money.Money;
 import com.banking.threeom.repository.BankAccountRepository;
 import com.banking.threeom.service.dto.BankAccountDTO;
 import com.banking.threeom.service.mapper.BankAccountMapper;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,9 +29,12 @@ public class BankAccountService {
 
     private final BankAccountMapper bankAccountMapper;
 
-    public BankAccountService(BankAccountRepository bankAccountRepository, BankAccountMapper bankAccountMapper) {
+    private final RowCountService rowCountService;
+
+    public BankAccountService(BankAccountRepository bankAccountRepository, BankAccountMapper bankAccountMapper, RowCountService rowCountService) {
         this.bankAccountRepository = bankAccountRepository;
         this.bankAccountMapper = bankAccountMapper;
+        this.rowCountService = rowCountService;
     }
 
     /**
@@ -40,11 +47,14 @@ public class BankAccountService {
         log.debug("Request to save BankAccount : {}", bankAccountDTO);
         BankAccount bankAccount = bankAccountMapper.toEntity(bankAccountDTO);
         bankAccount = bankAccountRepository.save(bankAccount);
+        rowCountService.invalidate(BankAccount.class);
         return bankAccountMapper.toDto(bankAccount);
     }
 
     /**
-     * Update a bankAccount.
+     * Update a bankAccount. If the DTO has a version, the update fails with a {@link ConcurrencyFailureException} unless
+     * it is the current version of the entity. Without a version the last write wins, but a conflict with a concurrent
+     * write fails rather than being retried over it.
      *
      * @param bankAccountDTO the entity to save.
      * @return the persisted entity.
@@ -52,12 +62,18 @@ public class BankAccountService {
     public BankAccountDTO update(BankAccountDTO bankAccountDTO) {
         log.debug("Request to update BankAccount : {}", bankAccountDTO);
         BankAccount bankAccount = bankAccountMapper.toEntity(bankAccountDTO);
-        bankAccount = bankAccountRepository.save(bankAccount);
+        bankAccount.setVersion(
+            bankAccountRepository
+                .findById(bankAccountDTO.getId())
+                .map(existingBankAccount -> checkVersion(existingBankAccount, bankAccountDTO.getVersion()))
+                .orElse(bankAccountDTO.getVersion())
+        );
+        bankAccount = bankAccountRepository.saveAndFlush(bankAccount);
         return bankAccountMapper.toDto(bankAccount);
     }
 
     /**
-     * Partially update a bankAccount.
+     * Partially update a bankAccount. The version of the DTO, if any, is checked as in {@link #update(BankAccountDTO)}.
      *
      * @param bankAccountDTO the entity to update partially.
      * @return the persisted entity.
@@ -68,11 +84,12 @@ public class BankAccountService {
         return bankAccountRepository
             .findById(bankAccountDTO.getId())
             .map(existingBankAccount -> {
+                checkVersion(existingBankAccount, bankAccountDTO.getVersion());
                 bankAccountMapper.partialUpdate(existingBankAccount, bankAccountDTO);
 
                 return existingBankAccount;
             })
-            .map(bankAccountRepository::save)
+            .map(bankAccountRepository::saveAndFlush)
             .map(bankAccountMapper::toDto);
     }
 
@@ -88,6 +105,24 @@ public class BankAccountService {
         return bankAccountRepository.findAll(pageable).map(bankAccountMapper::toDto);
     }
 
+    /**
+     * Get all the bankAccounts, with a total computed in the given mode.
+     *
+     * @param pageable the pagination information.
+     * @param countMode how to count the bankAccounts, or {@code null} for the default mode.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<BankAccountDTO> findAll(Pageable pageable, CountMode countMode) {
+        log.debug("Request to get all BankAccounts with {} count", countMode);
+        if (countMode == CountMode.EXACT) {
+            return findAll(pageable);
+        }
+        Slice<BankAccountDTO> slice = bankAccountRepository.findAllBy(pageable).map(bankAccountMapper::toDto);
+        long total = rowCountService.count(BankAccount.class, countMode, bankAccountRepository::count);
+        return new PageImpl<>(slice.getContent(), pageable, total);
+    }
+
     /**
      * Get one bankAccount by id.
      *
@@ -100,6 +135,18 @@ public class BankAccountService {
         return bankAccountRepository.findById(id).map(bankAccountMapper::toDto);
     }
 
+    /**
+     * Get the current balance of a bankAccount.
+     *
+     * @param id the id of the entity.
+     * @return the current balance, or empty if the entity or its balance does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Money> findCurrentBalance(Long id) {
+        log.debug("Request to get the current balance of BankAccount : {}", id);
+        return bankAccountRepository.findCurrentBalanceById(id);
+    }
+
     /**
      * Delete the bankAccount by id.
      *
@@ -108,5 +155,15 @@ public class BankAccountService {
     public void delete(Long id) {
         log.debug("Request to delete BankAccount : {}", id);
         bankAccountRepository.deleteById(id);
+        rowCountService.invalidate(BankAccount.class);
+    }
+
+    private static Long checkVersion(BankAccount bankAccount, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(bankAccount.getVersion())) {
+            throw new ConcurrencyFailureException(
+                "BankAccount " + bankAccount.getId() + " is at version " + bankAccount.getVersion() + ", not " + expectedVersion
+            );
+        }
+        return bankAccount.getVersion();
     }
 }
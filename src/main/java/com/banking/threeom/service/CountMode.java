@@ -0,0 +1,35 @@
+package com.banking.threeom.service;
+
+import java.util.Locale;
+
+/**
+ * How the total number of rows of a paginated listing is computed.
+ */
+public enum CountMode {
+    /**
+     * {@code count(*)} on every request.
+     */
+    EXACT,
+
+    /**
+     * {@code count(*)} at most once per TTL, recomputed after inserts and deletes.
+     */
+    CACHED,
+
+    /**
+     * The row estimate of the planner statistics, without reading the table. Falls back to {@link #CACHED} where
+     * there are no statistics.
+     */
+    ESTIMATED;
+
+    /**
+     * Parse a request parameter, ignoring case.
+     *
+     * @param value the parameter value.
+     * @return the mode.
+     * @throws IllegalArgumentException if the value is not a mode.
+     */
+    public static CountMode fromParameter(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
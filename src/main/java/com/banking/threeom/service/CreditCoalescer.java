@@ -0,0 +1,232 @@
+package com.banking.threeom.service;
+
+import com.banking.threeom.domain.Transaction;
+import com.banking.threeom.domain.enumeration.TransactionOperationType;
+import com.banking.threeom.repository.TransactionRepository;
+import com.banking.threeom.service.dto.TransactionDTO;
+import com.banking.threeom.service.events.AccountEventHub;
+import com.banking.threeom.service.mapper.TransactionMapper;
+import com.banking.threeom.service.outbox.OutboxService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind executor of deposits, so that a balance credited hundreds of times per second is not updated, and its
+ * row lock taken, once per deposit.
+ * <p>
+ * The deposits submitted within {@code application.credit-coalescing.window-ms} of the first one are written by a
+ * single thread in one database transaction: the credits to the same balance are summed into one {@code UPDATE}, see
+ * {@link TransferService#executeDeposits(List)}, and the transaction rows are inserted as a JDBC batch. Deposits
+ * arriving while a group is written form the next group, so the groups grow with the load.
+ * <p>
+ * A deposit is durable once {@link #submit(Transaction)} returns: the caller waits for the outcome of its group, however
+ * long the database takes, so that it never gets an error for a deposit that then commits. When a group fails, its
+ * deposits are written one by one, and the caller of a failing one gets an exception; that deposit was not committed.
+ * The group is committed independently of the transaction of the caller. On shutdown, the deposits already submitted
+ * are written before the data source closes.
+ * <p>
+ * A coalesced deposit is not idempotent: a client that times out or loses the connection does not know whether it
+ * committed, and may credit the balance twice by sending it again. Clients that retry deposits must send an
+ * {@code Idempotency-Key}; such a deposit is saved in the database transaction recording the key, not coalesced.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.credit-coalescing", name = "enabled", havingValue = "true")
+public class CreditCoalescer {
+
+    private final Logger log = LoggerFactory.getLogger(CreditCoalescer.class);
+
+    private final TransferService transferService;
+
+    private final TransactionRepository transactionRepository;
+
+    private final TransactionMapper transactionMapper;
+
+    private final RowCountService rowCountService;
+
+    private final OutboxService outboxService;
+
+    private final AccountEventHub accountEventHub;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final BlockingQueue<PendingDeposit> queue = new LinkedBlockingQueue<>();
+
+    private volatile boolean running;
+
+    private volatile Thread thread;
+
+    public CreditCoalescer(
+        TransferService transferService,
+        TransactionRepository transactionRepository,
+        TransactionMapper transactionMapper,
+        RowCountService rowCountService,
+        OutboxService outboxService,
+        AccountEventHub accountEventHub,
+        PlatformTransactionManager transactionManager,
+        @Value("${application.credit-coalescing.window-ms:5}") long windowMillis,
+        @Value("${application.credit-coalescing.max-batch-size:500}") int maxBatchSize
+    ) {
+        this.transferService = transferService;
+        this.transactionRepository = transactionRepository;
+        this.transactionMapper = transactionMapper;
+        this.rowCountService = rowCountService;
+        this.outboxService = outboxService;
+        this.accountEventHub = accountEventHub;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "banking-3-om-credit-coalescer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop accepting deposits and write the ones already submitted.
+     *
+     * @throws InterruptedException if interrupted while waiting for the last group.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        log.debug("Stopping credit coalescer with {} queued deposits", queue.size());
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            current.join();
+        }
+        writeQueued();
+    }
+
+    /**
+     * Save a waiting deposit with its resulting status, together with the other deposits of its group.
+     *
+     * @param transaction the transaction, executed only if it is a deposit.
+     * @return the persisted transaction, or empty if it is not a deposit or the coalescer is stopped, in which case the
+     * caller executes the transaction itself.
+     */
+    public Optional<TransactionDTO> submit(Transaction transaction) {
+        if (!running || transaction.getTransactionType() != TransactionOperationType.DEPOSIT) {
+            return Optional.empty();
+        }
+        PendingDeposit deposit = new PendingDeposit(transaction);
+        queue.add(deposit);
+        if (!running && queue.remove(deposit)) {
+            // Stopped meanwhile, nobody would write it
+            return Optional.empty();
+        }
+        try {
+            // Not interruptible either: every submitted deposit is written, the caller must learn whether it committed
+            return Optional.of(deposit.result.join());
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Coalesced deposit failed", e.getCause());
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                PendingDeposit first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    write(collect(first));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private List<PendingDeposit> collect(PendingDeposit first) throws InterruptedException {
+        List<PendingDeposit> group = new ArrayList<>();
+        group.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (group.size() < maxBatchSize) {
+            PendingDeposit next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+        return group;
+    }
+
+    private void writeQueued() {
+        List<PendingDeposit> group = new ArrayList<>();
+        while (queue.drainTo(group, maxBatchSize) > 0) {
+            write(group);
+            group = new ArrayList<>();
+        }
+    }
+
+    private void write(List<PendingDeposit> group) {
+        log.debug("Writing {} coalesced deposits", group.size());
+        List<Transaction> transactions = group.stream().map(deposit -> deposit.transaction).collect(Collectors.toList());
+        List<TransactionDTO> saved;
+        try {
+            saved = transactionTemplate.execute(status -> save(transactions));
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                log.warn("Writing a coalesced deposit failed: {}", e.getMessage());
+                group.get(0).result.completeExceptionally(e);
+            } else {
+                // So that one invalid deposit only fails itself
+                log.warn("Writing {} coalesced deposits failed, writing them one by one: {}", group.size(), e.getMessage());
+                for (PendingDeposit deposit : group) {
+                    // Drop the id generated by the rolled back insert
+                    deposit.transaction.setId(null);
+                    write(List.of(deposit));
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).result.complete(saved.get(i));
+        }
+    }
+
+    private List<TransactionDTO> save(List<Transaction> transactions) {
+        transferService.executeDeposits(transactions);
+        List<TransactionDTO> result = transactionMapper.toDto(transactionRepository.saveAll(transactions));
+        rowCountService.invalidate(Transaction.class);
+        for (TransactionDTO dto : result) {
+            outboxService.record(TransactionService.AGGREGATE_TYPE, dto.getId(), TransactionService.TRANSACTION_CREATED, dto);
+            accountEventHub.publishTransaction(dto);
+        }
+        return result;
+    }
+
+    private static final class PendingDeposit {
+
+        private final Transaction transaction;
+
+        private final CompletableFuture<TransactionDTO> result = new CompletableFuture<>();
+
+        private PendingDeposit(Transaction transaction) {
+            this.transaction = transaction;
+        }
+    }
+}
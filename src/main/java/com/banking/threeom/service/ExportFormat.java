@@ -0,0 +1,43 @@
+package com.banking.threeom.service;
+
+import java.util.Locale;
+
+/**
+ * Format of a streamed export or import.
+ */
+public enum ExportFormat {
+    /**
+     * One JSON object per line.
+     */
+    NDJSON("application/x-ndjson"),
+
+    /**
+     * Comma separated values, with a header line.
+     */
+    CSV("text/csv");
+
+    private final String contentType;
+
+    ExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parse a request parameter, ignoring case.
+     *
+     * @param value the parameter value.
+     * @return the format.
+     * @throws IllegalArgumentException if the value is not a format.
+     */
+    public static ExportFormat fromParameter(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,160 @@
+package com.banking.threeom.service;
+
+import java.sql.DatabaseMetaData;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.persistence.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service providing the total number of rows of an entity table for paginated listings, in one of the
+ * {@link CountMode}s.
+ * <p>
+ * Cached counts are kept per table for {@code application.pagination.count-cache-ttl-ms} and dropped when the
+ * services insert or delete rows, see {@link #invalidate(Class)}. Estimated counts are read from
+ * {@code pg_class.reltuples}, which Postgres refreshes on {@code ANALYZE} and autovacuum.
+ */
+@Service
+public class RowCountService {
+
+    private final Logger log = LoggerFactory.getLogger(RowCountService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CountMode defaultMode;
+
+    private final long timeToLiveMillis;
+
+    private final Map<String, CachedCount> cachedCounts = new ConcurrentHashMap<>();
+
+    private volatile Boolean postgres;
+
+    public RowCountService(
+        JdbcTemplate jdbcTemplate,
+        @Value("${application.pagination.count-mode:exact}") String defaultMode,
+        @Value("${application.pagination.count-cache-ttl-ms:30000}") long timeToLiveMillis
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultMode = CountMode.fromParameter(defaultMode);
+        this.timeToLiveMillis = timeToLiveMillis;
+    }
+
+    /**
+     * Count the rows of an entity table.
+     *
+     * @param entity the entity class, annotated with {@link Table}.
+     * @param mode the count mode, or {@code null} for {@code application.pagination.count-mode}.
+     * @param exactCount the exact {@code count(*)} of the table.
+     * @return the number of rows.
+     */
+    public long count(Class<?> entity, CountMode mode, LongSupplier exactCount) {
+        CountMode countMode = mode == null ? defaultMode : mode;
+        String table = tableName(entity);
+        if (countMode == CountMode.ESTIMATED) {
+            Long estimate = estimate(table);
+            if (estimate != null) {
+                return estimate;
+            }
+            countMode = CountMode.CACHED;
+        }
+        if (countMode == CountMode.CACHED) {
+            long now = System.currentTimeMillis();
+            CachedCount cached = cachedCounts.get(table);
+            if (cached != null && cached.expiresAt > now) {
+                return cached.count;
+            }
+            long count = exactCount.getAsLong();
+            cachedCounts.put(table, new CachedCount(count, now + timeToLiveMillis));
+            return count;
+        }
+        return exactCount.getAsLong();
+    }
+
+    /**
+     * Drop the cached count of an entity table, once the current database transaction commits.
+     *
+     * @param entity the entity class whose rows were inserted or deleted.
+     */
+    public void invalidate(Class<?> entity) {
+        String table = tableName(entity);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        cachedCounts.remove(table);
+                    }
+                }
+            );
+        } else {
+            cachedCounts.remove(table);
+        }
+    }
+
+    private Long estimate(String table) {
+        if (!isPostgres()) {
+            return null;
+        }
+        try {
+            Long estimate = jdbcTemplate.queryForObject(
+                "select reltuples::bigint from pg_class where oid = to_regclass(?)",
+                Long.class,
+                table
+            );
+            // -1 (or 0 on Postgres before 14) until the table is first analyzed
+            return estimate == null || estimate <= 0 ? null : estimate;
+        } catch (DataAccessException e) {
+            log.debug("No row estimate for table {}: {}", table, e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(
+                    jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName
+                );
+                result = product != null && product.toLowerCase(Locale.ROOT).contains("postgres");
+            } catch (MetaDataAccessException e) {
+                log.warn("Cannot detect the database product, row estimates are disabled", e);
+                result = false;
+            }
+            postgres = result;
+        }
+        return result;
+    }
+
+    private static String tableName(Class<?> entity) {
+        Table table = entity.getAnnotation(Table.class);
+        if (table == null || table.name().isEmpty()) {
+            throw new IllegalArgumentException(entity + " has no table name");
+        }
+        return table.name();
+    }
+
+    private static final class CachedCount {
+
+        private final long count;
+
+        private final long expiresAt;
+
+        private CachedCount(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.banking.threeom.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a listing of transactions ordered by {@code (transaction_date, id)} descending, encoded for clients as
+ * an opaque URL-safe token.
+ */
+public final class TransactionCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final ZonedDateTime transactionDate;
+
+    private final Long id;
+
+    public TransactionCursor(ZonedDateTime transactionDate, Long id) {
+        this.transactionDate = transactionDate;
+        this.id = id;
+    }
+
+    /**
+     * Decode a token created by {@link #encode()}.
+     *
+     * @param token the token.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static TransactionCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor " + token);
+            }
+            return new TransactionCursor(
+                Instant.parse(value.substring(0, separator)).atZone(ZoneOffset.UTC),
+                Long.valueOf(value.substring(separator + 1))
+            );
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor " + token, e);
+        }
+    }
+
+    public String encode() {
+        String value = transactionDate.toInstant().toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ZonedDateTime getTransactionDate() {
+        return transactionDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
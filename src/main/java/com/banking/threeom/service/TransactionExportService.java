@@ -0,0 +1,227 @@
+package com.banking.threeom.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service streaming the transactions table to an output stream, for reconciliation.
+ * <p>
+ * Rows are read through a forward-only JDBC cursor fetching {@code application.export.fetch-size} rows at a time,
+ * and written as they are read, without building entities: the memory used does not depend on the number of
+ * exported rows. The export runs in a read-only database transaction, which the Postgres driver needs to use a
+ * server-side cursor instead of loading the whole result.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final String[] COLUMNS = {
+        "id",
+        "transactionType",
+        "amount",
+        "transactionDate",
+        "sourceType",
+        "destinationType",
+        "status",
+        "sourceBankAccountId",
+        "destinationBankAccountId",
+    };
+
+    private static final String SELECT =
+        "select id, transaction_type, amount, transaction_date, source_type, destination_type, status, " +
+        "source_bank_account_id, destination_bank_account_id from transaction";
+
+    private final Logger log = LoggerFactory.getLogger(TransactionExportService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    public TransactionExportService(
+        DataSource dataSource,
+        ObjectMapper objectMapper,
+        @Value("${application.export.fetch-size:1000}") int fetchSize
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write the transactions of a date range, oldest first.
+     *
+     * @param from the earliest transaction date, inclusive, or {@code null} for no lower bound.
+     * @param to the latest transaction date, inclusive, or {@code null} for no upper bound.
+     * @param format the output format.
+     * @param out the stream to write to, flushed but not closed.
+     * @return the number of exported transactions.
+     * @throws IOException if writing to the stream fails.
+     */
+    @Transactional(readOnly = true)
+    public long export(ZonedDateTime from, ZonedDateTime to, ExportFormat format, OutputStream out) throws IOException {
+        log.debug("Request to export Transactions from {} to {} as {}", from, to, format);
+        // transaction_date holds UTC date-times, see hibernate.jdbc.time_zone
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Timestamp> bounds = new ArrayList<>();
+        if (from != null) {
+            sql.append(bounds.isEmpty() ? " where" : " and").append(" transaction_date >= ?");
+            bounds.add(Timestamp.from(from.toInstant()));
+        }
+        if (to != null) {
+            sql.append(bounds.isEmpty() ? " where" : " and").append(" transaction_date <= ?");
+            bounds.add(Timestamp.from(to.toInstant()));
+        }
+        sql.append(" order by transaction_date, id");
+
+        RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(objectMapper, out);
+        long[] count = { 0 };
+        try {
+            jdbcTemplate.query(
+                sql.toString(),
+                statement -> {
+                    for (int i = 0; i < bounds.size(); i++) {
+                        statement.setTimestamp(i + 1, bounds.get(i), utc);
+                    }
+                },
+                resultSet -> {
+                    try {
+                        writer.write(new ExportedRow(resultSet, utc));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count[0]++;
+                }
+            );
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        log.debug("Exported {} Transactions", count[0]);
+        return count[0];
+    }
+
+    /**
+     * The columns of the current row of the cursor.
+     */
+    private static final class ExportedRow {
+
+        private final Object[] values;
+
+        private ExportedRow(ResultSet resultSet, Calendar utc) throws SQLException {
+            Timestamp transactionDate = resultSet.getTimestamp(4, utc);
+            values =
+                new Object[] {
+                    resultSet.getLong(1),
+                    resultSet.getString(2),
+                    resultSet.getBigDecimal(3),
+                    transactionDate == null ? null : transactionDate.toInstant().toString(),
+                    resultSet.getString(5),
+                    resultSet.getString(6),
+                    resultSet.getString(7),
+                    getNullableLong(resultSet, 8),
+                    getNullableLong(resultSet, 9),
+                };
+        }
+
+        private static Long getNullableLong(ResultSet resultSet, int column) throws SQLException {
+            long value = resultSet.getLong(column);
+            return resultSet.wasNull() ? null : value;
+        }
+    }
+
+    private interface RowWriter {
+        void write(ExportedRow row) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+            generator = objectMapper.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(ExportedRow row) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                Object value = row.values[i];
+                generator.writeFieldName(COLUMNS[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Long) {
+                    generator.writeNumber((Long) value);
+                } else if (value instanceof BigDecimal) {
+                    generator.writeNumber((BigDecimal) value);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(OutputStream out) throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ExportedRow row) throws IOException {
+            // Numbers, enum names and ISO dates only: no value needs quoting
+            for (int i = 0; i < row.values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = row.values[i];
+                if (value instanceof BigDecimal) {
+                    writer.write(((BigDecimal) value).toPlainString());
+                } else if (value != null) {
+                    writer.write(value.toString());
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.banking.threeom.service;
+
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Background processor moving transactions through {@link TransactionStatus#WAITING},
+ * {@link TransactionStatus#IN_PROGRESS} and their final status.
+ * <p>
+ * Every poll claims a batch of waiting transactions with {@code SELECT ... FOR UPDATE SKIP LOCKED} and hands each
+ * of them to the {@code transactionProcessingExecutor}, so any number of nodes can poll the same table. A claim
+ * that is not finalized within {@code application.transaction-processing.claim-timeout-ms} is released again.
+ */
+@Service
+public class TransactionProcessor {
+
+    private final Logger log = LoggerFactory.getLogger(TransactionProcessor.class);
+
+    private final TransactionService transactionService;
+
+    private final Executor executor;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final Duration claimTimeout;
+
+    public TransactionProcessor(
+        TransactionService transactionService,
+        @Qualifier("transactionProcessingExecutor") Executor executor,
+        @Value("${application.transaction-processing.enabled:false}") boolean enabled,
+        @Value("${application.transaction-processing.batch-size:100}") int batchSize,
+        @Value("${application.transaction-processing.claim-timeout-ms:60000}") long claimTimeoutMillis
+    ) {
+        this.transactionService = transactionService;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.claimTimeout = Duration.ofMillis(claimTimeoutMillis);
+    }
+
+    /**
+     * Claim and dispatch waiting transactions until a poll returns less than a full batch.
+     */
+    @Scheduled(fixedDelayString = "${application.transaction-processing.poll-delay-ms:100}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            while (processWaitingTransactions() == batchSize) {
+                log.trace("Full batch of waiting Transactions claimed, polling again");
+            }
+        } catch (RuntimeException e) {
+            log.error("Polling waiting Transactions failed", e);
+        }
+    }
+
+    /**
+     * Claim one batch of waiting transactions and dispatch them to the workers.
+     *
+     * @return the number of claimed transactions.
+     */
+    public int processWaitingTransactions() {
+        List<Long> ids = transactionService.claimWaiting(batchSize);
+        if (!ids.isEmpty()) {
+            log.debug("Claimed {} waiting Transactions", ids.size());
+        }
+        for (Long id : ids) {
+            executor.execute(() -> process(id));
+        }
+        return ids.size();
+    }
+
+    /**
+     * Release the claims older than the claim timeout.
+     */
+    @Scheduled(fixedDelayString = "${application.transaction-processing.requeue-delay-ms:30000}")
+    public void releaseStaleClaims() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int released = transactionService.releaseStaleClaims(Instant.now().minus(claimTimeout));
+            if (released > 0) {
+                log.warn("Released {} Transactions claimed more than {} ago", released, claimTimeout);
+            }
+        } catch (RuntimeException e) {
+            log.error("Releasing stale Transaction claims failed", e);
+        }
+    }
+
+    private void process(Long id) {
+        try {
+            transactionService.process(id);
+        } catch (RuntimeException e) {
+            // The transaction stays IN_PROGRESS and is released once its claim times out
+            log.error("Processing Transaction {} failed", id, e);
+        }
+    }
+}
@@ -1,37 +1,132 @@
 package com.banking.threeom.service;
 
 import com.banking.threeom.domain.Transaction;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.repository.TransactionProjection;
 import com.banking.threeom.repository.TransactionRepository;
+import com.banking.threeom.service.dto.CursorPageDTO;
+import com.banking.threeom.service.dto.TransactionBatchResultDTO;
 import com.banking.threeom.service.dto.TransactionDTO;
+import com.banking.threeom.service.events.AccountEventHub;
+import com.banking.threeom.service.ledger.ShardedLedger;
 import com.banking.threeom.service.mapper.TransactionMapper;
+import com.banking.threeom.service.outbox.OutboxService;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service Implementation for managing {@link Transaction}.
+ * <p>
+ * Every created, updated or deleted transaction is announced by an event written to the outbox in the same database
+ * transaction, see {@link OutboxService}, and created or updated ones are also published to the subscribers of their
+ * bank accounts, see {@link AccountEventHub}.
  */
 @Service
 @Transactional
 public class TransactionService {
 
+    /**
+     * Bounds of the transaction history, used when a date range is open so that the account history queries
+     * always read an index range.
+     */
+    private static final ZonedDateTime HISTORY_START = ZonedDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
+
+    private static final ZonedDateTime HISTORY_END = ZonedDateTime.of(9999, 12, 31, 23, 59, 59, 0, ZoneOffset.UTC);
+
+    private static final Comparator<TransactionProjection> NEWEST_FIRST = Comparator
+        .comparing((TransactionProjection transaction) -> transaction.getTransactionDate().toInstant())
+        .thenComparing(TransactionProjection::getId)
+        .reversed();
+
+    public static final String AGGREGATE_TYPE = "Transaction";
+
+    public static final String TRANSACTION_CREATED = "TransactionCreated";
+
+    public static final String TRANSACTION_UPDATED = "TransactionUpdated";
+
+    public static final String TRANSACTION_DELETED = "TransactionDeleted";
+
     private final Logger log = LoggerFactory.getLogger(TransactionService.class);
 
     private final TransactionRepository transactionRepository;
 
     private final TransactionMapper transactionMapper;
 
-    public TransactionService(TransactionRepository transactionRepository, TransactionMapper transactionMapper) {
+    private final TransferService transferService;
+
+    private final ObjectProvider<ShardedLedger> shardedLedger;
+
+    private final ObjectProvider<CreditCoalescer> creditCoalescer;
+
+    private final RowCountService rowCountService;
+
+    private final OutboxService outboxService;
+
+    private final AccountEventHub accountEventHub;
+
+    private final boolean deferExecution;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public TransactionService(
+        TransactionRepository transactionRepository,
+        TransactionMapper transactionMapper,
+        TransferService transferService,
+        ObjectProvider<ShardedLedger> shardedLedger,
+        ObjectProvider<CreditCoalescer> creditCoalescer,
+        RowCountService rowCountService,
+        OutboxService outboxService,
+        AccountEventHub accountEventHub,
+        PlatformTransactionManager transactionManager,
+        @Value("${application.transaction-processing.enabled:false}") boolean deferExecution
+    ) {
         this.transactionRepository = transactionRepository;
         this.transactionMapper = transactionMapper;
+        this.transferService = transferService;
+        this.shardedLedger = shardedLedger;
+        this.creditCoalescer = creditCoalescer;
+        this.rowCountService = rowCountService;
+        this.outboxService = outboxService;
+        this.accountEventHub = accountEventHub;
+        this.deferExecution = deferExecution;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
-     * Save a transaction.
+     * Save a transaction. A {@link TransactionStatus#WAITING} transaction is executed against the balances of its
+     * bank accounts, either in the same database transaction or on the {@link ShardedLedger} when it is enabled,
+     * and saved with its final status. A deposit is instead executed and saved with others by the
+     * {@link CreditCoalescer} when it is enabled, the ledger is not, and the caller is not in a database transaction
+     * of its own. When {@code application.transaction-processing.enabled} is set, it is saved as
+     * {@link TransactionStatus#WAITING} and executed later by the {@link TransactionProcessor}.
      *
      * @param transactionDTO the entity to save.
      * @return the persisted entity.
@@ -39,8 +134,65 @@ public class TransactionService {
     public TransactionDTO save(TransactionDTO transactionDTO) {
         log.debug("Request to save Transaction : {}", transactionDTO);
         Transaction transaction = transactionMapper.toEntity(transactionDTO);
+        if (transaction.getStatus() == TransactionStatus.WAITING && !deferExecution) {
+            Optional<TransactionDTO> coalesced = coalesce(transaction);
+            if (coalesced.isPresent()) {
+                return coalesced.get();
+            }
+            execute(transaction);
+        }
         transaction = transactionRepository.save(transaction);
-        return transactionMapper.toDto(transaction);
+        rowCountService.invalidate(Transaction.class);
+        TransactionDTO result = transactionMapper.toDto(transaction);
+        announce(TRANSACTION_CREATED, result);
+        return result;
+    }
+
+    /**
+     * Save a chunk of transactions. A transaction to execute is executed and saved in its own database transaction,
+     * as {@link #save(TransactionDTO)} does, so that it only holds the locks of its own balances, taken in ascending
+     * order, and its failure does not roll back the others. The other transactions are saved together in one database
+     * transaction; pass at most {@code hibernate.jdbc.batch_size} transactions so that their inserts are sent to the
+     * database as a single JDBC batch.
+     *
+     * @param transactionDTOs the entities to save.
+     * @return the result of every entity, indexed by its position in {@code transactionDTOs}.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TransactionBatchResultDTO> saveAll(List<TransactionDTO> transactionDTOs) {
+        log.debug("Request to save {} Transactions", transactionDTOs.size());
+        List<Transaction> transactions = transactionMapper.toEntity(transactionDTOs);
+        List<TransactionBatchResultDTO> results = new ArrayList<>(transactions.size());
+        List<Transaction> batch = new ArrayList<>(transactions.size());
+        List<Integer> batchIndexes = new ArrayList<>(transactions.size());
+        for (int index = 0; index < transactions.size(); index++) {
+            Transaction transaction = transactions.get(index);
+            if (transaction.getStatus() == TransactionStatus.WAITING && !deferExecution) {
+                try {
+                    TransactionDTO saved = transactionTemplate.execute(status -> executeAndSave(transaction));
+                    results.add(TransactionBatchResultDTO.saved(index, saved));
+                } catch (DataAccessException | TransactionException e) {
+                    log.warn("Failed to save a Transaction: {}", e.getMessage());
+                    results.add(TransactionBatchResultDTO.rejected(index, e.getMostSpecificCause().getMessage()));
+                }
+            } else {
+                batch.add(transaction);
+                batchIndexes.add(index);
+            }
+        }
+        if (!batch.isEmpty()) {
+            try {
+                List<TransactionDTO> saved = transactionTemplate.execute(status -> saveBatch(batch));
+                for (int i = 0; i < saved.size(); i++) {
+                    results.add(TransactionBatchResultDTO.saved(batchIndexes.get(i), saved.get(i)));
+                }
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("Failed to save a batch of {} Transactions: {}", batch.size(), e.getMessage());
+                batchIndexes.forEach(index -> results.add(TransactionBatchResultDTO.rejected(index, e.getMostSpecificCause().getMessage())));
+            }
+        }
+        rowCountService.invalidate(Transaction.class);
+        return results;
     }
 
     /**
@@ -52,8 +204,11 @@ public class TransactionService {
     public TransactionDTO update(TransactionDTO transactionDTO) {
         log.debug("Request to update Transaction : {}", transactionDTO);
         Transaction transaction = transactionMapper.toEntity(transactionDTO);
-        transaction = transactionRepository.save(transaction);
-        return transactionMapper.toDto(transaction);
+        // Flushed to lock the row before the event is numbered
+        transaction = transactionRepository.saveAndFlush(transaction);
+        TransactionDTO result = transactionMapper.toDto(transaction);
+        announce(TRANSACTION_UPDATED, result);
+        return result;
     }
 
     /**
@@ -72,12 +227,17 @@ public class TransactionService {
 
                 return existingTransaction;
             })
-            .map(transactionRepository::save)
-            .map(transactionMapper::toDto);
+            .map(transactionRepository::saveAndFlush)
+            .map(transactionMapper::toDto)
+            .map(result -> {
+                announce(TRANSACTION_UPDATED, result);
+                return result;
+            });
     }
 
     /**
-     * Get all the transactions.
+     * Get all the transactions. The page is read as projections in a single select, rather than as entities each
+     * loading its bank accounts and their balances.
      *
      * @param pageable the pagination information.
      * @return the list of entities.
@@ -85,7 +245,97 @@ public class TransactionService {
     @Transactional(readOnly = true)
     public Page<TransactionDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Transactions");
-        return transactionRepository.findAll(pageable).map(transactionMapper::toDto);
+        return transactionRepository.findAllProjectedBy(pageable).map(transactionMapper::projectionToDto);
+    }
+
+    /**
+     * Get all the transactions, with a total computed in the given mode.
+     *
+     * @param pageable the pagination information.
+     * @param countMode how to count the transactions, or {@code null} for the default mode.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<TransactionDTO> findAll(Pageable pageable, CountMode countMode) {
+        log.debug("Request to get all Transactions with {} count", countMode);
+        if (countMode == CountMode.EXACT) {
+            return findAll(pageable);
+        }
+        Slice<TransactionDTO> slice = transactionRepository.findSliceProjectedBy(pageable).map(transactionMapper::projectionToDto);
+        long total = rowCountService.count(Transaction.class, countMode, transactionRepository::count);
+        return new PageImpl<>(slice.getContent(), pageable, total);
+    }
+
+    /**
+     * Get a page of transactions, newest first, by keyset pagination: unlike {@link #findAll(Pageable)} it neither
+     * counts the transactions nor skips over the previous pages. The page is read as projections.
+     *
+     * @param cursor the cursor of the page, or {@code null} for the first page.
+     * @param size the maximum number of transactions in the page.
+     * @return the page of entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<TransactionDTO> findAll(TransactionCursor cursor, int size) {
+        log.debug("Request to get Transactions after : {}", cursor == null ? null : cursor.encode());
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<TransactionProjection> transactions = cursor == null
+            ? transactionRepository.findAllProjectedByOrderByTransactionDateDescIdDesc(limit)
+            : transactionRepository.findAllProjectedBefore(cursor.getTransactionDate(), cursor.getId(), limit);
+        return toCursorPage(transactions.stream().map(transactionMapper::projectionToDto).collect(Collectors.toList()), size);
+    }
+
+    /**
+     * Get a page of the transactions of a bank account, debited from or credited to it, newest first, by keyset
+     * pagination. The debits and the credits are read by one index range scan each and merged, rather than by a
+     * single query with an {@code or} over both columns that no index can serve in order, both as projections.
+     *
+     * @param bankAccountId the id of the bank account.
+     * @param from the earliest transaction date, inclusive, or {@code null} for no lower bound.
+     * @param to the latest transaction date, inclusive, or {@code null} for no upper bound.
+     * @param statuses the statuses of the transactions, or {@code null} or empty for all of them.
+     * @param cursor the cursor of the page, or {@code null} for the first page.
+     * @param size the maximum number of transactions in the page.
+     * @return the page of entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<TransactionDTO> findAllByBankAccount(
+        Long bankAccountId,
+        ZonedDateTime from,
+        ZonedDateTime to,
+        Set<TransactionStatus> statuses,
+        TransactionCursor cursor,
+        int size
+    ) {
+        log.debug("Request to get Transactions of BankAccount {} after : {}", bankAccountId, cursor == null ? null : cursor.encode());
+        Collection<TransactionStatus> status = statuses == null || statuses.isEmpty() ? EnumSet.allOf(TransactionStatus.class) : statuses;
+        ZonedDateTime lowerBound = from == null ? HISTORY_START : from;
+        TransactionCursor upperBound = cursor != null ? cursor : new TransactionCursor(to == null ? HISTORY_END : to, Long.MAX_VALUE);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<TransactionProjection> debits = transactionRepository.findAllProjectedBySourceBankAccountBefore(
+            bankAccountId,
+            status,
+            lowerBound,
+            upperBound.getTransactionDate(),
+            upperBound.getId(),
+            limit
+        );
+        List<TransactionProjection> credits = transactionRepository.findAllProjectedByDestinationBankAccountBefore(
+            bankAccountId,
+            status,
+            lowerBound,
+            upperBound.getTransactionDate(),
+            upperBound.getId(),
+            limit
+        );
+        // A transaction from the bank account to itself is both a debit and a credit
+        Set<Long> debitIds = debits.stream().map(TransactionProjection::getId).collect(Collectors.toSet());
+        List<TransactionDTO> transactions = Stream
+            .concat(debits.stream(), credits.stream().filter(credit -> !debitIds.contains(credit.getId())))
+            .sorted(NEWEST_FIRST)
+            .limit(size + 1L)
+            .map(transactionMapper::projectionToDto)
+            .collect(Collectors.toList());
+        return toCursorPage(transactions, size);
     }
 
     /**
@@ -108,5 +358,116 @@ public class TransactionService {
     public void delete(Long id) {
         log.debug("Request to delete Transaction : {}", id);
         transactionRepository.deleteById(id);
+        transactionRepository.flush();
+        rowCountService.invalidate(Transaction.class);
+        outboxService.record(AGGREGATE_TYPE, id, TRANSACTION_DELETED, Map.of("id", id));
+    }
+
+    /**
+     * Claim up to {@code limit} {@link TransactionStatus#WAITING} transactions by moving them to
+     * {@link TransactionStatus#IN_PROGRESS}. Rows already locked by another claimer are skipped, so concurrent
+     * callers never claim the same transaction.
+     *
+     * @param limit the maximum number of transactions to claim.
+     * @return the ids of the claimed transactions.
+     */
+    public List<Long> claimWaiting(int limit) {
+        log.debug("Request to claim {} waiting Transactions", limit);
+        Instant now = Instant.now();
+        List<Long> ids = new ArrayList<>();
+        for (Transaction transaction : transactionRepository.findAllByStatusForUpdateSkipLocked(
+            TransactionStatus.WAITING,
+            PageRequest.of(0, limit)
+        )) {
+            transaction.setStatus(TransactionStatus.IN_PROGRESS);
+            transaction.setClaimedDate(now);
+            ids.add(transaction.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Execute a claimed transaction and save its final status. Does nothing if the transaction is no longer
+     * {@link TransactionStatus#IN_PROGRESS}, e.g. because its claim expired and another worker finished it.
+     *
+     * @param id the id of the claimed transaction.
+     * @return the executed entity, or empty if there was nothing to execute.
+     */
+    public Optional<TransactionDTO> process(Long id) {
+        log.debug("Request to process Transaction : {}", id);
+        return transactionRepository
+            .findOneForUpdate(id)
+            .filter(transaction -> transaction.getStatus() == TransactionStatus.IN_PROGRESS)
+            .map(transaction -> {
+                execute(transaction);
+                transaction.setClaimedDate(null);
+                TransactionDTO result = transactionMapper.toDto(transaction);
+                announce(TRANSACTION_UPDATED, result);
+                return result;
+            });
+    }
+
+    /**
+     * Hand the transactions claimed before the given instant back to {@link TransactionStatus#WAITING}, so that
+     * the claims of a crashed node are picked up again.
+     *
+     * @param claimedBefore the instant before which a claim is considered abandoned.
+     * @return the number of released transactions.
+     */
+    public int releaseStaleClaims(Instant claimedBefore) {
+        log.debug("Request to release Transactions claimed before : {}", claimedBefore);
+        return transactionRepository.releaseClaims(TransactionStatus.IN_PROGRESS, claimedBefore, TransactionStatus.WAITING);
+    }
+
+    private static CursorPageDTO<TransactionDTO> toCursorPage(List<TransactionDTO> transactions, int size) {
+        if (transactions.size() <= size) {
+            return new CursorPageDTO<>(transactions, null);
+        }
+        List<TransactionDTO> content = transactions.subList(0, size);
+        TransactionDTO last = content.get(size - 1);
+        return new CursorPageDTO<>(content, new TransactionCursor(last.getTransactionDate(), last.getId()).encode());
+    }
+
+    private void announce(String eventType, TransactionDTO transaction) {
+        outboxService.record(AGGREGATE_TYPE, transaction.getId(), eventType, transaction);
+        accountEventHub.publishTransaction(transaction);
+    }
+
+    private TransactionDTO executeAndSave(Transaction transaction) {
+        execute(transaction);
+        TransactionDTO result = transactionMapper.toDto(transactionRepository.save(transaction));
+        announce(TRANSACTION_CREATED, result);
+        return result;
+    }
+
+    private List<TransactionDTO> saveBatch(List<Transaction> transactions) {
+        List<TransactionDTO> result = transactionMapper.toDto(transactionRepository.saveAll(transactions));
+        for (TransactionDTO dto : result) {
+            announce(TRANSACTION_CREATED, dto);
+        }
+        return result;
+    }
+
+    private Optional<TransactionDTO> coalesce(Transaction transaction) {
+        CreditCoalescer coalescer = creditCoalescer.getIfAvailable();
+        // Within a transaction of the caller, e.g. the one recording an Idempotency-Key, the deposit must commit with
+        // it, and waiting for the group would hold its pooled connection
+        if (
+            coalescer == null ||
+            shardedLedger.getIfAvailable() != null ||
+            !TransactionAspectSupport.currentTransactionStatus().isNewTransaction()
+        ) {
+            return Optional.empty();
+        }
+        return coalescer.submit(transaction);
+    }
+
+    private void execute(Transaction transaction) {
+        ShardedLedger ledger = shardedLedger.getIfAvailable();
+        if (ledger != null) {
+            ledger.execute(transaction);
+        } else {
+            transferService.execute(transaction);
+        }
     }
 }
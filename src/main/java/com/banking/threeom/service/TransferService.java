@@ -0,0 +1,197 @@
+package com.banking.threeom.service;
+
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.Transaction;
+import com.banking.threeom.domain.enumeration.TransactionOperationType;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BalanceRef;
+import com.banking.threeom.repository.BalanceRepository;
+import com.banking.threeom.repository.BankAccountRepository;
+import com.banking.threeom.service.events.AccountEventHub;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service executing the money movement of a {@link Transaction} against the {@link Balance} rows of its bank accounts.
+ * <p>
+ * Each balance is changed by a single atomic {@code UPDATE} adding the amount, the debit being conditioned on the
+ * balance not going negative, without reading the rows first. The updates are issued in ascending balance id order,
+ * so two transactions touching the same accounts always queue on the row locks in the same sequence and never
+ * deadlock; when the second update fails, the first one is undone on a row it already locked. The balance of a hot
+ * bank account is striped, see {@link BalanceStripeService}. The new balances are published to the
+ * {@link AccountEventHub} once the database transaction commits.
+ */
+@Service
+@Transactional
+public class TransferService {
+
+    private final Logger log = LoggerFactory.getLogger(TransferService.class);
+
+    private final BalanceRepository balanceRepository;
+
+    private final BankAccountRepository bankAccountRepository;
+
+    private final BalanceStripeService balanceStripeService;
+
+    private final AccountEventHub accountEventHub;
+
+    public TransferService(
+        BalanceRepository balanceRepository,
+        BankAccountRepository bankAccountRepository,
+        BalanceStripeService balanceStripeService,
+        AccountEventHub accountEventHub
+    ) {
+        this.balanceRepository = balanceRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.balanceStripeService = balanceStripeService;
+        this.accountEventHub = accountEventHub;
+    }
+
+    /**
+     * Execute a transaction: debit the balance of the source bank account and/or credit the balance of the
+     * destination bank account, depending on the transaction type, and set the resulting status.
+     *
+     * @param transaction the transaction to execute.
+     * @return {@link TransactionStatus#SUCCESS} if the balances were updated, {@link TransactionStatus#DECLINE} otherwise.
+     */
+    public TransactionStatus execute(Transaction transaction) {
+        log.debug("Request to execute Transaction : {}", transaction);
+        TransactionStatus status = apply(transaction) ? TransactionStatus.SUCCESS : TransactionStatus.DECLINE;
+        transaction.setStatus(status);
+        return status;
+    }
+
+    /**
+     * Execute deposits together: the credits to the same balance are summed and added by a single {@code UPDATE}, in
+     * ascending balance id order, and every deposit gets its resulting status.
+     *
+     * @param deposits the {@link TransactionOperationType#DEPOSIT} transactions to execute.
+     */
+    public void executeDeposits(List<Transaction> deposits) {
+        log.debug("Request to execute {} deposits", deposits.size());
+        Map<Long, Optional<BalanceRef>> balances = new HashMap<>();
+        SortedMap<Long, List<Transaction>> depositsByBalance = new TreeMap<>();
+        Map<Long, BalanceRef> balancesById = new HashMap<>();
+        for (Transaction deposit : deposits) {
+            Money amount = deposit.getAmount();
+            BankAccount destination = deposit.getDestinationBankAccount();
+            Optional<BalanceRef> balance = amount == null ||
+                amount.signum() <= 0 ||
+                deposit.getTransactionType() != TransactionOperationType.DEPOSIT ||
+                destination == null ||
+                destination.getId() == null
+                ? Optional.empty()
+                : balances.computeIfAbsent(destination.getId(), bankAccountRepository::findBalanceRefById);
+            if (balance.isPresent()) {
+                balancesById.putIfAbsent(balance.get().getId(), balance.get());
+                depositsByBalance.computeIfAbsent(balance.get().getId(), id -> new ArrayList<>()).add(deposit);
+            } else {
+                deposit.setStatus(TransactionStatus.DECLINE);
+            }
+        }
+        depositsByBalance.forEach((balanceId, credits) -> {
+            Money total = credits.stream().map(Transaction::getAmount).reduce(Money.ZERO, Money::plus);
+            TransactionStatus status = balanceStripeService.credit(balancesById.get(balanceId), total).isPresent()
+                ? TransactionStatus.SUCCESS
+                : TransactionStatus.DECLINE;
+            credits.forEach(deposit -> deposit.setStatus(status));
+            if (status == TransactionStatus.SUCCESS) {
+                accountEventHub.publishBalanceChange(credits.get(0).getDestinationBankAccount().getId());
+            }
+        });
+    }
+
+    private boolean apply(Transaction transaction) {
+        Money amount = transaction.getAmount();
+        if (amount == null || amount.signum() <= 0 || transaction.getTransactionType() == null) {
+            return false;
+        }
+        Optional<BalanceRef> debitedBalance = Optional.empty();
+        Optional<BalanceRef> creditedBalance = Optional.empty();
+        switch (transaction.getTransactionType()) {
+            case DEPOSIT:
+                creditedBalance = findBalance(transaction.getDestinationBankAccount());
+                if (creditedBalance.isEmpty()) {
+                    return false;
+                }
+                break;
+            case WITHDRAWAL:
+                debitedBalance = findBalance(transaction.getSourceBankAccount());
+                if (debitedBalance.isEmpty()) {
+                    return false;
+                }
+                break;
+            case TRANSFER:
+                debitedBalance = findBalance(transaction.getSourceBankAccount());
+                creditedBalance = findBalance(transaction.getDestinationBankAccount());
+                if (
+                    debitedBalance.isEmpty() ||
+                    creditedBalance.isEmpty() ||
+                    debitedBalance.get().getId().equals(creditedBalance.get().getId())
+                ) {
+                    return false;
+                }
+                break;
+            default:
+                return false;
+        }
+
+        BalanceRef debited = debitedBalance.orElse(null);
+        BalanceRef credited = creditedBalance.orElse(null);
+        if (debited != null && credited != null && credited.getId() < debited.getId()) {
+            OptionalInt creditedRow = balanceStripeService.credit(credited, amount);
+            if (creditedRow.isEmpty()) {
+                return false;
+            }
+            if (!balanceStripeService.debit(debited, amount)) {
+                balanceStripeService.undoCredit(credited, creditedRow.getAsInt(), amount);
+                return false;
+            }
+        } else {
+            if (debited != null && !balanceStripeService.debit(debited, amount)) {
+                return false;
+            }
+            if (credited != null && balanceStripeService.credit(credited, amount).isEmpty()) {
+                if (debited != null) {
+                    undo(debited, amount);
+                }
+                return false;
+            }
+        }
+        if (debited != null) {
+            accountEventHub.publishBalanceChange(transaction.getSourceBankAccount().getId());
+        }
+        if (credited != null) {
+            accountEventHub.publishBalanceChange(transaction.getDestinationBankAccount().getId());
+        }
+        return true;
+    }
+
+    /**
+     * Undo a debit on the base row of the balance, which may then go negative while the balance itself does not; a
+     * hot balance is rebalanced by the next debit that needs it. The stripes being locked before the base, this keeps
+     * the lock order whichever rows the debit locked.
+     */
+    private void undo(BalanceRef balance, Money delta) {
+        balanceRepository.addToCurrentBalance(balance.getId(), delta);
+    }
+
+    private Optional<BalanceRef> findBalance(BankAccount bankAccount) {
+        if (bankAccount == null || bankAccount.getId() == null) {
+            return Optional.empty();
+        }
+        return bankAccountRepository.findBalanceRefById(bankAccount.getId());
+    }
+}
@@ -0,0 +1,415 @@
+package com.banking.threeom.service.bulk;
+
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BankAccountRepository;
+import com.banking.threeom.service.ExportFormat;
+import com.banking.threeom.service.RowCountService;
+import com.banking.threeom.service.dto.BalanceDTO;
+import com.banking.threeom.service.dto.BankAccountDTO;
+import com.banking.threeom.service.dto.BankAccountImportResultDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service creating bank accounts, each with its balance, in bulk from a streamed upload, for the onboarding of the
+ * customers of a partner bank.
+ * <p>
+ * The upload is read incrementally, as CSV with a header line naming the columns ({@code firstName},
+ * {@code lastName}, {@code email}, {@code phoneNumber}, {@code address}, {@code additionalInfo} and
+ * {@code initialBalance}) or as newline-delimited {@link BankAccountDTO}s with an optional
+ * {@code balance.initialBalance}. Valid records are gathered in chunks of {@code application.bulk-load.import-chunk-size}.
+ * For every chunk, the phone numbers and emails are checked against the upload and the database in one query each,
+ * the ids are taken from {@code sequence_generator} in blocks, and the balances and bank accounts are written by the
+ * {@link BulkLoader} in a database transaction of their own. A chunk losing a uniqueness race against another writer
+ * is rejected as a whole.
+ */
+@Service
+public class BankAccountImportService {
+
+    private static final List<String> CSV_COLUMNS = List.of(
+        "firstName",
+        "lastName",
+        "email",
+        "phoneNumber",
+        "address",
+        "additionalInfo",
+        "initialBalance"
+    );
+
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("firstName", "lastName", "phoneNumber");
+
+    private static final List<String> BALANCE_COLUMNS = List.of("id", "version", "initial_balance", "current_balance");
+
+    private static final List<String> BANK_ACCOUNT_COLUMNS = List.of(
+        "id",
+        "version",
+        "first_name",
+        "last_name",
+        "email",
+        "phone_number",
+        "address",
+        "additional_info",
+        "balance_id"
+    );
+
+    /**
+     * The maximum number of values of an {@code in} list of the uniqueness queries.
+     */
+    private static final int MAX_IN_LIST = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(BankAccountImportService.class);
+
+    private final BulkLoader bulkLoader;
+
+    private final IdBlockAllocator idBlockAllocator;
+
+    private final BankAccountRepository bankAccountRepository;
+
+    private final RowCountService rowCountService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    private final int maxReportedErrors;
+
+    public BankAccountImportService(
+        BulkLoader bulkLoader,
+        IdBlockAllocator idBlockAllocator,
+        BankAccountRepository bankAccountRepository,
+        RowCountService rowCountService,
+        ObjectMapper objectMapper,
+        Validator validator,
+        PlatformTransactionManager transactionManager,
+        @Value("${application.bulk-load.import-chunk-size:5000}") int chunkSize,
+        @Value("${application.bulk-load.max-reported-errors:1000}") int maxReportedErrors
+    ) {
+        this.bulkLoader = bulkLoader;
+        this.idBlockAllocator = idBlockAllocator;
+        this.bankAccountRepository = bankAccountRepository;
+        this.rowCountService = rowCountService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Import bank accounts.
+     *
+     * @param in the upload, read to the end but not closed.
+     * @param format the format of the upload.
+     * @return the number of imported and rejected records, with the errors of the first
+     * {@code application.bulk-load.max-reported-errors} rejected ones.
+     * @throws IllegalArgumentException if the CSV header is missing a required column or names an unknown one;
+     * nothing is imported then.
+     * @throws IOException if the upload cannot be read.
+     */
+    public BankAccountImportResultDTO importBankAccounts(InputStream in, ExportFormat format) throws IOException {
+        log.debug("Request to import BankAccounts as {}", format);
+        BankAccountImportResultDTO result = new BankAccountImportResultDTO();
+        RecordSource source = format == ExportFormat.CSV ? new CsvRecordSource(in) : new NdjsonRecordSource(objectMapper, in);
+        Set<String> phoneNumbers = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<ImportedRecord> chunk = new ArrayList<>(chunkSize);
+        for (long index = 0;; index++) {
+            BankAccountDTO bankAccountDTO;
+            try {
+                bankAccountDTO = source.next();
+            } catch (RecordException e) {
+                reject(result, index, e.getMessage());
+                if (e.fatal) {
+                    break;
+                }
+                continue;
+            }
+            if (bankAccountDTO == null) {
+                break;
+            }
+            String error = validate(bankAccountDTO);
+            if (error == null && !phoneNumbers.add(bankAccountDTO.getPhoneNumber())) {
+                error = "phoneNumber: duplicated in the upload";
+            }
+            if (error == null && bankAccountDTO.getEmail() != null && !emails.add(bankAccountDTO.getEmail())) {
+                error = "email: duplicated in the upload";
+            }
+            if (error != null) {
+                reject(result, index, error);
+                continue;
+            }
+            chunk.add(new ImportedRecord(index, bankAccountDTO));
+            if (chunk.size() >= chunkSize) {
+                importChunk(chunk, result);
+            }
+        }
+        importChunk(chunk, result);
+        rowCountService.invalidate(BankAccount.class);
+        rowCountService.invalidate(Balance.class);
+        result.getErrors().sort((a, b) -> Long.compare(a.getIndex(), b.getIndex()));
+        log.debug("Imported {} BankAccounts, rejected {}", result.getImported(), result.getRejected());
+        return result;
+    }
+
+    private String validate(BankAccountDTO bankAccountDTO) {
+        if (bankAccountDTO.getId() != null) {
+            return "A new bankAccount cannot already have an ID";
+        }
+        Set<ConstraintViolation<BankAccountDTO>> violations = validator.validate(bankAccountDTO);
+        if (!violations.isEmpty()) {
+            return violations
+                .stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        }
+        if (initialBalance(bankAccountDTO).isNegative()) {
+            return "initialBalance: must not be negative";
+        }
+        return null;
+    }
+
+    private void importChunk(List<ImportedRecord> chunk, BankAccountImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            Set<String> existingPhoneNumbers = findExisting(chunk, BankAccountDTO::getPhoneNumber, bankAccountRepository::findExistingPhoneNumbers);
+            Set<String> existingEmails = findExisting(chunk, BankAccountDTO::getEmail, bankAccountRepository::findExistingEmails);
+            List<ImportedRecord> valid = new ArrayList<>(chunk.size());
+            for (ImportedRecord record : chunk) {
+                if (existingPhoneNumbers.contains(record.bankAccount.getPhoneNumber())) {
+                    reject(result, record.index, "phoneNumber: already exists");
+                } else if (existingEmails.contains(record.bankAccount.getEmail())) {
+                    reject(result, record.index, "email: already exists");
+                } else {
+                    valid.add(record);
+                }
+            }
+            long[] ids = idBlockAllocator.allocate(2 * valid.size());
+            List<Object[]> balances = new ArrayList<>(valid.size());
+            List<Object[]> bankAccounts = new ArrayList<>(valid.size());
+            for (int i = 0; i < valid.size(); i++) {
+                BankAccountDTO bankAccount = valid.get(i).bankAccount;
+                long balanceId = ids[2 * i];
+                Money initialBalance = initialBalance(bankAccount);
+                balances.add(new Object[] { balanceId, 0, initialBalance, initialBalance });
+                bankAccounts.add(
+                    new Object[] {
+                        ids[2 * i + 1],
+                        0,
+                        bankAccount.getFirstName(),
+                        bankAccount.getLastName(),
+                        bankAccount.getEmail(),
+                        bankAccount.getPhoneNumber(),
+                        bankAccount.getAddress(),
+                        bankAccount.getAdditionalInfo(),
+                        balanceId,
+                    }
+                );
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                bulkLoader.load("balance", BALANCE_COLUMNS, balances);
+                bulkLoader.load("bank_account", BANK_ACCOUNT_COLUMNS, bankAccounts);
+            });
+            result.setImported(result.getImported() + valid.size());
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Failed to import a chunk of {} BankAccounts: {}", chunk.size(), e.getMessage());
+            chunk.forEach(record -> reject(result, record.index, e.getMostSpecificCause().getMessage()));
+        }
+        chunk.clear();
+    }
+
+    private static Set<String> findExisting(
+        List<ImportedRecord> chunk,
+        Function<BankAccountDTO, String> value,
+        Function<Collection<String>, List<String>> query
+    ) {
+        List<String> values = chunk.stream().map(record -> value.apply(record.bankAccount)).filter(Objects::nonNull).collect(Collectors.toList());
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < values.size(); from += MAX_IN_LIST) {
+            existing.addAll(query.apply(values.subList(from, Math.min(from + MAX_IN_LIST, values.size()))));
+        }
+        return existing;
+    }
+
+    private static Money initialBalance(BankAccountDTO bankAccountDTO) {
+        BalanceDTO balance = bankAccountDTO.getBalance();
+        return balance == null || balance.getInitialBalance() == null ? Money.ZERO : balance.getInitialBalance();
+    }
+
+    private void reject(BankAccountImportResultDTO result, long index, String error) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BankAccountImportResultDTO.RejectionDTO(index, error));
+        }
+    }
+
+    private static final class ImportedRecord {
+
+        private final long index;
+
+        private final BankAccountDTO bankAccount;
+
+        private ImportedRecord(long index, BankAccountDTO bankAccount) {
+            this.index = index;
+            this.bankAccount = bankAccount;
+        }
+    }
+
+    /**
+     * A record that cannot be read.
+     */
+    private static final class RecordException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Whether the rest of the upload cannot be read either.
+         */
+        private final boolean fatal;
+
+        private RecordException(String message, boolean fatal) {
+            super(message);
+            this.fatal = fatal;
+        }
+    }
+
+    private interface RecordSource {
+        /**
+         * @return the next record, or {@code null} at the end of the upload.
+         */
+        BankAccountDTO next() throws IOException, RecordException;
+    }
+
+    private static final class NdjsonRecordSource implements RecordSource {
+
+        private final MappingIterator<BankAccountDTO> items;
+
+        private NdjsonRecordSource(ObjectMapper objectMapper, InputStream in) throws IOException {
+            items = objectMapper.readerFor(BankAccountDTO.class).readValues(in);
+        }
+
+        @Override
+        public BankAccountDTO next() throws RecordException {
+            try {
+                if (!items.hasNextValue()) {
+                    return null;
+                }
+                BankAccountDTO bankAccountDTO = items.nextValue();
+                if (bankAccountDTO == null) {
+                    throw new RecordException("A bankAccount is required", false);
+                }
+                return bankAccountDTO;
+            } catch (JsonMappingException e) {
+                throw new RecordException(e.getOriginalMessage(), false);
+            } catch (JsonProcessingException e) {
+                // Malformed JSON, the rest of the upload cannot be read
+                throw new RecordException(e.getOriginalMessage(), true);
+            } catch (IOException e) {
+                throw new RecordException(e.getMessage(), true);
+            }
+        }
+    }
+
+    private static final class CsvRecordSource implements RecordSource {
+
+        private final CsvRecordReader reader;
+
+        private final int[] columns;
+
+        private CsvRecordSource(InputStream in) throws IOException {
+            reader = new CsvRecordReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new IllegalArgumentException("Missing CSV header");
+            }
+            columns = new int[header.size()];
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i) == null ? "" : header.get(i).trim();
+                columns[i] = CSV_COLUMNS.indexOf(name);
+                if (columns[i] < 0) {
+                    throw new IllegalArgumentException("Unknown CSV column '" + name + "', expected " + CSV_COLUMNS);
+                }
+                if (positions.put(name, i) != null) {
+                    throw new IllegalArgumentException("Duplicated CSV column '" + name + "'");
+                }
+            }
+            if (!positions.keySet().containsAll(REQUIRED_CSV_COLUMNS)) {
+                throw new IllegalArgumentException("The CSV header must have the columns " + REQUIRED_CSV_COLUMNS);
+            }
+        }
+
+        @Override
+        public BankAccountDTO next() throws RecordException {
+            List<String> fields;
+            long line = reader.getLine();
+            try {
+                fields = reader.next();
+            } catch (IOException e) {
+                throw new RecordException(e.getMessage(), true);
+            }
+            if (fields == null) {
+                return null;
+            }
+            if (fields.size() != columns.length) {
+                throw new RecordException("Expected " + columns.length + " fields on line " + line + ", found " + fields.size(), false);
+            }
+            String[] values = new String[CSV_COLUMNS.size()];
+            for (int i = 0; i < columns.length; i++) {
+                values[columns[i]] = fields.get(i);
+            }
+            BankAccountDTO bankAccountDTO = new BankAccountDTO();
+            bankAccountDTO.setFirstName(values[0]);
+            bankAccountDTO.setLastName(values[1]);
+            bankAccountDTO.setEmail(values[2]);
+            bankAccountDTO.setPhoneNumber(values[3]);
+            bankAccountDTO.setAddress(values[4]);
+            bankAccountDTO.setAdditionalInfo(values[5]);
+            if (values[6] != null) {
+                BalanceDTO balance = new BalanceDTO();
+                try {
+                    balance.setInitialBalance(Money.parse(values[6].trim()));
+                } catch (NumberFormatException | ArithmeticException e) {
+                    throw new RecordException("initialBalance: invalid amount '" + values[6] + "' on line " + line, false);
+                }
+                bankAccountDTO.setBalance(balance);
+            }
+            return bankAccountDTO;
+        }
+    }
+}
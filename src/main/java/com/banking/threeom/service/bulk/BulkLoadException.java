@@ -0,0 +1,15 @@
+package com.banking.threeom.service.bulk;
+
+import org.springframework.dao.NonTransientDataAccessException;
+
+/**
+ * Thrown when the rows of a {@link BulkLoader} cannot be written.
+ */
+public class BulkLoadException extends NonTransientDataAccessException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BulkLoadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
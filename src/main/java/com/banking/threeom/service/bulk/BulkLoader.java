@@ -0,0 +1,230 @@
+package com.banking.threeom.service.bulk;
+
+import com.banking.threeom.domain.money.Money;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service inserting rows in bulk, bypassing JPA.
+ * <p>
+ * On Postgres the rows are streamed with {@code COPY ... FROM STDIN} as CSV; the driver is only on the classpath of
+ * the {@code prod} profile, so its copy API is reached through reflection. Other databases get batched
+ * {@code insert} statements of {@code application.bulk-load.batch-size} rows.
+ * <p>
+ * The rows are written on the connection of the current Spring transaction, which must exist since the pool does not
+ * auto-commit, so that a caller can load several tables atomically. Ids must be set by the caller, see {@link IdBlockAllocator}, and the second-level
+ * cache and the row counts of the {@code RowCountService} are not told about the new rows.
+ */
+@Service
+public class BulkLoader {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone(ZoneOffset.UTC);
+
+    private final Logger log = LoggerFactory.getLogger(BulkLoader.class);
+
+    private final DataSource dataSource;
+
+    private final int batchSize;
+
+    private final CopyApi copyApi = CopyApi.load();
+
+    public BulkLoader(DataSource dataSource, @Value("${application.bulk-load.batch-size:1000}") int batchSize) {
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Insert rows into a table.
+     *
+     * @param table the table name.
+     * @param columns the column names.
+     * @param rows the rows, holding one value per column: {@code null}, a {@link String}, a {@link Number}, a
+     * {@link Money}, an {@link Instant} or an {@link Enum} stored by name.
+     * @return the number of inserted rows.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long load(String table, List<String> columns, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            long inserted;
+            if (copyApi != null && connection.isWrapperFor(copyApi.connectionType)) {
+                inserted = copy(connection, table, columns, rows);
+            } else {
+                inserted = insert(connection, table, columns, rows);
+            }
+            log.debug("Loaded {} rows into {}", inserted, table);
+            return inserted;
+        } catch (SQLException e) {
+            throw new BulkLoadException("Cannot load " + rows.size() + " rows into " + table, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Refresh the planner statistics of a table after a load, on Postgres; a no-op elsewhere.
+     *
+     * @param table the table name.
+     */
+    public void analyze(String table) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            if (copyApi != null && connection.isWrapperFor(copyApi.connectionType)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("analyze " + table);
+                }
+            }
+        } catch (SQLException e) {
+            throw new BulkLoadException("Cannot analyze " + table, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private long copy(Connection connection, String table, List<String> columns, List<Object[]> rows) throws SQLException {
+        StringBuilder csv = new StringBuilder(rows.size() * columns.size() * 16);
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                appendCsv(csv, row[i]);
+            }
+            csv.append('\n');
+        }
+        String sql = "copy " + table + " (" + String.join(", ", columns) + ") from stdin with (format csv)";
+        return copyApi.copyIn(connection, sql, new StringReader(csv.toString()));
+    }
+
+    private long insert(Connection connection, String table, List<String> columns, List<Object[]> rows) throws SQLException {
+        String sql =
+            "insert into " + table + " (" + String.join(", ", columns) + ") values (" + "?, ".repeat(columns.size() - 1) + "?)";
+        Calendar utc = Calendar.getInstance(UTC);
+        long inserted = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int batched = 0;
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    setParameter(statement, i + 1, row[i], utc);
+                }
+                statement.addBatch();
+                if (++batched == batchSize) {
+                    inserted += statement.executeBatch().length;
+                    batched = 0;
+                }
+            }
+            if (batched > 0) {
+                inserted += statement.executeBatch().length;
+            }
+        }
+        return inserted;
+    }
+
+    private static void setParameter(PreparedStatement statement, int index, Object value, Calendar utc) throws SQLException {
+        if (value instanceof Money) {
+            statement.setBigDecimal(index, ((Money) value).toBigDecimal());
+        } else if (value instanceof Instant) {
+            statement.setTimestamp(index, Timestamp.from((Instant) value), utc);
+        } else if (value instanceof Enum) {
+            statement.setString(index, ((Enum<?>) value).name());
+        } else {
+            statement.setObject(index, value);
+        }
+    }
+
+    private static void appendCsv(StringBuilder csv, Object value) {
+        if (value == null) {
+            // An unquoted empty field is NULL, a quoted one an empty string
+            return;
+        }
+        if (value instanceof String) {
+            String text = (String) value;
+            csv.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    csv.append('"');
+                }
+                csv.append(c);
+            }
+            csv.append('"');
+        } else if (value instanceof Instant) {
+            // timestamp columns hold UTC, see hibernate.jdbc.time_zone
+            csv.append(LocalDateTime.ofInstant((Instant) value, ZoneOffset.UTC));
+        } else if (value instanceof Enum) {
+            csv.append(((Enum<?>) value).name());
+        } else {
+            csv.append(value);
+        }
+    }
+
+    /**
+     * The {@code CopyManager} of the Postgres driver, when it is on the classpath.
+     */
+    private static final class CopyApi {
+
+        private final Class<?> connectionType;
+
+        private final Method getCopyApi;
+
+        private final Method copyIn;
+
+        private CopyApi(Class<?> connectionType, Method getCopyApi, Method copyIn) {
+            this.connectionType = connectionType;
+            this.getCopyApi = getCopyApi;
+            this.copyIn = copyIn;
+        }
+
+        static CopyApi load() {
+            try {
+                Class<?> connectionType = Class.forName("org.postgresql.PGConnection");
+                Class<?> copyManagerType = Class.forName("org.postgresql.copy.CopyManager");
+                return new CopyApi(
+                    connectionType,
+                    connectionType.getMethod("getCopyAPI"),
+                    copyManagerType.getMethod("copyIn", String.class, Reader.class)
+                );
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        long copyIn(Connection connection, String sql, Reader reader) throws SQLException {
+            try {
+                Object copyManager = getCopyApi.invoke(connection.unwrap(connectionType));
+                return (Long) copyIn.invoke(copyManager, sql, reader);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException) {
+                    throw (SQLException) e.getCause();
+                }
+                throw new BulkLoadException("COPY failed: " + sql, e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new BulkLoadException("Cannot call the Postgres copy API", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.banking.threeom.service.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader of comma separated values (RFC 4180): fields may be quoted, with {@code ""} standing for a quote
+ * inside a quoted field, and quoted fields may span lines.
+ * <p>
+ * An empty unquoted field is read as {@code null} and an empty quoted field as an empty string, the convention of
+ * Postgres {@code COPY}.
+ */
+class CsvRecordReader implements Closeable {
+
+    private final Reader reader;
+
+    private final char[] buffer = new char[8192];
+
+    private int position;
+
+    private int limit;
+
+    private long line = 1;
+
+    /**
+     * @param reader the characters, buffered by this reader.
+     */
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the line the next record starts on.
+     */
+    long getLine() {
+        return line;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return the fields, or {@code null} at the end of the input.
+     * @throws IOException if reading fails.
+     * @throws CsvFormatException if the record is malformed; the rest of the input cannot be read.
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        long startLine = line;
+        while (true) {
+            boolean quoted = false;
+            field.setLength(0);
+            if (c == '"') {
+                quoted = true;
+                while (true) {
+                    c = read();
+                    if (c == -1) {
+                        throw new CsvFormatException("Unterminated quoted field starting on line " + startLine);
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else {
+                while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    if (c == '"') {
+                        throw new CsvFormatException("Quote inside an unquoted field on line " + line);
+                    }
+                    field.append((char) c);
+                    c = read();
+                }
+            }
+            fields.add(quoted || field.length() > 0 ? field.toString() : null);
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c == '\r') {
+                c = read();
+                if (c != '\n' && c != -1) {
+                    throw new CsvFormatException("Carriage return without line feed on line " + line);
+                }
+            }
+            if (c == '\n') {
+                line++;
+            } else if (c != -1) {
+                throw new CsvFormatException("Unexpected character after a quoted field on line " + line);
+            }
+            return fields;
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Thrown on malformed comma separated values.
+     */
+    static class CsvFormatException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        CsvFormatException(String message) {
+            super(message);
+        }
+    }
+}
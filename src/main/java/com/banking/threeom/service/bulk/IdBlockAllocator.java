@@ -0,0 +1,74 @@
+package com.banking.threeom.service.bulk;
+
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service allocating entity ids from {@code sequence_generator} for rows written by the {@link BulkLoader}.
+ * <p>
+ * The entities draw their ids through the Hibernate pooled optimizer: every value of the sequence reserves the
+ * {@link #SEQUENCE_INCREMENT} ids ending at that value. The allocator reserves blocks the same way, fetching as many
+ * sequence values as needed in a single query, so that its ids never collide with those handed out by Hibernate.
+ */
+@Service
+public class IdBlockAllocator {
+
+    /**
+     * The increment of {@code sequence_generator}, the default {@code allocationSize} of the entities.
+     */
+    public static final int SEQUENCE_INCREMENT = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile String nextValuesQuery;
+
+    public IdBlockAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Allocate ids.
+     *
+     * @param count the number of ids.
+     * @return {@code count} unused ids, ascending within each block of {@link #SEQUENCE_INCREMENT}.
+     */
+    public long[] allocate(int count) {
+        long[] ids = new long[count];
+        if (count == 0) {
+            return ids;
+        }
+        int blocks = (count + SEQUENCE_INCREMENT - 1) / SEQUENCE_INCREMENT;
+        List<Long> values = jdbcTemplate.queryForList(nextValuesQuery(), Long.class, blocks);
+        int index = 0;
+        for (long value : values) {
+            for (long id = value - SEQUENCE_INCREMENT + 1; id <= value && index < count; id++) {
+                ids[index++] = id;
+            }
+        }
+        return ids;
+    }
+
+    private String nextValuesQuery() {
+        String query = nextValuesQuery;
+        if (query == null) {
+            String product;
+            try {
+                product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(), DatabaseMetaData::getDatabaseProductName);
+            } catch (MetaDataAccessException e) {
+                throw new IllegalStateException("Cannot detect the database product", e);
+            }
+            if (product != null && product.toLowerCase(Locale.ROOT).contains("postgres")) {
+                query = "select nextval('sequence_generator') from generate_series(1, ?)";
+            } else {
+                query = "select next value for sequence_generator from system_range(1, ?)";
+            }
+            nextValuesQuery = query;
+        }
+        return query;
+    }
+}
@@ -0,0 +1,42 @@
+package com.banking.threeom.service.dataset;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the {@link SyntheticDatasetGenerator} on startup under the {@code dataset} profile, then stops the
+ * application unless {@code application.dataset.exit-when-done} is {@code false}.
+ */
+@Component
+@Profile("dataset")
+public class DatasetGeneratorRunner implements ApplicationRunner {
+
+    private final SyntheticDatasetGenerator generator;
+
+    private final ConfigurableApplicationContext context;
+
+    private final boolean exitWhenDone;
+
+    public DatasetGeneratorRunner(
+        SyntheticDatasetGenerator generator,
+        ConfigurableApplicationContext context,
+        @Value("${application.dataset.exit-when-done:true}") boolean exitWhenDone
+    ) {
+        this.generator = generator;
+        this.context = context;
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        generator.generate();
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+}
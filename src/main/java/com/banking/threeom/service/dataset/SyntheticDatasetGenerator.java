@@ -0,0 +1,439 @@
+package com.banking.threeom.service.dataset;
+
+import com.banking.threeom.domain.enumeration.TransactionOperationType;
+import com.banking.threeom.domain.enumeration.TransactionSourceType;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.service.bulk.BulkLoader;
+import com.banking.threeom.service.bulk.IdBlockAllocator;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service filling the database with a synthetic dataset of {@code application.dataset.accounts} bank accounts and
+ * {@code application.dataset.transactions} transactions, to look at the query plans and latencies of a
+ * production-sized database.
+ * <p>
+ * The data is skewed the way real traffic is:
+ * <ul>
+ *     <li>the accounts taking part in transactions are drawn from a Zipf distribution of exponent
+ *     {@code application.dataset.zipf-exponent}, so that a few hot accounts have most of the transactions and
+ *     most accounts have a handful; the two partners of a transfer are drawn independently;</li>
+ *     <li>amounts are log-normal around a median of 40.00;</li>
+ *     <li>dates are spread over the {@code application.dataset.days} days before today, peaking in the
+ *     afternoon.</li>
+ * </ul>
+ * Transactions are {@code SUCCESS} or {@code DECLINE}, never waiting for the processor, and the current balance of
+ * every account is its initial balance plus its successful transactions, never negative.
+ * <p>
+ * The rows are written through the {@link BulkLoader} by {@code application.dataset.threads} threads, in chunks of
+ * {@code application.dataset.chunk-size} rows each committed on its own. Every chunk of transactions is drawn from its
+ * own seed derived from {@code application.dataset.seed}: the chunks are drawn once to sum up the balances, then
+ * again to be written, so that the transactions never have to be held in memory. The same seed gives the same
+ * dataset, up to the ids and the dates, which are relative to the day of the run.
+ */
+@Service
+public class SyntheticDatasetGenerator {
+
+    private static final List<String> BALANCE_COLUMNS = List.of("id", "version", "initial_balance", "current_balance");
+
+    private static final List<String> BANK_ACCOUNT_COLUMNS = List.of(
+        "id",
+        "version",
+        "first_name",
+        "last_name",
+        "email",
+        "phone_number",
+        "address",
+        "additional_info",
+        "balance_id"
+    );
+
+    private static final List<String> TRANSACTION_COLUMNS = List.of(
+        "id",
+        "transaction_type",
+        "amount",
+        "transaction_date",
+        "source_type",
+        "destination_type",
+        "status",
+        "source_bank_account_id",
+        "destination_bank_account_id"
+    );
+
+    private static final String[] FIRST_NAMES = {
+        "Anna",
+        "Piotr",
+        "Maria",
+        "Jan",
+        "Katarzyna",
+        "Tomasz",
+        "Olivia",
+        "James",
+        "Sofia",
+        "Lucas",
+        "Emma",
+        "Noah",
+        "Mia",
+        "Leon",
+        "Zofia",
+        "Adam",
+    };
+
+    private static final String[] LAST_NAMES = {
+        "Nowak",
+        "Kowalski",
+        "Wiśniewska",
+        "Smith",
+        "Johnson",
+        "Müller",
+        "Schmidt",
+        "Rossi",
+        "Dubois",
+        "García",
+        "Kim",
+        "Larsen",
+    };
+
+    private static final String[] STREETS = { "Main", "Oak", "Marszałkowska", "Park", "Station", "River", "Market", "Mill" };
+
+    private static final String[] CITIES = { "Warsaw", "Kraków", "Berlin", "London", "Paris", "Madrid", "Oslo" };
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final Logger log = LoggerFactory.getLogger(SyntheticDatasetGenerator.class);
+
+    private final BulkLoader bulkLoader;
+
+    private final IdBlockAllocator idBlockAllocator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int accounts;
+
+    private final long transactions;
+
+    private final double zipfExponent;
+
+    private final int days;
+
+    private final long seed;
+
+    private final int threads;
+
+    private final int chunkSize;
+
+    private final long scatterStride;
+
+    public SyntheticDatasetGenerator(
+        BulkLoader bulkLoader,
+        IdBlockAllocator idBlockAllocator,
+        PlatformTransactionManager transactionManager,
+        @Value("${application.dataset.accounts:1000000}") int accounts,
+        @Value("${application.dataset.transactions:10000000}") long transactions,
+        @Value("${application.dataset.zipf-exponent:1.1}") double zipfExponent,
+        @Value("${application.dataset.days:365}") int days,
+        @Value("${application.dataset.seed:42}") long seed,
+        @Value("${application.dataset.threads:4}") int threads,
+        @Value("${application.dataset.chunk-size:10000}") int chunkSize
+    ) {
+        if (accounts < 2) {
+            throw new IllegalArgumentException("A dataset needs at least 2 accounts, not " + accounts);
+        }
+        this.bulkLoader = bulkLoader;
+        this.idBlockAllocator = idBlockAllocator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accounts = accounts;
+        this.transactions = transactions;
+        this.zipfExponent = zipfExponent;
+        this.days = days;
+        this.seed = seed;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.scatterStride = scatterStride(accounts);
+    }
+
+    /**
+     * Generate and load the dataset, next to the rows already in the database.
+     *
+     * @return the number of loaded rows.
+     */
+    public long generate() {
+        log.info(
+            "Generating {} bank accounts and {} transactions, zipf exponent {}, over {} days",
+            accounts,
+            transactions,
+            zipfExponent,
+            days
+        );
+        long start = System.nanoTime();
+        Instant today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long[] netChanges = sumTransactions(executor, today);
+            long[] balanceIds = idBlockAllocator.allocate(accounts);
+            long[] bankAccountIds = idBlockAllocator.allocate(accounts);
+            long rows = loadAccounts(executor, balanceIds, bankAccountIds, netChanges);
+            rows += loadTransactions(executor, bankAccountIds, today);
+            for (String table : List.of("balance", "bank_account", "transaction")) {
+                bulkLoader.analyze(table);
+            }
+            log.info("Loaded {} rows in {} s", rows, (System.nanoTime() - start) / 1_000_000_000);
+            return rows;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Sum up the successful transactions of every account, each thread into its own array.
+     */
+    private long[] sumTransactions(ExecutorService executor, Instant today) {
+        int chunks = transactionChunks();
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            int firstChunk = thread;
+            futures.add(
+                executor.submit(() -> {
+                    long[] netChanges = new long[accounts];
+                    for (int chunk = firstChunk; chunk < chunks; chunk += threads) {
+                        drawTransactions(
+                            chunk,
+                            today,
+                            (type, source, destination, amount, date, status) -> {
+                                if (status == TransactionStatus.SUCCESS) {
+                                    if (source >= 0) {
+                                        netChanges[source] -= amount;
+                                    }
+                                    if (destination >= 0) {
+                                        netChanges[destination] += amount;
+                                    }
+                                }
+                            }
+                        );
+                    }
+                    return netChanges;
+                })
+            );
+        }
+        long[] netChanges = new long[accounts];
+        for (long[] partial : await(futures)) {
+            for (int i = 0; i < accounts; i++) {
+                netChanges[i] += partial[i];
+            }
+        }
+        return netChanges;
+    }
+
+    private long loadAccounts(ExecutorService executor, long[] balanceIds, long[] bankAccountIds, long[] netChanges) {
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int from = 0; from < accounts; from += chunkSize) {
+            int first = from;
+            int last = (int) Math.min((long) from + chunkSize, accounts);
+            futures.add(
+                executor.submit(() -> {
+                    Random random = new Random(chunkSeed(-1 - first));
+                    List<Object[]> balances = new ArrayList<>(last - first);
+                    List<Object[]> bankAccounts = new ArrayList<>(last - first);
+                    for (int i = first; i < last; i++) {
+                        long initial = logNormalMinorUnits(random, 1_000, 1.5);
+                        if (initial + netChanges[i] < 0) {
+                            initial = -netChanges[i] + logNormalMinorUnits(random, 20, 1);
+                        }
+                        balances.add(
+                            new Object[] {
+                                balanceIds[i],
+                                0,
+                                Money.ofMinorUnits(initial),
+                                Money.ofMinorUnits(initial + netChanges[i]),
+                            }
+                        );
+                        bankAccounts.add(bankAccountRow(random, bankAccountIds[i], balanceIds[i]));
+                    }
+                    return transactionTemplate.execute(status ->
+                        bulkLoader.load("balance", BALANCE_COLUMNS, balances) +
+                        bulkLoader.load("bank_account", BANK_ACCOUNT_COLUMNS, bankAccounts)
+                    );
+                })
+            );
+        }
+        long rows = await(futures).stream().mapToLong(Long::longValue).sum();
+        log.info("Loaded {} bank accounts", accounts);
+        return rows;
+    }
+
+    private Object[] bankAccountRow(Random random, long id, long balanceId) {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        // The id keeps the email and the phone number unique, also across runs
+        String email = (firstName + "." + lastName).toLowerCase(Locale.ROOT) + "." + id + "@example.com";
+        String phoneNumber = String.format(Locale.ROOT, "+1%012d", id);
+        String address = String.format(
+            Locale.ROOT,
+            "%d %s Street, %s",
+            1 + random.nextInt(200),
+            STREETS[random.nextInt(STREETS.length)],
+            CITIES[random.nextInt(CITIES.length)]
+        );
+        String additionalInfo = random.nextInt(10) == 0 ? "Synthetic dataset" : null;
+        return new Object[] { id, 0, firstName, lastName, email, phoneNumber, address, additionalInfo, balanceId };
+    }
+
+    private long loadTransactions(ExecutorService executor, long[] bankAccountIds, Instant today) {
+        int chunks = transactionChunks();
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int current = chunk;
+            futures.add(
+                executor.submit(() -> {
+                    int size = chunkLength(current);
+                    long[] ids = idBlockAllocator.allocate(size);
+                    List<Object[]> rows = new ArrayList<>(size);
+                    drawTransactions(
+                        current,
+                        today,
+                        (type, source, destination, amount, date, status) ->
+                            rows.add(
+                                new Object[] {
+                                    ids[rows.size()],
+                                    type,
+                                    Money.ofMinorUnits(amount),
+                                    date,
+                                    source >= 0 ? TransactionSourceType.USER : TransactionSourceType.BANK,
+                                    destination >= 0 ? TransactionSourceType.USER : TransactionSourceType.BANK,
+                                    status,
+                                    source >= 0 ? bankAccountIds[source] : null,
+                                    destination >= 0 ? bankAccountIds[destination] : null,
+                                }
+                            )
+                    );
+                    return transactionTemplate.execute(status -> bulkLoader.load("transaction", TRANSACTION_COLUMNS, rows));
+                })
+            );
+        }
+        long rows = await(futures).stream().mapToLong(Long::longValue).sum();
+        log.info("Loaded {} transactions", rows);
+        return rows;
+    }
+
+    /**
+     * Draw the transactions of a chunk, always the same for the same chunk.
+     */
+    private void drawTransactions(int chunk, Instant today, TransactionSink sink) {
+        Random random = new Random(chunkSeed(chunk));
+        ZipfSampler popularity = new ZipfSampler(accounts, zipfExponent);
+        int size = chunkLength(chunk);
+        for (int i = 0; i < size; i++) {
+            int roll = random.nextInt(100);
+            TransactionOperationType type;
+            int source = -1;
+            int destination = -1;
+            if (roll < 70) {
+                type = TransactionOperationType.TRANSFER;
+                source = account(popularity.sample(random));
+                do {
+                    destination = account(popularity.sample(random));
+                } while (destination == source);
+            } else if (roll < 90) {
+                type = TransactionOperationType.DEPOSIT;
+                destination = account(popularity.sample(random));
+            } else {
+                type = TransactionOperationType.WITHDRAWAL;
+                source = account(popularity.sample(random));
+            }
+            long amount = Math.min(logNormalMinorUnits(random, 40, 1.2), 5_000_000);
+            long secondOfDay = Math.floorMod((long) ((14 + 4 * random.nextGaussian()) * 3600), SECONDS_PER_DAY);
+            Instant date = today.minus(1L + random.nextInt(days), ChronoUnit.DAYS).plusSeconds(secondOfDay);
+            TransactionStatus status = random.nextInt(100) < 97 ? TransactionStatus.SUCCESS : TransactionStatus.DECLINE;
+            sink.accept(type, source, destination, amount, date, status);
+        }
+    }
+
+    /**
+     * Map a popularity rank to an account, scattering the hot accounts over the whole id range instead of the first
+     * ids.
+     */
+    private int account(int rank) {
+        return (int) ((rank - 1L) * scatterStride % accounts);
+    }
+
+    /**
+     * @return a stride coprime with the number of accounts, so that every rank maps to a distinct account.
+     */
+    private static long scatterStride(int accounts) {
+        long stride = (long) (accounts * 0.618) | 1;
+        while (gcd(stride, accounts) != 1) {
+            stride += 2;
+        }
+        return stride;
+    }
+
+    private int transactionChunks() {
+        return (int) ((transactions + chunkSize - 1) / chunkSize);
+    }
+
+    private int chunkLength(int chunk) {
+        return (int) Math.min(chunkSize, transactions - (long) chunk * chunkSize);
+    }
+
+    private long chunkSeed(long chunk) {
+        // SplitMix64 finalizer, so that neighbour chunks get unrelated sequences
+        long z = seed + chunk * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long logNormalMinorUnits(Random random, double median, double sigma) {
+        return Math.max(1, Math.round(median * Math.exp(sigma * random.nextGaussian()) * 100));
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static <T> List<T> await(List<Future<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating the dataset", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Cannot generate the dataset", e.getCause());
+        }
+        return results;
+    }
+
+    @FunctionalInterface
+    private interface TransactionSink {
+        void accept(
+            TransactionOperationType type,
+            int source,
+            int destination,
+            long amount,
+            Instant date,
+            TransactionStatus status
+        );
+    }
+}
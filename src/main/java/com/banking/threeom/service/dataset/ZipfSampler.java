@@ -0,0 +1,94 @@
+package com.banking.threeom.service.dataset;
+
+import java.util.Random;
+
+/**
+ * Sampler of the Zipf distribution over the ranks {@code 1..n}: rank {@code k} is drawn with a probability
+ * proportional to {@code 1 / k^exponent}.
+ * <p>
+ * Uses rejection-inversion (Hörmann and Derflinger, 1996), which needs neither a table of the {@code n}
+ * probabilities nor the harmonic number, and so stays cheap for millions of ranks.
+ */
+final class ZipfSampler {
+
+    private final int n;
+
+    private final double exponent;
+
+    private final double hIntegralX1;
+
+    private final double hIntegralN;
+
+    private final double s;
+
+    /**
+     * @param n the number of ranks.
+     * @param exponent the skew, {@code 0} being uniform; real-world popularity is usually close to {@code 1}.
+     */
+    ZipfSampler(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("No ranks: " + n);
+        }
+        if (exponent <= 0) {
+            throw new IllegalArgumentException("Exponent must be positive: " + exponent);
+        }
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    /**
+     * @return a rank between {@code 1} and {@code n}.
+     */
+    int sample(Random random) {
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > n) {
+                k = n;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return expm1OverX((1 - exponent) * logX) * logX;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = Math.max(x * (1 - exponent), -1);
+        return Math.exp(log1pOverX(t) * x);
+    }
+
+    /**
+     * {@code log(1 + x) / x}, continued to {@code 1} at {@code 0}.
+     */
+    private static double log1pOverX(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1 - x * (0.5 - x * (1 / 3d - 0.25 * x));
+    }
+
+    /**
+     * {@code (exp(x) - 1) / x}, continued to {@code 1} at {@code 0}.
+     */
+    private static double expm1OverX(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+}
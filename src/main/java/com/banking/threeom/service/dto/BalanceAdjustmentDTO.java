@@ -0,0 +1,42 @@
+package com.banking.threeom.service.dto;
+
+import com.banking.threeom.domain.money.Money;
+import java.io.Serializable;
+import javax.validation.constraints.NotNull;
+
+/**
+ * An amount to add to the current balance of a {@link com.banking.threeom.domain.Balance}, unless the result would be
+ * below the floor.
+ */
+public class BalanceAdjustmentDTO implements Serializable {
+
+    @NotNull
+    private Money delta;
+
+    private Money floor = Money.ZERO;
+
+    public Money getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Money delta) {
+        this.delta = delta;
+    }
+
+    public Money getFloor() {
+        return floor;
+    }
+
+    public void setFloor(Money floor) {
+        this.floor = floor;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BalanceAdjustmentDTO{" +
+            "delta=" + getDelta() +
+            ", floor=" + getFloor() +
+            "}";
+    }
+}
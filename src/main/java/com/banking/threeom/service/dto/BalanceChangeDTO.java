@@ -0,0 +1,46 @@
+package com.banking.threeom.service.dto;
+
+import com.banking.threeom.domain.money.Money;
+import java.io.Serializable;
+
+/**
+ * The current balance of a bank account after a change, as streamed to the subscribers of its events.
+ */
+public class BalanceChangeDTO implements Serializable {
+
+    private Long bankAccountId;
+
+    private Money currentBalance;
+
+    public BalanceChangeDTO() {}
+
+    public BalanceChangeDTO(Long bankAccountId, Money currentBalance) {
+        this.bankAccountId = bankAccountId;
+        this.currentBalance = currentBalance;
+    }
+
+    public Long getBankAccountId() {
+        return bankAccountId;
+    }
+
+    public void setBankAccountId(Long bankAccountId) {
+        this.bankAccountId = bankAccountId;
+    }
+
+    public Money getCurrentBalance() {
+        return currentBalance;
+    }
+
+    public void setCurrentBalance(Money currentBalance) {
+        this.currentBalance = currentBalance;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BalanceChangeDTO{" +
+            "bankAccountId=" + getBankAccountId() +
+            ", currentBalance=" + getCurrentBalance() +
+            "}";
+    }
+}
@@ -1,7 +1,7 @@
 package com.banking.threeom.service.dto;
 
+import com.banking.threeom.domain.money.Money;
 import java.io.Serializable;
-import java.math.BigDecimal;
 import java.util.Objects;
 import javax.validation.constraints.*;
 
@@ -13,11 +13,18 @@ public class BalanceDTO implements Serializable {
 
     private Long id;
 
+    private Long version;
+
     @NotNull
-    private BigDecimal initialBalance;
+    private Money initialBalance;
 
+    /**
+     * The current balance, including the stripes of a hot balance.
+     */
     @NotNull
-    private BigDecimal currentBalance;
+    private Money currentBalance;
+
+    private Integer stripes;
 
     public Long getId() {
         return id;
@@ -27,22 +34,38 @@ public class BalanceDTO implements Serializable {
         this.id = id;
     }
 
-    public BigDecimal getInitialBalance() {
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Money getInitialBalance() {
         return initialBalance;
     }
 
-    public void setInitialBalance(BigDecimal initialBalance) {
+    public void setInitialBalance(Money initialBalance) {
         this.initialBalance = initialBalance;
     }
 
-    public BigDecimal getCurrentBalance() {
+    public Money getCurrentBalance() {
         return currentBalance;
     }
 
-    public void setCurrentBalance(BigDecimal currentBalance) {
+    public void setCurrentBalance(Money currentBalance) {
         this.currentBalance = currentBalance;
     }
 
+    public Integer getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(Integer stripes) {
+        this.stripes = stripes;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -69,8 +92,10 @@ public class BalanceDTO implements Serializable {
     public String toString() {
         return "BalanceDTO{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", initialBalance=" + getInitialBalance() +
             ", currentBalance=" + getCurrentBalance() +
+            ", stripes=" + getStripes() +
             "}";
     }
 }
@@ -12,6 +12,8 @@ public class BankAccountDTO implements Serializable {
 
     private Long id;
 
+    private Long version;
+
     @NotNull
     private String firstName;
 
@@ -37,6 +39,14 @@ public class BankAccountDTO implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getFirstName() {
         return firstName;
     }
@@ -119,6 +129,7 @@ public class BankAccountDTO implements Serializable {
     public String toString() {
         return "BankAccountDTO{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", firstName='" + getFirstName() + "'" +
             ", lastName='" + getLastName() + "'" +
             ", email='" + getEmail() + "'" +
@@ -0,0 +1,98 @@
+package com.banking.threeom.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a bulk import of {@link BankAccountDTO}s.
+ */
+public class BankAccountImportResultDTO implements Serializable {
+
+    private long imported;
+
+    private long rejected;
+
+    private List<RejectionDTO> errors = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * @return the first rejected records, by index.
+     */
+    public List<RejectionDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RejectionDTO> errors) {
+        this.errors = errors;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BankAccountImportResultDTO{" +
+            "imported=" + getImported() +
+            ", rejected=" + getRejected() +
+            "}";
+    }
+
+    /**
+     * A rejected record of the import.
+     */
+    public static class RejectionDTO implements Serializable {
+
+        private long index;
+
+        private String error;
+
+        public RejectionDTO() {}
+
+        public RejectionDTO(long index, String error) {
+            this.index = index;
+            this.error = error;
+        }
+
+        /**
+         * @return the index of the record in the upload, from 0, not counting the CSV header.
+         */
+        public long getIndex() {
+            return index;
+        }
+
+        public void setIndex(long index) {
+            this.index = index;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "RejectionDTO{" +
+                "index=" + getIndex() +
+                ", error='" + getError() + "'" +
+                "}";
+        }
+    }
+}
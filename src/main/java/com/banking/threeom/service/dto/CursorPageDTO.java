@@ -0,0 +1,42 @@
+package com.banking.threeom.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A page of a keyset paginated listing: its content and the opaque cursor of the next page, if there is one.
+ *
+ * @param <T> the type of the content.
+ */
+public class CursorPageDTO<T> implements Serializable {
+
+    private final List<T> content;
+
+    private final String nextCursor;
+
+    public CursorPageDTO(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CursorPageDTO{" +
+            "size=" + content.size() +
+            ", nextCursor='" + getNextCursor() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,76 @@
+package com.banking.threeom.service.dto;
+
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import java.io.Serializable;
+
+/**
+ * The outcome of one item of a batch submission of {@link TransactionDTO}s.
+ */
+public class TransactionBatchResultDTO implements Serializable {
+
+    private int index;
+
+    private Long id;
+
+    private TransactionStatus status;
+
+    private String error;
+
+    public static TransactionBatchResultDTO saved(int index, TransactionDTO transactionDTO) {
+        TransactionBatchResultDTO result = new TransactionBatchResultDTO();
+        result.setIndex(index);
+        result.setId(transactionDTO.getId());
+        result.setStatus(transactionDTO.getStatus());
+        return result;
+    }
+
+    public static TransactionBatchResultDTO rejected(int index, String error) {
+        TransactionBatchResultDTO result = new TransactionBatchResultDTO();
+        result.setIndex(index);
+        result.setError(error);
+        return result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TransactionStatus status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TransactionBatchResultDTO{" +
+            "index=" + getIndex() +
+            ", id=" + getId() +
+            ", status='" + getStatus() + "'" +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
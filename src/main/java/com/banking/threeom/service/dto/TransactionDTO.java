@@ -3,8 +3,8 @@ package com.banking.threeom.service.dto;
 import com.banking.threeom.domain.enumeration.TransactionOperationType;
 import com.banking.threeom.domain.enumeration.TransactionSourceType;
 import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
 import java.io.Serializable;
-import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.Objects;
 import javax.validation.constraints.*;
@@ -21,7 +21,7 @@ public class TransactionDTO implements Serializable {
     private TransactionOperationType transactionType;
 
     @NotNull
-    private BigDecimal amount;
+    private Money amount;
 
     @NotNull
     private ZonedDateTime transactionDate;
@@ -55,11 +55,11 @@ public class TransactionDTO implements Serializable {
         this.transactionType = transactionType;
     }
 
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
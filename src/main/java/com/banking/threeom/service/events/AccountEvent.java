@@ -0,0 +1,43 @@
+package com.banking.threeom.service.events;
+
+/**
+ * An event streamed to the subscribers of a bank account, see {@link AccountEventHub}.
+ */
+public final class AccountEvent {
+
+    private final long id;
+
+    private final String name;
+
+    private final Object data;
+
+    AccountEvent(long id, String name, Object data) {
+        this.id = id;
+        this.name = name;
+        this.data = data;
+    }
+
+    /**
+     * @return the sequence number of the event on this node.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return one of {@link AccountEventHub#BALANCE_EVENT}, {@link AccountEventHub#TRANSACTION_EVENT} and
+     * {@link AccountEventHub#OVERFLOW_EVENT}.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public Object getData() {
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountEvent{id=" + id + ", name='" + name + "'}";
+    }
+}
@@ -0,0 +1,513 @@
+package com.banking.threeom.service.events;
+
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BankAccountRepository;
+import com.banking.threeom.service.dto.BalanceChangeDTO;
+import com.banking.threeom.service.dto.BankAccountDTO;
+import com.banking.threeom.service.dto.TransactionDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-process fan-out of the balance and transaction changes of bank accounts to their subscribers.
+ * <p>
+ * The services publish a change once its database transaction commits. Every subscription buffers what it has not
+ * sent yet, and is handed to the {@code accountEventExecutor} only while it has something to send, so an idle
+ * subscriber holds no thread and costs a map entry. The buffer is bounded:
+ * <ul>
+ *     <li>balance changes are coalesced, only the latest one is sent;</li>
+ *     <li>at most {@code application.account-events.buffer-size} transaction changes are kept, the oldest are
+ *     dropped and replaced by an {@value #OVERFLOW_EVENT} event telling how many were lost, after which the
+ *     subscriber should read the history again.</li>
+ * </ul>
+ * A balance changed in the database is read again when it is sent, so that the last one a subscriber gets is at least
+ * as recent as the last commit, whatever the order in which the commits of concurrent transactions publish it.
+ * <p>
+ * A subscription whose send blocks for more than {@code application.account-events.send-timeout-ms} is closed. Its
+ * thread stays blocked until the write fails, so the executor gets one more thread until then, up to its maximum pool
+ * size, so that a few stalled subscribers do not hold up the others. Subscribers only get the changes made on this
+ * node.
+ */
+@Service
+public class AccountEventHub {
+
+    public static final String BALANCE_EVENT = "balance";
+
+    public static final String TRANSACTION_EVENT = "transaction";
+
+    public static final String OVERFLOW_EVENT = "overflow";
+
+    static final String SUBSCRIBERS_METER = "banking.account.events.subscribers";
+
+    static final String DROPPED_METER = "banking.account.events.dropped";
+
+    static final String STALLED_METER = "banking.account.events.stalled";
+
+    private final Logger log = LoggerFactory.getLogger(AccountEventHub.class);
+
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicInteger stalledSends = new AtomicInteger();
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final int threads;
+
+    private final int bufferSize;
+
+    private final long sendTimeoutNanos;
+
+    private final BankAccountRepository bankAccountRepository;
+
+    private final Counter dropped;
+
+    private final Counter stalled;
+
+    public AccountEventHub(
+        @Qualifier("accountEventExecutor") ThreadPoolTaskExecutor executor,
+        @Value("${application.account-events.buffer-size:32}") int bufferSize,
+        @Value("${application.account-events.send-timeout-ms:10000}") long sendTimeoutMillis,
+        BankAccountRepository bankAccountRepository,
+        MeterRegistry meterRegistry
+    ) {
+        this.executor = executor;
+        this.threads = executor.getCorePoolSize();
+        this.bufferSize = bufferSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.bankAccountRepository = bankAccountRepository;
+        this.dropped = Counter
+            .builder(DROPPED_METER)
+            .description("Transaction events dropped from the buffer of a slow subscriber")
+            .register(meterRegistry);
+        this.stalled = Counter
+            .builder(STALLED_METER)
+            .description("Subscriptions closed because a send blocked for too long")
+            .register(meterRegistry);
+        Gauge
+            .builder(SUBSCRIBERS_METER, subscriberCount, AtomicInteger::get)
+            .description("Subscribers to the events of a bank account")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Subscribe to the events of a bank account.
+     *
+     * @param bankAccountId the id of the bank account.
+     * @param sink the connection of the subscriber.
+     * @return the subscription, to be closed when the subscriber goes away.
+     */
+    public Subscription subscribe(Long bankAccountId, AccountEventSink sink) {
+        Subscription subscription = new Subscription(bankAccountId, sink);
+        subscriptions.computeIfAbsent(bankAccountId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        subscriberCount.incrementAndGet();
+        log.debug("Subscribed to the events of BankAccount {}", bankAccountId);
+        return subscription;
+    }
+
+    /**
+     * Publish the current balance of a bank account, once the current database transaction commits. Only for a caller
+     * that publishes the changes of a balance in the order they were made, such as a ledger shard; a balance changed
+     * in the database is published with {@link #publishBalanceChange(Long)}.
+     *
+     * @param bankAccountId the id of the bank account.
+     * @param currentBalance its balance after the change.
+     */
+    public void publishBalance(Long bankAccountId, Money currentBalance) {
+        if (hasSubscribers(bankAccountId)) {
+            afterCommit(() -> deliver(bankAccountId, BALANCE_EVENT, new BalanceChangeDTO(bankAccountId, currentBalance)));
+        }
+    }
+
+    /**
+     * Publish that the balance of a bank account changed, once the current database transaction commits. The
+     * subscribers get the current balance read when it is sent.
+     *
+     * @param bankAccountId the id of the bank account.
+     */
+    public void publishBalanceChange(Long bankAccountId) {
+        if (hasSubscribers(bankAccountId)) {
+            afterCommit(() -> {
+                Set<Subscription> accountSubscriptions = subscriptions.get(bankAccountId);
+                if (accountSubscriptions != null) {
+                    accountSubscriptions.forEach(Subscription::offerBalanceChange);
+                }
+            });
+        }
+    }
+
+    /**
+     * Publish a created or updated transaction to the subscribers of its source and destination bank accounts, once
+     * the current database transaction commits.
+     *
+     * @param transaction the transaction.
+     */
+    public void publishTransaction(TransactionDTO transaction) {
+        Long sourceId = idOf(transaction.getSourceBankAccount());
+        Long destinationId = idOf(transaction.getDestinationBankAccount());
+        if (hasSubscribers(sourceId)) {
+            afterCommit(() -> deliver(sourceId, TRANSACTION_EVENT, transaction));
+        }
+        if (hasSubscribers(destinationId) && !Objects.equals(sourceId, destinationId)) {
+            afterCommit(() -> deliver(destinationId, TRANSACTION_EVENT, transaction));
+        }
+    }
+
+    /**
+     * Have every subscription check its connection.
+     */
+    @Scheduled(fixedDelayString = "${application.account-events.heartbeat-ms:30000}")
+    public void heartbeat() {
+        subscriptions.values().forEach(accountSubscriptions -> accountSubscriptions.forEach(Subscription::heartbeat));
+    }
+
+    /**
+     * Close the subscriptions whose send has been blocked for more than the send timeout.
+     */
+    @Scheduled(fixedDelayString = "${application.account-events.send-timeout-ms:10000}")
+    public void closeStalledSubscriptions() {
+        long now = System.nanoTime();
+        subscriptions
+            .values()
+            .forEach(accountSubscriptions -> accountSubscriptions.forEach(subscription -> subscription.closeIfStalled(now)));
+    }
+
+    /**
+     * @param bankAccountId the id of a bank account.
+     * @return whether anyone subscribed to its events, to skip reading what would be published otherwise.
+     */
+    public boolean hasSubscribers(Long bankAccountId) {
+        return bankAccountId != null && subscriptions.containsKey(bankAccountId);
+    }
+
+    private void deliver(Long bankAccountId, String name, Object data) {
+        Set<Subscription> accountSubscriptions = subscriptions.get(bankAccountId);
+        if (accountSubscriptions == null) {
+            return;
+        }
+        AccountEvent event = new AccountEvent(sequence.incrementAndGet(), name, data);
+        for (Subscription subscription : accountSubscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscriptions.computeIfPresent(
+            subscription.bankAccountId,
+            (id, accountSubscriptions) -> {
+                if (accountSubscriptions.remove(subscription)) {
+                    subscriberCount.decrementAndGet();
+                }
+                return accountSubscriptions.isEmpty() ? null : accountSubscriptions;
+            }
+        );
+        log.debug("Unsubscribed from the events of BankAccount {}", subscription.bankAccountId);
+    }
+
+    /**
+     * Give the executor a thread for every send blocked past its deadline, as those threads may stay blocked for long.
+     */
+    private synchronized void resizeExecutor() {
+        executor.setCorePoolSize(Math.min(threads + stalledSends.get(), executor.getMaxPoolSize()));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            }
+        );
+    }
+
+    private static Long idOf(BankAccountDTO bankAccount) {
+        return bankAccount == null ? null : bankAccount.getId();
+    }
+
+    /**
+     * The subscription of one subscriber to the events of one bank account, with its buffer.
+     */
+    public final class Subscription implements Runnable {
+
+        private final Long bankAccountId;
+
+        private final AccountEventSink sink;
+
+        private ArrayDeque<AccountEvent> transactions;
+
+        private AccountEvent balance;
+
+        private boolean balanceChanged;
+
+        private boolean balanceOffered;
+
+        private long droppedTransactions;
+
+        private boolean heartbeatDue;
+
+        private boolean scheduled;
+
+        private boolean sending;
+
+        private volatile long sendingSince;
+
+        private boolean abandoned;
+
+        private boolean closed;
+
+        private Subscription(Long bankAccountId, AccountEventSink sink) {
+            this.bankAccountId = bankAccountId;
+            this.sink = sink;
+        }
+
+        /**
+         * Send a balance to the subscriber unless a change was published since it subscribed, e.g. the balance read
+         * when subscribing so that the subscriber does not have to read it itself; a published change is at least as
+         * recent as that read.
+         *
+         * @param currentBalance the current balance of the bank account.
+         */
+        public void offerInitialBalance(Money currentBalance) {
+            boolean schedule;
+            synchronized (this) {
+                if (closed || balanceOffered) {
+                    return;
+                }
+                balanceOffered = true;
+                balance = new AccountEvent(sequence.incrementAndGet(), BALANCE_EVENT, new BalanceChangeDTO(bankAccountId, currentBalance));
+                schedule = schedule();
+            }
+            if (schedule) {
+                submit();
+            }
+        }
+
+        /**
+         * Stop sending events; idempotent.
+         */
+        public void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                transactions = null;
+                balance = null;
+            }
+            unsubscribe(this);
+        }
+
+        private void offer(AccountEvent event) {
+            boolean schedule;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (BALANCE_EVENT.equals(event.getName())) {
+                    balance = event;
+                    balanceChanged = false;
+                    balanceOffered = true;
+                } else {
+                    if (transactions == null) {
+                        transactions = new ArrayDeque<>();
+                    }
+                    transactions.addLast(event);
+                    if (transactions.size() > bufferSize) {
+                        transactions.removeFirst();
+                        droppedTransactions++;
+                        dropped.increment();
+                    }
+                }
+                schedule = schedule();
+            }
+            if (schedule) {
+                submit();
+            }
+        }
+
+        private void offerBalanceChange() {
+            boolean schedule;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                balance = null;
+                balanceChanged = true;
+                balanceOffered = true;
+                schedule = schedule();
+            }
+            if (schedule) {
+                submit();
+            }
+        }
+
+        private void heartbeat() {
+            boolean schedule;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                heartbeatDue = true;
+                schedule = schedule();
+            }
+            if (schedule) {
+                submit();
+            }
+        }
+
+        private void closeIfStalled(long now) {
+            synchronized (this) {
+                if (closed || !sending || now - sendingSince < sendTimeoutNanos) {
+                    return;
+                }
+                abandoned = true;
+                stalledSends.incrementAndGet();
+            }
+            log.warn(
+                "Closing a subscriber of BankAccount {} blocked on a send for more than {} ms",
+                bankAccountId,
+                TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos)
+            );
+            stalled.increment();
+            resizeExecutor();
+            close();
+        }
+
+        private void submit() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                log.warn("Closing a subscriber of BankAccount {} the executor rejected: {}", bankAccountId, e.toString());
+                synchronized (this) {
+                    scheduled = false;
+                }
+                close();
+                sink.complete();
+            }
+        }
+
+        /**
+         * @return whether the caller must hand this subscription to the executor.
+         */
+        private boolean schedule() {
+            if (scheduled) {
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+
+        /**
+         * Send what is buffered, until the buffer stays empty.
+         */
+        @Override
+        public void run() {
+            while (true) {
+                List<AccountEvent> events = new ArrayList<>();
+                boolean readBalance;
+                boolean sendHeartbeat;
+                synchronized (this) {
+                    if (!closed && droppedTransactions > 0) {
+                        events.add(new AccountEvent(sequence.incrementAndGet(), OVERFLOW_EVENT, Map.of("dropped", droppedTransactions)));
+                        droppedTransactions = 0;
+                    }
+                    if (!closed && transactions != null) {
+                        events.addAll(transactions);
+                        transactions.clear();
+                    }
+                    if (!closed && balance != null) {
+                        // After the transactions, as it is the result of all of them
+                        events.add(balance);
+                        balance = null;
+                    }
+                    readBalance = !closed && balanceChanged;
+                    balanceChanged = false;
+                    sendHeartbeat = !closed && heartbeatDue && events.isEmpty() && !readBalance;
+                    heartbeatDue = false;
+                    if (events.isEmpty() && !readBalance && !sendHeartbeat) {
+                        scheduled = false;
+                        return;
+                    }
+                    sending = true;
+                    sendingSince = System.nanoTime();
+                }
+                try {
+                    if (readBalance) {
+                        // Read after the commits that changed it, and sent in the order it was read
+                        bankAccountRepository
+                            .findCurrentBalanceById(bankAccountId)
+                            .ifPresent(currentBalance ->
+                                events.add(
+                                    new AccountEvent(
+                                        sequence.incrementAndGet(),
+                                        BALANCE_EVENT,
+                                        new BalanceChangeDTO(bankAccountId, currentBalance)
+                                    )
+                                )
+                            );
+                    }
+                    for (AccountEvent event : events) {
+                        sendingSince = System.nanoTime();
+                        sink.send(event);
+                    }
+                    if (sendHeartbeat) {
+                        sendingSince = System.nanoTime();
+                        sink.heartbeat();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Subscriber of BankAccount {} is gone: {}", bankAccountId, e.toString());
+                    close();
+                    return;
+                } finally {
+                    endSend();
+                }
+            }
+        }
+
+        private void endSend() {
+            boolean wasAbandoned;
+            synchronized (this) {
+                sending = false;
+                wasAbandoned = abandoned;
+                abandoned = false;
+            }
+            if (wasAbandoned) {
+                stalledSends.decrementAndGet();
+                resizeExecutor();
+                // Closed while the send was blocked, the connection is left open otherwise
+                sink.complete();
+            }
+        }
+    }
+}
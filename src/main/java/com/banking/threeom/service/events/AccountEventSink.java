@@ -0,0 +1,27 @@
+package com.banking.threeom.service.events;
+
+import java.io.IOException;
+
+/**
+ * Connection of a subscriber of the {@link AccountEventHub}. It is called from the hub executor, never concurrently
+ * for one subscription; once it throws, the subscription is closed.
+ */
+public interface AccountEventSink {
+    /**
+     * @param event the event to send.
+     * @throws IOException if the subscriber is gone.
+     */
+    void send(AccountEvent event) throws IOException;
+
+    /**
+     * Keep an idle connection open, and find out whether the subscriber is still there.
+     *
+     * @throws IOException if the subscriber is gone.
+     */
+    void heartbeat() throws IOException;
+
+    /**
+     * End the connection of a subscription the hub closed itself, e.g. after a send blocked for too long.
+     */
+    void complete();
+}
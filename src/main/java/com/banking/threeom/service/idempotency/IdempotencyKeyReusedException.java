@@ -0,0 +1,17 @@
+package com.banking.threeom.service.idempotency;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an {@code Idempotency-Key} is sent again with a different request.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyKeyReusedException(String scope, String idempotencyKey) {
+        super("Idempotency-Key " + idempotencyKey + " was already used for a different " + scope);
+    }
+}
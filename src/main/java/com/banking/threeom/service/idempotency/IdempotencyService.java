@@ -0,0 +1,174 @@
+package com.banking.threeom.service.idempotency;
+
+import com.banking.threeom.domain.IdempotentRequest;
+import com.banking.threeom.repository.IdempotentRequestRepository;
+import com.banking.threeom.utils.ExpiringCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service making create requests idempotent on a client supplied {@code Idempotency-Key}.
+ * <p>
+ * The first request with a key inserts an {@link IdempotentRequest} row in the same database transaction as the
+ * entity it creates, and stores the response in it. The unique constraint on {@code (scope, idempotency_key)} lets
+ * only one of several concurrent requests with the same key commit. Later requests with the key get the stored
+ * response, from a size and time bounded in-memory cache or else from the table, without running the create again.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotentRequestRepository idempotentRequestRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExpiringCache<String, StoredResponse> cache;
+
+    private final long retentionHours;
+
+    public IdempotencyService(
+        IdempotentRequestRepository idempotentRequestRepository,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        @Value("${application.idempotency.cache-size:10000}") int cacheSize,
+        @Value("${application.idempotency.cache-ttl-ms:600000}") long cacheTimeToLiveMillis,
+        @Value("${application.idempotency.retention-hours:24}") long retentionHours
+    ) {
+        this.idempotentRequestRepository = idempotentRequestRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cache = new ExpiringCache<>(cacheSize, cacheTimeToLiveMillis);
+        this.retentionHours = retentionHours;
+    }
+
+    /**
+     * Run a create action once per idempotency key.
+     *
+     * @param scope the kind of request, keys are unique per scope.
+     * @param idempotencyKey the key sent by the client.
+     * @param request the request body, a key sent again with a different body is rejected.
+     * @param responseType the type of the result of the action.
+     * @param action the action creating the entity.
+     * @param <T> the type of the result of the action.
+     * @return the result of the action, or the result of its first run if the key was already used.
+     * @throws IdempotencyKeyReusedException if the key was already used with a different request.
+     */
+    public <T> T execute(String scope, String idempotencyKey, Object request, Class<T> responseType, Supplier<T> action) {
+        String cacheKey = scope + ':' + idempotencyKey;
+        String requestHash = hash(request);
+        StoredResponse stored = cache.get(cacheKey);
+        if (stored == null) {
+            stored = findStoredResponse(scope, idempotencyKey).orElse(null);
+        }
+        if (stored != null) {
+            return replay(scope, idempotencyKey, requestHash, stored, responseType);
+        }
+
+        AtomicReference<String> storedResponse = new AtomicReference<>();
+        try {
+            T result = transactionTemplate.execute(status -> {
+                IdempotentRequest idempotentRequest = idempotentRequestRepository.saveAndFlush(
+                    new IdempotentRequest().scope(scope).idempotencyKey(idempotencyKey).requestHash(requestHash).createdDate(Instant.now())
+                );
+                T response = action.get();
+                storedResponse.set(write(response));
+                idempotentRequest.setResponse(storedResponse.get());
+                return response;
+            });
+            cache.put(cacheKey, new StoredResponse(requestHash, storedResponse.get()));
+            return result;
+        } catch (DataIntegrityViolationException e) {
+            // Either a concurrent request with the same key committed first, or the action itself violated a constraint
+            Optional<StoredResponse> concurrent = findStoredResponse(scope, idempotencyKey);
+            if (concurrent.isEmpty()) {
+                throw e;
+            }
+            log.debug("Concurrent request with Idempotency-Key {} for {}", idempotencyKey, scope);
+            return replay(scope, idempotencyKey, requestHash, concurrent.get(), responseType);
+        }
+    }
+
+    /**
+     * Delete the keys older than {@code application.idempotency.retention-hours}.
+     */
+    @Scheduled(fixedDelayString = "${application.idempotency.purge-delay-ms:3600000}")
+    public void purgeExpiredKeys() {
+        Instant createdBefore = Instant.now().minus(retentionHours, ChronoUnit.HOURS);
+        Integer deleted = transactionTemplate.execute(status -> idempotentRequestRepository.deleteAllCreatedBefore(createdBefore));
+        log.debug("Purged {} idempotency keys created before {}", deleted, createdBefore);
+    }
+
+    private Optional<StoredResponse> findStoredResponse(String scope, String idempotencyKey) {
+        return idempotentRequestRepository
+            .findOneByScopeAndIdempotencyKey(scope, idempotencyKey)
+            .filter(idempotentRequest -> idempotentRequest.getResponse() != null)
+            .map(idempotentRequest -> {
+                StoredResponse stored = new StoredResponse(idempotentRequest.getRequestHash(), idempotentRequest.getResponse());
+                cache.put(scope + ':' + idempotencyKey, stored);
+                return stored;
+            });
+    }
+
+    private <T> T replay(String scope, String idempotencyKey, String requestHash, StoredResponse stored, Class<T> responseType) {
+        if (!stored.requestHash.equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(scope, idempotencyKey);
+        }
+        log.debug("Replaying response for Idempotency-Key {} of {}", idempotencyKey, scope);
+        try {
+            return objectMapper.readValue(stored.response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response of Idempotency-Key " + idempotencyKey + " cannot be read", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + value, e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return String.format("%064x", new BigInteger(1, digest.digest(write(request).getBytes(StandardCharsets.UTF_8))));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class StoredResponse {
+
+        private final String requestHash;
+
+        private final String response;
+
+        private StoredResponse(String requestHash, String response) {
+            this.requestHash = requestHash;
+            this.response = response;
+        }
+    }
+}
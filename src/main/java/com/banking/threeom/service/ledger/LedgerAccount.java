@@ -0,0 +1,31 @@
+package com.banking.threeom.service.ledger;
+
+/**
+ * The in-memory state of a bank account owned by a {@link LedgerShard}. Only ever read and written by the thread of
+ * the owning shard.
+ * <p>
+ * The balance is kept as a primitive number of minor units, so that applying a command allocates nothing.
+ */
+public final class LedgerAccount {
+
+    private final Long balanceId;
+
+    private long currentBalance;
+
+    public LedgerAccount(Long balanceId, long currentBalance) {
+        this.balanceId = balanceId;
+        this.currentBalance = currentBalance;
+    }
+
+    public Long getBalanceId() {
+        return balanceId;
+    }
+
+    public long getCurrentBalance() {
+        return currentBalance;
+    }
+
+    void setCurrentBalance(long currentBalance) {
+        this.currentBalance = currentBalance;
+    }
+}
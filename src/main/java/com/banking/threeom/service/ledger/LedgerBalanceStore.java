@@ -0,0 +1,75 @@
+package com.banking.threeom.service.ledger;
+
+import com.banking.threeom.aop.retry.RetryOnConflict;
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BalanceRepository;
+import com.banking.threeom.repository.BankAccountRepository;
+import com.banking.threeom.service.BalanceStripeService;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * {@link LedgerStore} backed by the {@code balance} table. The ledger serializes the changes of a balance in memory, so
+ * it does not stripe hot balances: it loads their current balance stripes included, and persists it on the base row
+ * less the stripes, which it leaves untouched.
+ * <p>
+ * The balances it persists come from the ledger, not from the rows it overwrites, so a flush conflicting with a
+ * concurrent write of a balance row, such as an update of its initial balance, is re-run on the fresh rows.
+ */
+@Service
+@Transactional
+@ConditionalOnProperty(prefix = "application.ledger", name = "enabled", havingValue = "true")
+public class LedgerBalanceStore implements LedgerStore {
+
+    private final Logger log = LoggerFactory.getLogger(LedgerBalanceStore.class);
+
+    private final BalanceRepository balanceRepository;
+
+    private final BankAccountRepository bankAccountRepository;
+
+    private final BalanceStripeService balanceStripeService;
+
+    public LedgerBalanceStore(
+        BalanceRepository balanceRepository,
+        BankAccountRepository bankAccountRepository,
+        BalanceStripeService balanceStripeService
+    ) {
+        this.balanceRepository = balanceRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.balanceStripeService = balanceStripeService;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<LedgerAccount> load(Long bankAccountId) {
+        log.debug("Request to load BankAccount into ledger : {}", bankAccountId);
+        return bankAccountRepository
+            .findBalanceIdById(bankAccountId)
+            .flatMap(balanceId ->
+                bankAccountRepository
+                    .findCurrentBalanceById(bankAccountId)
+                    .map(currentBalance -> new LedgerAccount(balanceId, currentBalance.getMinorUnits()))
+            );
+    }
+
+    @Override
+    @RetryOnConflict
+    public void persist(Map<Long, Money> currentBalances) {
+        log.debug("Request to persist {} ledger balances", currentBalances.size());
+        List<Balance> balances = balanceRepository.findAllById(currentBalances.keySet());
+        for (Balance balance : balances) {
+            Money currentBalance = currentBalances.get(balance.getId());
+            if (balance.getStripes() > 0) {
+                currentBalance = currentBalance.minus(balanceStripeService.lockStripedAmount(balance.getId()));
+            }
+            balance.setCurrentBalance(currentBalance);
+        }
+    }
+}
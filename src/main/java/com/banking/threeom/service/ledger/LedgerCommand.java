@@ -0,0 +1,109 @@
+package com.banking.threeom.service.ledger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A debit or credit of one bank account, in minor units, applied by the shard owning the account.
+ * <p>
+ * A transfer is a debit carrying its credit leg: the shard of the source account forwards the credit leg to the
+ * shard of the destination account once the debit succeeded, and the transfer result is completed by the credit
+ * leg. Should the credit leg fail, its refund leg gives the money back to the source account.
+ * <p>
+ * A reversal undoes an applied command whose database transaction rolled back: it is applied whatever the resulting
+ * balance, as the money it takes back was never really there.
+ */
+final class LedgerCommand {
+
+    private final Long bankAccountId;
+
+    private final long delta;
+
+    private final LedgerCommand creditLeg;
+
+    private final LedgerCommand refundLeg;
+
+    private final CompletableFuture<Boolean> result;
+
+    private final boolean checked;
+
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    private LedgerCommand(
+        Long bankAccountId,
+        long delta,
+        LedgerCommand creditLeg,
+        LedgerCommand refundLeg,
+        CompletableFuture<Boolean> result,
+        boolean checked
+    ) {
+        this.bankAccountId = bankAccountId;
+        this.delta = delta;
+        this.creditLeg = creditLeg;
+        this.refundLeg = refundLeg;
+        this.result = result;
+        this.checked = checked;
+    }
+
+    static LedgerCommand credit(Long bankAccountId, long amount) {
+        return new LedgerCommand(bankAccountId, amount, null, null, new CompletableFuture<>(), true);
+    }
+
+    static LedgerCommand debit(Long bankAccountId, long amount) {
+        return new LedgerCommand(bankAccountId, -amount, null, null, new CompletableFuture<>(), true);
+    }
+
+    static LedgerCommand transfer(Long sourceBankAccountId, Long destinationBankAccountId, long amount) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        LedgerCommand creditLeg = new LedgerCommand(
+            destinationBankAccountId,
+            amount,
+            null,
+            credit(sourceBankAccountId, amount),
+            result,
+            true
+        );
+        return new LedgerCommand(sourceBankAccountId, -amount, creditLeg, null, result, true);
+    }
+
+    static LedgerCommand reversal(LedgerCommand command) {
+        return new LedgerCommand(command.bankAccountId, -command.delta, null, null, new CompletableFuture<>(), false);
+    }
+
+    Long getBankAccountId() {
+        return bankAccountId;
+    }
+
+    long getDelta() {
+        return delta;
+    }
+
+    LedgerCommand getCreditLeg() {
+        return creditLeg;
+    }
+
+    LedgerCommand getRefundLeg() {
+        return refundLeg;
+    }
+
+    CompletableFuture<Boolean> getResult() {
+        return result;
+    }
+
+    /**
+     * @return whether the balance must not go negative.
+     */
+    boolean isChecked() {
+        return checked;
+    }
+
+    /**
+     * Claim the command, either for its shard to apply it or for its submitter to give up on it: only the first
+     * claim succeeds, so a command given up on is never applied.
+     *
+     * @return whether the claim succeeded.
+     */
+    boolean claim() {
+        return claimed.compareAndSet(false, true);
+    }
+}
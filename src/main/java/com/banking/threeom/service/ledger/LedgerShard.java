@@ -0,0 +1,165 @@
+package com.banking.threeom.service.ledger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One shard of the {@link ShardedLedger}: owns the authoritative balance of the bank accounts hashed onto it and
+ * applies their commands on a single thread, so the balance check and update need no lock.
+ * <p>
+ * Commands from request threads arrive through a bounded {@link RingBuffer}. Credit and refund legs forwarded by
+ * other shards arrive through a separate unbounded inbox, so two shards forwarding to each other can never wait on
+ * each other's full ring buffer.
+ */
+final class LedgerShard implements Runnable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Logger log = LoggerFactory.getLogger(LedgerShard.class);
+
+    private final int index;
+
+    private final RingBuffer<LedgerCommand> commands;
+
+    private final Queue<LedgerCommand> forwarded = new ConcurrentLinkedQueue<>();
+
+    private final Map<Long, LedgerAccount> accounts = new HashMap<>();
+
+    private final LedgerStore store;
+
+    private final Consumer<LedgerCommand> router;
+
+    private final ChangeListener changeListener;
+
+    private volatile boolean running = true;
+
+    private volatile Thread thread;
+
+    LedgerShard(
+        int index,
+        int ringBufferSize,
+        LedgerStore store,
+        Consumer<LedgerCommand> router,
+        ChangeListener changeListener
+    ) {
+        this.index = index;
+        this.commands = new RingBuffer<>(ringBufferSize);
+        this.store = store;
+        this.router = router;
+        this.changeListener = changeListener;
+    }
+
+    void start() {
+        thread = new Thread(this, "banking-3-om-ledger-" + index);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            LockSupport.unpark(current);
+            current.join();
+        }
+    }
+
+    boolean submit(LedgerCommand command) {
+        return commands.offer(command);
+    }
+
+    void forward(LedgerCommand command) {
+        forwarded.add(command);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            if (!applyNext()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Apply every pending command on the calling thread, only allowed once the shard thread has been stopped.
+     *
+     * @return {@code true} if at least one command was applied.
+     */
+    boolean drain() {
+        boolean appliedAny = false;
+        while (applyNext()) {
+            appliedAny = true;
+        }
+        return appliedAny;
+    }
+
+    private boolean applyNext() {
+        LedgerCommand command = forwarded.poll();
+        if (command == null) {
+            command = commands.poll();
+        }
+        if (command == null) {
+            return false;
+        }
+        apply(command);
+        return true;
+    }
+
+    private void apply(LedgerCommand command) {
+        if (!command.claim()) {
+            // Given up on by its submitter
+            return;
+        }
+        boolean applied;
+        try {
+            applied = applyDelta(command.getBankAccountId(), command.getDelta(), command.isChecked());
+        } catch (RuntimeException e) {
+            log.error("Ledger shard {} failed to apply command on BankAccount : {}", index, command.getBankAccountId(), e);
+            applied = false;
+        }
+        if (applied && command.getCreditLeg() != null) {
+            router.accept(command.getCreditLeg());
+            return;
+        }
+        if (!applied && command.getRefundLeg() != null) {
+            router.accept(command.getRefundLeg());
+        }
+        command.getResult().complete(applied);
+    }
+
+    private boolean applyDelta(Long bankAccountId, long delta, boolean checked) {
+        LedgerAccount account = accounts.get(bankAccountId);
+        if (account == null) {
+            Optional<LedgerAccount> loaded = store.load(bankAccountId);
+            if (loaded.isEmpty()) {
+                return false;
+            }
+            account = loaded.get();
+            accounts.put(bankAccountId, account);
+        }
+        long updated = Math.addExact(account.getCurrentBalance(), delta);
+        if (updated < 0 && checked) {
+            return false;
+        }
+        account.setCurrentBalance(updated);
+        changeListener.onChange(bankAccountId, account.getBalanceId(), updated);
+        return true;
+    }
+
+    /**
+     * Notified on the shard thread of every balance change.
+     */
+    @FunctionalInterface
+    interface ChangeListener {
+        void onChange(Long bankAccountId, Long balanceId, long currentBalance);
+    }
+}
@@ -0,0 +1,25 @@
+package com.banking.threeom.service.ledger;
+
+import com.banking.threeom.domain.money.Money;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Durable backing store of the {@link ShardedLedger}.
+ */
+public interface LedgerStore {
+    /**
+     * Load the balance of a bank account the first time a shard touches it.
+     *
+     * @param bankAccountId the id of the bank account.
+     * @return the account state, or empty if the bank account does not exist or has no balance.
+     */
+    Optional<LedgerAccount> load(Long bankAccountId);
+
+    /**
+     * Persist the latest current balances.
+     *
+     * @param currentBalances the current balance by balance id.
+     */
+    void persist(Map<Long, Money> currentBalances);
+}
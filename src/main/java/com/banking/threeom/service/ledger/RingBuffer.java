@@ -0,0 +1,89 @@
+package com.banking.threeom.service.ledger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free, multi-producer / single-consumer ring buffer.
+ * <p>
+ * Every slot carries a sequence number telling whether it may be written by the producer owning position {@code p}
+ * (sequence == p) or read by the consumer at position {@code p} (sequence == p + 1), so producers only contend on a
+ * single CAS and the consumer never blocks them.
+ *
+ * @param <E> the element type.
+ */
+final class RingBuffer<E> {
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> slots;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong head = new AtomicLong();
+
+    RingBuffer(int requestedCapacity) {
+        int capacity = requestedCapacity <= 1 ? 2 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Append an element, may be called from any thread.
+     *
+     * @param element the element to append.
+     * @return {@code false} if the buffer is full.
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Take the oldest element, must only be called from the consumer thread.
+     *
+     * @return the element, or {@code null} if the buffer is empty.
+     */
+    E poll() {
+        long position = head.get();
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, position + mask + 1);
+        head.lazySet(position + 1);
+        return element;
+    }
+
+    boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,253 @@
+package com.banking.threeom.service.ledger;
+
+import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.Transaction;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.service.events.AccountEventHub;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory ledger executing transactions without database row locks.
+ * <p>
+ * Bank account ids are hashed onto {@code application.ledger.shards} {@link LedgerShard}s. Each shard is the single
+ * writer of the balances of its accounts, so balance checks run in memory on the shard thread. Changed balances are
+ * written back to the {@code balance} table asynchronously every {@code application.ledger.flush-delay-ms}, and
+ * published to the {@link AccountEventHub} as soon as they are applied.
+ * <p>
+ * While the ledger is enabled it owns the current balance of every account it has touched: balances must not be
+ * changed through {@link com.banking.threeom.service.BalanceService} at the same time.
+ * <p>
+ * A transaction is applied before the database transaction saving it commits; should that one roll back, the applied
+ * command is reversed. A command that gets no result in time is given up on, unless its shard already started to
+ * apply it, in which case its result is awaited, so that the caller never reports a transaction that was applied as
+ * failed.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.ledger", name = "enabled", havingValue = "true")
+public class ShardedLedger {
+
+    private final Logger log = LoggerFactory.getLogger(ShardedLedger.class);
+
+    private final LedgerStore store;
+
+    private final AccountEventHub accountEventHub;
+
+    private final LedgerShard[] shards;
+
+    private final long timeoutMillis;
+
+    private final Map<Long, Money> pendingBalances = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    public ShardedLedger(
+        LedgerStore store,
+        AccountEventHub accountEventHub,
+        @Value("${application.ledger.shards:4}") int shardCount,
+        @Value("${application.ledger.ring-buffer-size:8192}") int ringBufferSize,
+        @Value("${application.ledger.timeout-ms:1000}") long timeoutMillis
+    ) {
+        this.store = store;
+        this.accountEventHub = accountEventHub;
+        this.timeoutMillis = timeoutMillis;
+        this.shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, ringBufferSize, store, this::forward, this::onChange);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        log.debug("Starting ledger with {} shards", shards.length);
+        running = true;
+        for (LedgerShard shard : shards) {
+            shard.start();
+        }
+    }
+
+    /**
+     * Stop the shard threads, apply the commands still queued and write every pending balance back.
+     *
+     * @throws InterruptedException if interrupted while waiting for a shard thread.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        log.debug("Stopping ledger");
+        running = false;
+        for (LedgerShard shard : shards) {
+            shard.stop();
+        }
+        boolean applied = true;
+        while (applied) {
+            applied = false;
+            for (LedgerShard shard : shards) {
+                applied |= shard.drain();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Execute a transaction on the ledger and set its resulting status.
+     *
+     * @param transaction the transaction to execute.
+     * @return {@link TransactionStatus#SUCCESS} if the balances were updated, {@link TransactionStatus#DECLINE} otherwise.
+     */
+    public TransactionStatus execute(Transaction transaction) {
+        log.debug("Request to execute Transaction on ledger : {}", transaction);
+        TransactionStatus status = apply(transaction) ? TransactionStatus.SUCCESS : TransactionStatus.DECLINE;
+        transaction.setStatus(status);
+        return status;
+    }
+
+    /**
+     * Write the balances changed since the last flush back to the database.
+     */
+    @Scheduled(fixedDelayString = "${application.ledger.flush-delay-ms:50}")
+    public void flush() {
+        if (pendingBalances.isEmpty()) {
+            return;
+        }
+        Map<Long, Money> balances = new HashMap<>();
+        for (Long balanceId : new ArrayList<>(pendingBalances.keySet())) {
+            Money currentBalance = pendingBalances.remove(balanceId);
+            if (currentBalance != null) {
+                balances.put(balanceId, currentBalance);
+            }
+        }
+        try {
+            store.persist(balances);
+        } catch (RuntimeException e) {
+            log.error("Ledger flush of {} balances failed, retrying on next flush", balances.size(), e);
+            balances.forEach(pendingBalances::putIfAbsent);
+        }
+    }
+
+    private boolean apply(Transaction transaction) {
+        Money money = transaction.getAmount();
+        if (!running || money == null || money.signum() <= 0 || transaction.getTransactionType() == null) {
+            return false;
+        }
+        long amount = money.getMinorUnits();
+        Long sourceId = idOf(transaction.getSourceBankAccount());
+        Long destinationId = idOf(transaction.getDestinationBankAccount());
+        LedgerCommand command;
+        switch (transaction.getTransactionType()) {
+            case DEPOSIT:
+                if (destinationId == null) {
+                    return false;
+                }
+                command = LedgerCommand.credit(destinationId, amount);
+                break;
+            case WITHDRAWAL:
+                if (sourceId == null) {
+                    return false;
+                }
+                command = LedgerCommand.debit(sourceId, amount);
+                break;
+            case TRANSFER:
+                if (sourceId == null || destinationId == null || Objects.equals(sourceId, destinationId)) {
+                    return false;
+                }
+                command = LedgerCommand.transfer(sourceId, destinationId, amount);
+                break;
+            default:
+                return false;
+        }
+        if (!submit(command)) {
+            return false;
+        }
+        reverseOnRollback(command);
+        return true;
+    }
+
+    private boolean submit(LedgerCommand command) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        LedgerShard shard = shardOf(command.getBankAccountId());
+        while (!shard.submit(command)) {
+            if (System.nanoTime() > deadline) {
+                log.warn("Ledger shard of BankAccount {} is full, declining", command.getBankAccountId());
+                return false;
+            }
+            Thread.onSpinWait();
+        }
+        boolean interrupted = false;
+        try {
+            return command.getResult().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException | TimeoutException e) {
+            interrupted = e instanceof InterruptedException;
+            if (command.claim()) {
+                log.warn("No ledger result for BankAccount {} within {} ms, declining", command.getBankAccountId(), timeoutMillis);
+                return false;
+            }
+            // Claimed by its shard, which is applying it: report its actual result
+            return command.getResult().join();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("No ledger result for BankAccount " + command.getBankAccountId(), e);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Reverse an applied command, and its credit leg, if the database transaction it was applied in rolls back.
+     */
+    private void reverseOnRollback(LedgerCommand command) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_ROLLED_BACK) {
+                        return;
+                    }
+                    log.debug("Reversing the ledger command on BankAccount {} of a rolled back transaction", command.getBankAccountId());
+                    forward(LedgerCommand.reversal(command));
+                    if (command.getCreditLeg() != null) {
+                        forward(LedgerCommand.reversal(command.getCreditLeg()));
+                    }
+                }
+            }
+        );
+    }
+
+    private void onChange(Long bankAccountId, Long balanceId, long currentBalance) {
+        Money balance = Money.ofMinorUnits(currentBalance);
+        pendingBalances.put(balanceId, balance);
+        accountEventHub.publishBalance(bankAccountId, balance);
+    }
+
+    private void forward(LedgerCommand command) {
+        shardOf(command.getBankAccountId()).forward(command);
+    }
+
+    private LedgerShard shardOf(Long bankAccountId) {
+        return shards[Math.floorMod(Long.hashCode(bankAccountId), shards.length)];
+    }
+
+    private static Long idOf(BankAccount bankAccount) {
+        return bankAccount == null ? null : bankAccount.getId();
+    }
+}
@@ -5,7 +5,18 @@ import com.banking.threeom.service.dto.BalanceDTO;
 import org.mapstruct.*;
 
 /**
- * Mapper for the entity {@link Balance} and its DTO {@link BalanceDTO}.
+ * Mapper for the entity {@link Balance} and its DTO {@link BalanceDTO}. The stripes are only changed by the
+ * {@link com.banking.threeom.service.BalanceStripeService}.
  */
 @Mapper(componentModel = "spring")
-public interface BalanceMapper extends EntityMapper<BalanceDTO, Balance> {}
+public interface BalanceMapper extends EntityMapper<BalanceDTO, Balance> {
+    @Override
+    @Mapping(target = "stripes", ignore = true)
+    Balance toEntity(BalanceDTO dto);
+
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "stripes", ignore = true)
+    void partialUpdate(@MappingTarget Balance entity, BalanceDTO dto);
+}
@@ -14,6 +14,11 @@ public interface BankAccountMapper extends EntityMapper<BankAccountDTO, BankAcco
     @Mapping(target = "balance", source = "balance", qualifiedByName = "balanceId")
     BankAccountDTO toDto(BankAccount s);
 
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "version", ignore = true)
+    void partialUpdate(@MappingTarget BankAccount entity, BankAccountDTO dto);
+
     @Named("balanceId")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
@@ -2,6 +2,7 @@ package com.banking.threeom.service.mapper;
 
 import com.banking.threeom.domain.BankAccount;
 import com.banking.threeom.domain.Transaction;
+import com.banking.threeom.repository.TransactionProjection;
 import com.banking.threeom.service.dto.BankAccountDTO;
 import com.banking.threeom.service.dto.TransactionDTO;
 import org.mapstruct.*;
@@ -15,6 +16,28 @@ public interface TransactionMapper extends EntityMapper<TransactionDTO, Transact
     @Mapping(target = "destinationBankAccount", source = "destinationBankAccount", qualifiedByName = "bankAccountId")
     TransactionDTO toDto(Transaction s);
 
+    @Mapping(target = "claimedDate", ignore = true)
+    Transaction toEntity(TransactionDTO dto);
+
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "claimedDate", ignore = true)
+    void partialUpdate(@MappingTarget Transaction entity, TransactionDTO dto);
+
+    @Mapping(target = "sourceBankAccount", source = "sourceBankAccountId", qualifiedByName = "bankAccountIdOnly")
+    @Mapping(target = "destinationBankAccount", source = "destinationBankAccountId", qualifiedByName = "bankAccountIdOnly")
+    TransactionDTO projectionToDto(TransactionProjection projection);
+
+    @Named("bankAccountIdOnly")
+    default BankAccountDTO toDtoBankAccountId(Long id) {
+        if (id == null) {
+            return null;
+        }
+        BankAccountDTO bankAccountDTO = new BankAccountDTO();
+        bankAccountDTO.setId(id);
+        return bankAccountDTO;
+    }
+
     @Named("bankAccountId")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
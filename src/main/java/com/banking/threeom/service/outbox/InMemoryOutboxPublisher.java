@@ -0,0 +1,51 @@
+package com.banking.threeom.service.outbox;
+
+import com.banking.threeom.domain.OutboxEvent;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link OutboxPublisher} keeping the latest {@code application.outbox.in-memory.capacity} events in memory, the
+ * stand-in for a broker in development and tests.
+ */
+@Component
+@ConditionalOnProperty(name = "application.outbox.publisher", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryOutboxPublisher implements OutboxPublisher {
+
+    private final Deque<OutboxEvent> published = new ArrayDeque<>();
+
+    private final int capacity;
+
+    public InMemoryOutboxPublisher(@Value("${application.outbox.in-memory.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            published.addLast(event);
+            if (published.size() > capacity) {
+                published.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * @return the latest published events, oldest first.
+     */
+    public synchronized List<OutboxEvent> getPublished() {
+        return new ArrayList<>(published);
+    }
+
+    /**
+     * Forget the published events.
+     */
+    public synchronized void clear() {
+        published.clear();
+    }
+}
@@ -0,0 +1,99 @@
+package com.banking.threeom.service.outbox;
+
+import com.banking.threeom.domain.OutboxEvent;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link OutboxPublisher} sending the events to Kafka, to the topic {@code application.outbox.kafka.topic-prefix}
+ * followed by the lower-cased aggregate type.
+ * <p>
+ * The record key is the aggregate id, so the events of an entity land in one partition and keep their order; the
+ * producer is idempotent, so its own retries neither duplicate nor reorder them. The {@code event-id},
+ * {@code event-type} and {@code aggregate-type} headers let consumers drop the events delivered twice by the relay.
+ * <p>
+ * The Kafka client is only on the classpath of the {@code prod} profile, which is the only one compiling this class.
+ */
+@Component
+@ConditionalOnProperty(name = "application.outbox.publisher", havingValue = "kafka")
+public class KafkaOutboxPublisher implements OutboxPublisher, DisposableBean {
+
+    private final Producer<String, String> producer;
+
+    private final String topicPrefix;
+
+    private final long sendTimeoutMillis;
+
+    public KafkaOutboxPublisher(
+        @Value("${application.outbox.kafka.bootstrap-servers:localhost:9092}") String bootstrapServers,
+        @Value("${application.outbox.kafka.topic-prefix:banking.}") String topicPrefix,
+        @Value("${application.outbox.kafka.send-timeout-ms:30000}") long sendTimeoutMillis
+    ) {
+        Properties properties = new Properties();
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ProducerConfig.ACKS_CONFIG, "all");
+        properties.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        properties.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        properties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        this.producer = new KafkaProducer<>(properties, new StringSerializer(), new StringSerializer());
+        this.topicPrefix = topicPrefix;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        List<Future<RecordMetadata>> acknowledgements = new ArrayList<>(events.size());
+        try {
+            for (OutboxEvent event : events) {
+                ProducerRecord<String, String> record = new ProducerRecord<>(
+                    topicPrefix + event.getAggregateType().toLowerCase(Locale.ROOT),
+                    String.valueOf(event.getAggregateId()),
+                    event.getPayload()
+                );
+                record
+                    .headers()
+                    .add("event-id", bytes(String.valueOf(event.getId())))
+                    .add("event-type", bytes(event.getEventType()))
+                    .add("aggregate-type", bytes(event.getAggregateType()));
+                acknowledgements.add(producer.send(record));
+            }
+            producer.flush();
+            for (Future<RecordMetadata> acknowledgement : acknowledgements) {
+                acknowledgement.get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (KafkaException | ExecutionException | TimeoutException e) {
+            throw new OutboxPublishException("Cannot publish " + events.size() + " outbox events to Kafka", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OutboxPublishException("Interrupted while publishing " + events.size() + " outbox events to Kafka", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        producer.close(Duration.ofMillis(sendTimeoutMillis));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
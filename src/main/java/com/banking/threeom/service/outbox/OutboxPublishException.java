@@ -0,0 +1,13 @@
+package com.banking.threeom.service.outbox;
+
+/**
+ * Thrown when an {@link OutboxPublisher} cannot publish a batch of events.
+ */
+public class OutboxPublishException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public OutboxPublishException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,17 @@
+package com.banking.threeom.service.outbox;
+
+import com.banking.threeom.domain.OutboxEvent;
+import java.util.List;
+
+/**
+ * Destination of the events relayed by the {@link OutboxRelay}, selected by {@code application.outbox.publisher}.
+ */
+public interface OutboxPublisher {
+    /**
+     * Publish a batch of events, in order, and return once all of them are acknowledged.
+     *
+     * @param events the events, ordered by id.
+     * @throws OutboxPublishException if any event may not have been published; the whole batch is published again.
+     */
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,88 @@
+package com.banking.threeom.service.outbox;
+
+import com.banking.threeom.domain.OutboxEvent;
+import com.banking.threeom.repository.OutboxEventRepository;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Background relay draining the {@link OutboxEvent}s to the {@link OutboxPublisher}.
+ * <p>
+ * Every batch is locked, published and deleted in one database transaction: if publishing fails, the transaction
+ * rolls back and the whole batch is published again by the next poll, so an event is delivered at least once and
+ * consumers must ignore the {@code event-id}s they have already seen. The lock lets a single node relay at a time,
+ * which keeps the events in the order of their ids.
+ */
+@Service
+public class OutboxRelay {
+
+    private final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final OutboxPublisher outboxPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    public OutboxRelay(
+        OutboxEventRepository outboxEventRepository,
+        OutboxPublisher outboxPublisher,
+        PlatformTransactionManager transactionManager,
+        @Value("${application.outbox.enabled:false}") boolean enabled,
+        @Value("${application.outbox.batch-size:500}") int batchSize
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Relay batches of events until a batch is not full.
+     */
+    @Scheduled(fixedDelayString = "${application.outbox.poll-delay-ms:100}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            while (relayBatch() == batchSize) {
+                log.trace("Full batch of outbox events relayed, polling again");
+            }
+        } catch (RuntimeException e) {
+            log.error("Relaying outbox events failed, retrying on the next poll", e);
+        }
+    }
+
+    /**
+     * Publish and delete the oldest batch of events.
+     *
+     * @return the number of relayed events.
+     */
+    public int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.findOldestForUpdate(PageRequest.of(0, batchSize));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            outboxPublisher.publish(events);
+            outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).collect(Collectors.toList()));
+            log.debug("Relayed {} outbox events up to {}", events.size(), events.get(events.size() - 1).getId());
+            return events.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+}
@@ -0,0 +1,63 @@
+package com.banking.threeom.service.outbox;
+
+import com.banking.threeom.domain.OutboxEvent;
+import com.banking.threeom.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service writing {@link OutboxEvent}s.
+ * <p>
+ * An event is inserted in the database transaction that changed its entity, so it is relayed if and only if the
+ * change commits, without a second write to the broker that could fail on its own. The {@link OutboxRelay} publishes
+ * it afterwards, at least once.
+ */
+@Service
+public class OutboxService {
+
+    private final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write an event in the current transaction. The entity must already be flushed when it was updated, so that its
+     * row lock orders its events, see {@link OutboxEvent}.
+     *
+     * @param aggregateType the type of the entity.
+     * @param aggregateId the id of the entity, which is the partitioning key of its events.
+     * @param eventType the type of the event.
+     * @param payload the content of the event, written as JSON.
+     * @return the persisted event.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent record(String aggregateType, Long aggregateId, String eventType, Object payload) {
+        log.debug("Request to record {} of {} {}", eventType, aggregateType, aggregateId);
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload of " + eventType + " of " + aggregateType + " " + aggregateId + " cannot be written", e);
+        }
+        return outboxEventRepository.save(
+            new OutboxEvent()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(json)
+                .createdDate(Instant.now())
+        );
+    }
+}
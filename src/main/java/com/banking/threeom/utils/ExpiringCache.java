@@ -0,0 +1,154 @@
+package com.banking.threeom.utils;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrent cache bounded in size and in entry age.
+ * <p>
+ * Every entry lives for the same time, so insertion order is also expiry order: entries are kept in a FIFO queue
+ * and evicted from its head, either when they expire or when the cache is over its maximum size. The slots of
+ * overwritten and removed entries are dropped when they reach the head, or all at once when the queue grows past
+ * twice the maximum size, so that frequent writes cannot grow it.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public class ExpiringCache<K, V> {
+
+    private final Map<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+
+    private final Queue<Entry<K, V>> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    private final int maxSize;
+
+    private final long timeToLiveMillis;
+
+    private final LongSupplier clock;
+
+    public ExpiringCache(int maxSize, long timeToLiveMillis) {
+        this(maxSize, timeToLiveMillis, System::currentTimeMillis);
+    }
+
+    public ExpiringCache(int maxSize, long timeToLiveMillis, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.clock = clock;
+    }
+
+    public V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null || entry.expiresAt <= clock.getAsLong()) {
+            return null;
+        }
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        if (maxSize <= 0) {
+            return;
+        }
+        Entry<K, V> entry = new Entry<>(key, value, clock.getAsLong() + timeToLiveMillis);
+        Entry<K, V> previous = entries.put(key, entry);
+        if (previous == null) {
+            size.incrementAndGet();
+        }
+        insertionOrder.add(entry);
+        if (queued.incrementAndGet() > 2 * maxSize) {
+            compact();
+        }
+        evict();
+    }
+
+    /**
+     * Remove an entry. Its slot in the FIFO queue is dropped lazily.
+     *
+     * @param key the key of the entry.
+     */
+    public void remove(K key) {
+        if (entries.remove(key) != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    public void clear() {
+        for (K key : entries.keySet()) {
+            remove(key);
+        }
+        while (insertionOrder.poll() != null) {
+            queued.decrementAndGet();
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    private void evict() {
+        long now = clock.getAsLong();
+        Entry<K, V> head;
+        while ((head = insertionOrder.peek()) != null && mustEvict(head, now)) {
+            if (insertionOrder.remove(head)) {
+                queued.decrementAndGet();
+                if (entries.remove(head.key, head)) {
+                    size.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the slots of the overwritten and removed entries, in one pass over the queue.
+     */
+    private void compact() {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            insertionOrder.removeIf(entry -> entries.get(entry.key) != entry);
+            // Recounted rather than tracked, as concurrent evictions may remove the same slots
+            queued.set(insertionOrder.size());
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private boolean mustEvict(Entry<K, V> head, long now) {
+        return (
+            size.get() > maxSize ||
+            head.expiresAt <= now ||
+            // Overwritten or removed
+            entries.get(head.key) != head
+        );
+    }
+
+    private static final class Entry<K, V> {
+
+        private final K key;
+
+        private final V value;
+
+        private final long expiresAt;
+
+        private Entry(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.banking.threeom.utils;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -50,6 +51,58 @@ public final class PaginationUtil {
         return headers;
     }
 
+    /**
+     * Generate keyset pagination headers: only a {@code next} link carrying the cursor of the next page, and no
+     * total count.
+     *
+     * @param uriBuilder The URI builder.
+     * @param nextCursor The cursor of the next page, or {@code null} on the last page.
+     * @param pageSize The page size.
+     * @return http header.
+     */
+    public static HttpHeaders generateCursorHttpHeaders(UriComponentsBuilder uriBuilder, String nextCursor, int pageSize) {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            String uri = uriBuilder.replaceQueryParam("page")
+                    .replaceQueryParam("cursor", nextCursor)
+                    .replaceQueryParam("size", Integer.toString(pageSize))
+                    .toUriString()
+                    .replace(",", "%2C")
+                    .replace(";", "%3B");
+            headers.add(HttpHeaders.LINK, MessageFormat.format(HEADER_LINK_FORMAT, uri, "next"));
+        }
+        return headers;
+    }
+
+    /**
+     * Generate pagination headers for a Spring Data {@link org.springframework.data.domain.Slice} object: the
+     * {@code next} and {@code prev} links, and no total count.
+     *
+     * @param uriBuilder The URI builder.
+     * @param slice The slice.
+     * @param <T> The type of object.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generateSliceHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        int pageNumber = slice.getNumber();
+        int pageSize = slice.getSize();
+        StringBuilder link = new StringBuilder();
+        if (slice.hasNext()) {
+            link.append(prepareLink(uriBuilder, pageNumber + 1, pageSize, "next"));
+        }
+        if (slice.hasPrevious()) {
+            if (link.length() > 0) {
+                link.append(",");
+            }
+            link.append(prepareLink(uriBuilder, pageNumber - 1, pageSize, "prev"));
+        }
+        if (link.length() > 0) {
+            headers.add(HttpHeaders.LINK, link.toString());
+        }
+        return headers;
+    }
+
     private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
         return MessageFormat.format(HEADER_LINK_FORMAT, preparePageUri(uriBuilder, pageNumber, pageSize), relType);
     }
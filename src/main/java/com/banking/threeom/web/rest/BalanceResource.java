@@ -1,8 +1,11 @@
 package com.banking.threeom.web.rest;
 
 import com.banking.threeom.repository.BalanceRepository;
+import com.banking.threeom.service.AdjustmentResult;
 import com.banking.threeom.service.BalanceService;
+import com.banking.threeom.service.dto.BalanceAdjustmentDTO;
 import com.banking.threeom.service.dto.BalanceDTO;
+import com.banking.threeom.service.idempotency.IdempotencyService;
 import com.banking.threeom.utils.HeaderUtil;
 import com.banking.threeom.utils.PaginationUtil;
 import com.banking.threeom.web.rest.errors.BadRequestAlertException;
@@ -18,6 +21,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -43,25 +47,34 @@ public class BalanceResource {
 
     private final BalanceRepository balanceRepository;
 
-    public BalanceResource(BalanceService balanceService, BalanceRepository balanceRepository) {
+    private final IdempotencyService idempotencyService;
+
+    public BalanceResource(BalanceService balanceService, BalanceRepository balanceRepository, IdempotencyService idempotencyService) {
         this.balanceService = balanceService;
         this.balanceRepository = balanceRepository;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
      * {@code POST  /balances} : Create a new balance.
      *
      * @param balanceDTO the balanceDTO to create.
+     * @param idempotencyKey the optional {@code Idempotency-Key} header: a request repeated with the same key returns the response of the first one without creating another balance.
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new balanceDTO, or with status {@code 400 (Bad Request)} if the balance has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/balances")
-    public ResponseEntity<BalanceDTO> createBalance(@Valid @RequestBody BalanceDTO balanceDTO) throws URISyntaxException {
+    public ResponseEntity<BalanceDTO> createBalance(
+        @Valid @RequestBody BalanceDTO balanceDTO,
+        @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) throws URISyntaxException {
         log.debug("REST request to save Balance : {}", balanceDTO);
         if (balanceDTO.getId() != null) {
             throw new BadRequestAlertException("A new balance cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        BalanceDTO result = balanceService.save(balanceDTO);
+        BalanceDTO result = idempotencyKey == null
+            ? balanceService.save(balanceDTO)
+            : idempotencyService.execute(ENTITY_NAME, idempotencyKey, balanceDTO, BalanceDTO.class, () -> balanceService.save(balanceDTO));
         return ResponseEntity
             .created(new URI("/api/balances/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, ENTITY_NAME + result.getId().toString()))
@@ -136,24 +149,60 @@ public class BalanceResource {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * {@code POST  /balances/:id/adjustments} : Add an amount to the current balance of an existing balance, in a single
+     * atomic update.
+     *
+     * @param id the id of the balance to adjust.
+     * @param adjustmentDTO the amount to add, and the lowest allowed current balance, {@code 0} by default.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)},
+     * or with status {@code 409 (Conflict)} if the current balance would go below the floor,
+     * or with status {@code 404 (Not Found)} if the balance is not found.
+     */
+    @PostMapping("/balances/{id}/adjustments")
+    public ResponseEntity<Void> adjustBalance(@PathVariable Long id, @Valid @RequestBody BalanceAdjustmentDTO adjustmentDTO) {
+        log.debug("REST request to adjust Balance : {}, {}", id, adjustmentDTO);
+        if (adjustmentDTO.getFloor() == null) {
+            throw new BadRequestAlertException("Invalid floor", ENTITY_NAME, "floornull");
+        }
+        AdjustmentResult result = balanceService.adjust(id, adjustmentDTO.getDelta(), adjustmentDTO.getFloor());
+        if (result == AdjustmentResult.NOT_FOUND) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        if (result == AdjustmentResult.OVERDRAFT) {
+            return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .headers(HeaderUtil.createFailureAlert(ENTITY_NAME, "overdraft", "Balance " + id + " would go below the floor"))
+                .build();
+        }
+        return ResponseEntity
+            .noContent()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, ENTITY_NAME + id.toString()))
+            .build();
+    }
+
     /**
      * {@code GET  /balances} : get all the balances.
      *
      * @param pageable the pagination information.
      * @param filter the filter of the request.
+     * @param count how to compute {@code X-Total-Count}: {@code exact}, {@code cached} or {@code estimated}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of balances in body.
      */
     @GetMapping("/balances")
     public ResponseEntity<List<BalanceDTO>> getAllBalances(
         @org.springdoc.api.annotations.ParameterObject Pageable pageable,
-        @RequestParam(required = false) String filter
+        @RequestParam(required = false) String filter,
+        @RequestParam(required = false) String count
     ) {
         if ("bankaccount-is-null".equals(filter)) {
-            log.debug("REST request to get all Balances where bankAccount is null");
-            return new ResponseEntity<>(balanceService.findAllWhereBankAccountIsNull(), HttpStatus.OK);
+            log.debug("REST request to get a slice of Balances where bankAccount is null");
+            Slice<BalanceDTO> slice = balanceService.findAllWhereBankAccountIsNull(pageable);
+            HttpHeaders headers = PaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
         }
         log.debug("REST request to get a page of Balances");
-        Page<BalanceDTO> page = balanceService.findAll(pageable);
+        Page<BalanceDTO> page = balanceService.findAll(pageable, RequestParameters.parseCountMode(count, ENTITY_NAME));
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -1,11 +1,21 @@
 package com.banking.threeom.web.rest;
 
 import com.banking.threeom.repository.BankAccountRepository;
+import com.banking.threeom.service.BalanceStripeService;
 import com.banking.threeom.service.BankAccountService;
+import com.banking.threeom.service.ExportFormat;
+import com.banking.threeom.service.bulk.BankAccountImportService;
 import com.banking.threeom.service.dto.BankAccountDTO;
+import com.banking.threeom.service.dto.BankAccountImportResultDTO;
+import com.banking.threeom.service.events.AccountEvent;
+import com.banking.threeom.service.events.AccountEventHub;
+import com.banking.threeom.service.events.AccountEventSink;
+import com.banking.threeom.service.idempotency.IdempotencyService;
 import com.banking.threeom.utils.HeaderUtil;
 import com.banking.threeom.utils.PaginationUtil;
 import com.banking.threeom.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -20,9 +30,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
@@ -36,6 +48,8 @@ public class BankAccountResource {
 
     private static final String ENTITY_NAME = "bankAccount";
 
+    private static final String IMPORT_CSV_CONTENT_TYPE = "text/csv";
+
     @Value("${spring.application.name}")
     private String applicationName;
 
@@ -43,31 +57,98 @@ public class BankAccountResource {
 
     private final BankAccountRepository bankAccountRepository;
 
-    public BankAccountResource(BankAccountService bankAccountService, BankAccountRepository bankAccountRepository) {
+    private final IdempotencyService idempotencyService;
+
+    private final BankAccountImportService bankAccountImportService;
+
+    private final AccountEventHub accountEventHub;
+
+    private final long eventsTimeoutMillis;
+
+    private final BalanceStripeService balanceStripeService;
+
+    private final int defaultStripes;
+
+    public BankAccountResource(
+        BankAccountService bankAccountService,
+        BankAccountRepository bankAccountRepository,
+        IdempotencyService idempotencyService,
+        BankAccountImportService bankAccountImportService,
+        AccountEventHub accountEventHub,
+        @Value("${application.account-events.timeout-ms:1800000}") long eventsTimeoutMillis,
+        BalanceStripeService balanceStripeService,
+        @Value("${application.hot-accounts.stripes:8}") int defaultStripes
+    ) {
         this.bankAccountService = bankAccountService;
         this.bankAccountRepository = bankAccountRepository;
+        this.idempotencyService = idempotencyService;
+        this.bankAccountImportService = bankAccountImportService;
+        this.accountEventHub = accountEventHub;
+        this.eventsTimeoutMillis = eventsTimeoutMillis;
+        this.balanceStripeService = balanceStripeService;
+        this.defaultStripes = defaultStripes;
     }
 
     /**
      * {@code POST  /bank-accounts} : Create a new bankAccount.
      *
      * @param bankAccountDTO the bankAccountDTO to create.
+     * @param idempotencyKey the optional {@code Idempotency-Key} header: a request repeated with the same key returns the response of the first one without creating another bankAccount.
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new bankAccountDTO, or with status {@code 400 (Bad Request)} if the bankAccount has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/bank-accounts")
-    public ResponseEntity<BankAccountDTO> createBankAccount(@Valid @RequestBody BankAccountDTO bankAccountDTO) throws URISyntaxException {
+    public ResponseEntity<BankAccountDTO> createBankAccount(
+        @Valid @RequestBody BankAccountDTO bankAccountDTO,
+        @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) throws URISyntaxException {
         log.debug("REST request to save BankAccount : {}", bankAccountDTO);
         if (bankAccountDTO.getId() != null) {
             throw new BadRequestAlertException("A new bankAccount cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        BankAccountDTO result = bankAccountService.save(bankAccountDTO);
+        BankAccountDTO result = idempotencyKey == null
+            ? bankAccountService.save(bankAccountDTO)
+            : idempotencyService.execute(
+                ENTITY_NAME,
+                idempotencyKey,
+                bankAccountDTO,
+                BankAccountDTO.class,
+                () -> bankAccountService.save(bankAccountDTO)
+            );
         return ResponseEntity
             .created(new URI("/api/bank-accounts/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, ENTITY_NAME + result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code POST  /bank-accounts/import} : Create new bankAccounts, each with its balance, in bulk.
+     * <p>
+     * The body is either CSV ({@code text/csv}) with a header line or newline-delimited JSON
+     * ({@code application/x-ndjson}). It is streamed into the database in chunks, see {@link BankAccountImportService}.
+     *
+     * @param contentType the format of the body.
+     * @param body the bankAccounts to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of imported and rejected
+     * bankAccounts and the first errors, or with status {@code 400 (Bad Request)} if the CSV header is invalid.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/bank-accounts/import", consumes = { IMPORT_CSV_CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<BankAccountImportResultDTO> importBankAccounts(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body
+    ) throws IOException {
+        log.debug("REST request to import BankAccounts as {}", contentType);
+        ExportFormat format = contentType.isCompatibleWith(MediaType.valueOf(IMPORT_CSV_CONTENT_TYPE))
+            ? ExportFormat.CSV
+            : ExportFormat.NDJSON;
+        try {
+            return ResponseEntity.ok().body(bankAccountImportService.importBankAccounts(body, format));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "importinvalid");
+        }
+    }
+
     /**
      * {@code PUT  /bank-accounts/:id} : Updates an existing bankAccount.
      *
@@ -140,12 +221,16 @@ public class BankAccountResource {
      * {@code GET  /bank-accounts} : get all the bankAccounts.
      *
      * @param pageable the pagination information.
+     * @param count how to compute {@code X-Total-Count}: {@code exact}, {@code cached} or {@code estimated}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of bankAccounts in body.
      */
     @GetMapping("/bank-accounts")
-    public ResponseEntity<List<BankAccountDTO>> getAllBankAccounts(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<BankAccountDTO>> getAllBankAccounts(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String count
+    ) {
         log.debug("REST request to get a page of BankAccounts");
-        Page<BankAccountDTO> page = bankAccountService.findAll(pageable);
+        Page<BankAccountDTO> page = bankAccountService.findAll(pageable, RequestParameters.parseCountMode(count, ENTITY_NAME));
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -164,6 +249,75 @@ public class BankAccountResource {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * {@code GET  /bank-accounts/:id/events} : stream the changes of the "id" bankAccount as server-sent events.
+     * <p>
+     * The stream starts with a {@code balance} event holding the current balance, followed by a {@code balance} event
+     * with the new balance after every change and a {@code transaction} event for every transaction created or updated
+     * from or to the bankAccount. An {@code overflow} event tells how many transaction events were dropped because the
+     * client did not keep up, see {@link AccountEventHub}.
+     *
+     * @param id the id of the bankAccount.
+     * @return the event stream, or status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/bank-accounts/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBankAccountEvents(@PathVariable Long id) {
+        log.debug("REST request to stream the events of BankAccount : {}", id);
+        if (!bankAccountRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        SseEmitter emitter = new SseEmitter(eventsTimeoutMillis);
+        AccountEventHub.Subscription subscription = accountEventHub.subscribe(id, new SseEmitterSink(emitter));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        // Read after subscribing, so that no change falls in between
+        bankAccountService.findCurrentBalance(id).ifPresent(subscription::offerInitialBalance);
+        return emitter;
+    }
+
+    /**
+     * {@code POST  /bank-accounts/:id/hot} : mark the "id" bankAccount as hot, e.g. a bank-owned account that is the
+     * counterparty of most transactions: its balance is striped so that concurrent credits and debits do not all queue
+     * on one row, see {@link BalanceStripeService}. Marking a hot bankAccount again changes its number of stripes.
+     *
+     * @param id the id of the bankAccount.
+     * @param stripes the number of stripes, {@code application.hot-accounts.stripes} by default.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}, or with status {@code 400 (Bad Request)}
+     * if the number of stripes is out of bounds, or with status {@code 404 (Not Found)}.
+     */
+    @PostMapping("/bank-accounts/{id}/hot")
+    public ResponseEntity<Void> markBankAccountHot(@PathVariable Long id, @RequestParam(required = false) Integer stripes) {
+        log.debug("REST request to mark BankAccount : {} as hot with {} stripes", id, stripes);
+        int count = stripes != null ? stripes : defaultStripes;
+        if (count < BalanceStripeService.MIN_STRIPES || count > BalanceStripeService.MAX_STRIPES) {
+            throw new BadRequestAlertException(
+                "The stripes must be between " + BalanceStripeService.MIN_STRIPES + " and " + BalanceStripeService.MAX_STRIPES,
+                ENTITY_NAME,
+                "stripesinvalid"
+            );
+        }
+        if (!balanceStripeService.stripe(id, count)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.noContent().headers(HeaderUtil.createEntityUpdateAlert(applicationName, ENTITY_NAME + id)).build();
+    }
+
+    /**
+     * {@code DELETE  /bank-accounts/:id/hot} : fold the stripes of the "id" bankAccount back into its balance.
+     *
+     * @param id the id of the bankAccount.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}, or with status {@code 404 (Not Found)}.
+     */
+    @DeleteMapping("/bank-accounts/{id}/hot")
+    public ResponseEntity<Void> unmarkBankAccountHot(@PathVariable Long id) {
+        log.debug("REST request to unmark BankAccount : {} as hot", id);
+        if (!balanceStripeService.unstripe(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.noContent().headers(HeaderUtil.createEntityUpdateAlert(applicationName, ENTITY_NAME + id)).build();
+    }
+
     /**
      * {@code DELETE  /bank-accounts/:id} : delete the "id" bankAccount.
      *
@@ -179,4 +333,31 @@ public class BankAccountResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, ENTITY_NAME + id.toString()))
             .build();
     }
+
+    /**
+     * Writes the events of a subscription to its {@link SseEmitter}.
+     */
+    private static final class SseEmitterSink implements AccountEventSink {
+
+        private final SseEmitter emitter;
+
+        private SseEmitterSink(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(AccountEvent event) throws IOException {
+            emitter.send(SseEmitter.event().id(String.valueOf(event.getId())).name(event.getName()).data(event.getData(), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void complete() {
+            emitter.complete();
+        }
+    }
 }
@@ -0,0 +1,29 @@
+package com.banking.threeom.web.rest;
+
+import com.banking.threeom.service.CountMode;
+import com.banking.threeom.web.rest.errors.BadRequestAlertException;
+
+/**
+ * Parsing of the request parameters shared by the REST controllers.
+ */
+final class RequestParameters {
+
+    private RequestParameters() {}
+
+    /**
+     * @param count the {@code count} parameter of a listing, if any.
+     * @param entityName the entity listed, for the error.
+     * @return the count mode, {@code null} for the default one.
+     * @throws BadRequestAlertException if the parameter is not a count mode.
+     */
+    static CountMode parseCountMode(String count, String entityName) {
+        if (count == null) {
+            return null;
+        }
+        try {
+            return CountMode.fromParameter(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid count mode", entityName, "countinvalid");
+        }
+    }
+}
@@ -1,25 +1,50 @@
 package com.banking.threeom.web.rest;
 
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.repository.BankAccountRepository;
 import com.banking.threeom.repository.TransactionRepository;
+import com.banking.threeom.service.ExportFormat;
+import com.banking.threeom.service.TransactionCursor;
+import com.banking.threeom.service.TransactionExportService;
 import com.banking.threeom.service.TransactionService;
+import com.banking.threeom.service.dto.CursorPageDTO;
+import com.banking.threeom.service.dto.TransactionBatchResultDTO;
 import com.banking.threeom.service.dto.TransactionDTO;
+import com.banking.threeom.service.idempotency.IdempotencyService;
 import com.banking.threeom.utils.HeaderUtil;
 import com.banking.threeom.utils.PaginationUtil;
 import com.banking.threeom.web.rest.errors.BadRequestAlertException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -36,38 +61,162 @@ public class TransactionResource {
 
     private static final String ENTITY_NAME = "transaction";
 
+    private static final String NOT_WAITING = "A new transaction must be WAITING";
+
     @Value("${spring.application.name}")
     private String applicationName;
 
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}")
+    private int batchSize;
+
     private final TransactionService transactionService;
 
+    private final TransactionExportService transactionExportService;
+
     private final TransactionRepository transactionRepository;
 
-    public TransactionResource(TransactionService transactionService, TransactionRepository transactionRepository) {
+    private final BankAccountRepository bankAccountRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final IdempotencyService idempotencyService;
+
+    public TransactionResource(
+        TransactionService transactionService,
+        TransactionExportService transactionExportService,
+        TransactionRepository transactionRepository,
+        BankAccountRepository bankAccountRepository,
+        ObjectMapper objectMapper,
+        Validator validator,
+        IdempotencyService idempotencyService
+    ) {
         this.transactionService = transactionService;
+        this.transactionExportService = transactionExportService;
         this.transactionRepository = transactionRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
      * {@code POST  /transactions} : Create a new transaction.
      *
      * @param transactionDTO the transactionDTO to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new transactionDTO, or with status {@code 400 (Bad Request)} if the transaction has already an ID.
+     * @param idempotencyKey the optional {@code Idempotency-Key} header: a request repeated with the same key returns the response of the first one without creating another transaction.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new transactionDTO, or with status {@code 400 (Bad Request)} if the transaction has already an ID or is not {@code WAITING}.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/transactions")
-    public ResponseEntity<TransactionDTO> createTransaction(@Valid @RequestBody TransactionDTO transactionDTO) throws URISyntaxException {
+    public ResponseEntity<TransactionDTO> createTransaction(
+        @Valid @RequestBody TransactionDTO transactionDTO,
+        @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) throws URISyntaxException {
         log.debug("REST request to save Transaction : {}", transactionDTO);
         if (transactionDTO.getId() != null) {
             throw new BadRequestAlertException("A new transaction cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        TransactionDTO result = transactionService.save(transactionDTO);
+        if (transactionDTO.getStatus() != TransactionStatus.WAITING) {
+            // Only a waiting transaction is executed, any other would be saved without moving money
+            throw new BadRequestAlertException(NOT_WAITING, ENTITY_NAME, "statusinvalid");
+        }
+        TransactionDTO result = idempotencyKey == null
+            ? transactionService.save(transactionDTO)
+            : idempotencyService.execute(
+                ENTITY_NAME,
+                idempotencyKey,
+                transactionDTO,
+                TransactionDTO.class,
+                () -> transactionService.save(transactionDTO)
+            );
         return ResponseEntity
             .created(new URI("/api/transactions/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, ENTITY_NAME + result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code POST  /transactions/batch} : Create new transactions in bulk.
+     * <p>
+     * The body is either a JSON array or newline-delimited JSON ({@code application/x-ndjson}). It is read incrementally
+     * and the valid transactions are saved in chunks of {@code hibernate.jdbc.batch_size}, see
+     * {@link TransactionService#saveAll(List)}.
+     *
+     * @param body the transactionDTOs to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of every item, by index.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/transactions/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<List<TransactionBatchResultDTO>> createTransactions(InputStream body) throws IOException {
+        log.debug("REST request to save a batch of Transactions");
+        List<TransactionBatchResultDTO> results = new ArrayList<>();
+        List<TransactionDTO> chunk = new ArrayList<>(batchSize);
+        List<Integer> chunkIndexes = new ArrayList<>(batchSize);
+        try (MappingIterator<TransactionDTO> items = objectMapper.readerFor(TransactionDTO.class).readValues(body)) {
+            for (int index = 0;; index++) {
+                TransactionDTO transactionDTO;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    transactionDTO = items.nextValue();
+                } catch (JsonMappingException e) {
+                    results.add(TransactionBatchResultDTO.rejected(index, e.getOriginalMessage()));
+                    continue;
+                } catch (JsonProcessingException e) {
+                    // Malformed JSON, the rest of the body cannot be read
+                    results.add(TransactionBatchResultDTO.rejected(index, e.getOriginalMessage()));
+                    break;
+                }
+                String error = validate(transactionDTO);
+                if (error != null) {
+                    results.add(TransactionBatchResultDTO.rejected(index, error));
+                    continue;
+                }
+                chunk.add(transactionDTO);
+                chunkIndexes.add(index);
+                if (chunk.size() >= batchSize) {
+                    saveChunk(chunk, chunkIndexes, results);
+                }
+            }
+        }
+        saveChunk(chunk, chunkIndexes, results);
+        results.sort(Comparator.comparingInt(TransactionBatchResultDTO::getIndex));
+        return ResponseEntity.ok().body(results);
+    }
+
+    private String validate(TransactionDTO transactionDTO) {
+        if (transactionDTO == null) {
+            return "A transaction is required";
+        }
+        if (transactionDTO.getId() != null) {
+            return "A new transaction cannot already have an ID";
+        }
+        Set<ConstraintViolation<TransactionDTO>> violations = validator.validate(transactionDTO);
+        if (violations.isEmpty()) {
+            return transactionDTO.getStatus() != TransactionStatus.WAITING ? NOT_WAITING : null;
+        }
+        return violations
+            .stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+    }
+
+    private void saveChunk(List<TransactionDTO> chunk, List<Integer> chunkIndexes, List<TransactionBatchResultDTO> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        for (TransactionBatchResultDTO result : transactionService.saveAll(chunk)) {
+            result.setIndex(chunkIndexes.get(result.getIndex()));
+            results.add(result);
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
     /**
      * {@code PUT  /transactions/:id} : Updates an existing transaction.
      *
@@ -138,18 +287,117 @@ public class TransactionResource {
 
     /**
      * {@code GET  /transactions} : get all the transactions.
+     * <p>
+     * With a {@code cursor} parameter the transactions are listed newest first by keyset pagination: pass an empty
+     * cursor for the first page, then follow the {@code next} link. No total count is computed in that mode.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the page, for keyset pagination.
+     * @param count how to compute {@code X-Total-Count}: {@code exact}, {@code cached} or {@code estimated}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of transactions in body.
      */
     @GetMapping("/transactions")
-    public ResponseEntity<List<TransactionDTO>> getAllTransactions(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<TransactionDTO>> getAllTransactions(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String count
+    ) {
+        if (cursor != null) {
+            log.debug("REST request to get a slice of Transactions after : {}", cursor);
+            CursorPageDTO<TransactionDTO> page = transactionService.findAll(decodeCursor(cursor), pageable.getPageSize());
+            HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                page.getNextCursor(),
+                pageable.getPageSize()
+            );
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
         log.debug("REST request to get a page of Transactions");
-        Page<TransactionDTO> page = transactionService.findAll(pageable);
+        Page<TransactionDTO> page = transactionService.findAll(pageable, RequestParameters.parseCountMode(count, ENTITY_NAME));
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /bank-accounts/:id/transactions} : get the transactions debited from or credited to the "id"
+     * bankAccount, newest first, by keyset pagination: omit the cursor for the first page, then follow the
+     * {@code next} link.
+     *
+     * @param id the id of the bankAccount.
+     * @param from the earliest transaction date, inclusive.
+     * @param to the latest transaction date, inclusive.
+     * @param status the statuses of the transactions, all of them if omitted.
+     * @param cursor the cursor of the page.
+     * @param pageable the pagination information, of which only the size is used.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of transactions in body,
+     * or with status {@code 400 (Bad Request)} if the date range or the cursor is invalid,
+     * or with status {@code 404 (Not Found)} if the bankAccount is not found.
+     */
+    @GetMapping("/bank-accounts/{id}/transactions")
+    public ResponseEntity<List<TransactionDTO>> getBankAccountTransactions(
+        @PathVariable Long id,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+        @RequestParam(required = false) Set<TransactionStatus> status,
+        @RequestParam(required = false) String cursor,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a slice of Transactions of BankAccount {} after : {}", id, cursor);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestAlertException("Invalid date range", ENTITY_NAME, "daterangeinvalid");
+        }
+        if (!bankAccountRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        CursorPageDTO<TransactionDTO> page = transactionService.findAllByBankAccount(
+            id,
+            from,
+            to,
+            status,
+            cursor == null ? null : decodeCursor(cursor),
+            pageable.getPageSize()
+        );
+        HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            page.getNextCursor(),
+            pageable.getPageSize()
+        );
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /transactions/export} : stream the transactions of a date range, oldest first, without paging.
+     *
+     * @param from the earliest transaction date, inclusive.
+     * @param to the latest transaction date, inclusive.
+     * @param format the output format: {@code ndjson} or {@code csv}.
+     * @param response the response the transactions are written to, with status {@code 200 (OK)},
+     * or with status {@code 400 (Bad Request)} if the date range or the format is invalid.
+     * @throws IOException if writing the response fails.
+     */
+    @GetMapping("/transactions/export")
+    public void exportTransactions(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+        @RequestParam(defaultValue = "ndjson") String format,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to export Transactions from {} to {} as {}", from, to, format);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestAlertException("Invalid date range", ENTITY_NAME, "daterangeinvalid");
+        }
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid export format", ENTITY_NAME, "formatinvalid");
+        }
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"");
+        transactionExportService.export(from, to, exportFormat, response.getOutputStream());
+    }
+
     /**
      * {@code GET  /transactions/:id} : get the "id" transaction.
      *
@@ -179,4 +427,15 @@ public class TransactionResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, ENTITY_NAME + id.toString()))
             .build();
     }
+
+    private TransactionCursor decodeCursor(String cursor) {
+        if (cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return TransactionCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
 }
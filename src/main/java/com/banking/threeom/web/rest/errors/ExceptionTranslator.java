@@ -0,0 +1,45 @@
+package com.banking.threeom.web.rest.errors;
+
+import com.banking.threeom.utils.HeaderUtil;
+import java.beans.Introspector;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.HandlerMethod;
+
+/**
+ * Controller advice translating the exceptions thrown by the REST resources into HTTP responses.
+ */
+@ControllerAdvice
+public class ExceptionTranslator {
+
+    private static final String RESOURCE_SUFFIX = "Resource";
+
+    /**
+     * Reports a concurrent modification of an entity, or an update based on a stale version, as {@code 409 (Conflict)}.
+     *
+     * @param e the conflict.
+     * @param handlerMethod the resource method that failed, whose resource names the entity.
+     * @return the {@link ResponseEntity} with status {@code 409 (Conflict)}.
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<Void> handleConcurrencyFailure(ConcurrencyFailureException e, HandlerMethod handlerMethod) {
+        return ResponseEntity
+            .status(HttpStatus.CONFLICT)
+            .headers(HeaderUtil.createFailureAlert(entityName(handlerMethod), ErrorConstants.ERR_CONCURRENCY_FAILURE, e.getMessage()))
+            .build();
+    }
+
+    /**
+     * @return the entity of a resource, e.g. {@code bankAccount} for the {@code BankAccountResource}.
+     */
+    private static String entityName(HandlerMethod handlerMethod) {
+        String resource = handlerMethod.getBeanType().getSimpleName();
+        if (resource.endsWith(RESOURCE_SUFFIX)) {
+            resource = resource.substring(0, resource.length() - RESOURCE_SUFFIX.length());
+        }
+        return Introspector.decapitalize(resource);
+    }
+}
@@ -0,0 +1,80 @@
+package com.banking.threeom.aop.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.banking.threeom.domain.Balance;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+class ConflictRetryAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ConflictingService target;
+
+    private ConflictingService service;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = new ConflictingService();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new ConflictRetryAspect(meterRegistry, 3, 1, 2, 1));
+        service = factory.getProxy();
+    }
+
+    @Test
+    void retriesUntilNoConflict() {
+        assertThat(service.update(1L, 2)).isEqualTo(3);
+        assertThat(meterRegistry.get(ConflictRetryAspect.CONFLICTS_METER).tag("entity", "Balance").tag("id", "1").counter().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        assertThatThrownBy(() -> service.update(1L, 5)).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(target.attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    void doesNotRetryOtherFailures() {
+        assertThatThrownBy(() -> service.stale()).isInstanceOf(ConcurrencyFailureException.class);
+        assertThat(target.attempts.get()).isEqualTo(1);
+    }
+
+    @Test
+    void boundsTrackedIds() {
+        service.update(1L, 1);
+        service.update(2L, 1);
+        assertThat(meterRegistry.get(ConflictRetryAspect.CONFLICTS_METER).tag("id", "1").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(ConflictRetryAspect.CONFLICTS_METER).tag("id", ConflictRetryAspect.OTHER_ID).counter().count())
+            .isEqualTo(1);
+    }
+
+    static class ConflictingService {
+
+        final AtomicInteger attempts = new AtomicInteger();
+
+        @RetryOnConflict
+        public int update(Long id, int conflicts) {
+            int attempt = attempts.incrementAndGet();
+            if (attempt <= conflicts) {
+                throw new ObjectOptimisticLockingFailureException(Balance.class, id);
+            }
+            attempts.set(0);
+            return attempt;
+        }
+
+        @RetryOnConflict
+        public void stale() {
+            attempts.incrementAndGet();
+            throw new ConcurrencyFailureException("stale");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.banking.threeom.aop.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsAreContiguousAndBoundTheRelativeError() {
+        assertThat(LatencyHistogram.bucket(0)).isZero();
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS - 1; bucket++) {
+            long upperBound = LatencyHistogram.upperBound(bucket);
+            assertThat(LatencyHistogram.bucket(upperBound)).isEqualTo(bucket);
+            assertThat(LatencyHistogram.bucket(upperBound + 1)).isEqualTo(bucket + 1);
+            long lowerBound = bucket == 0 ? 0 : LatencyHistogram.upperBound(bucket - 1) + 1;
+            assertThat(upperBound - lowerBound).isLessThanOrEqualTo(lowerBound / 4);
+        }
+        assertThat(LatencyHistogram.bucket(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+        assertThat(LatencyHistogram.upperBound(LatencyHistogram.BUCKETS - 1)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void reportsPercentilesWithinTheBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1_000_000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(1000);
+        assertThat(snapshot.getMax()).isEqualTo(1_000_000_000L);
+        assertThat(snapshot.getMean()).isEqualTo(500_500_000.0);
+        assertThat(snapshot.getValueAtPercentile(0.5)).isCloseTo(500_000_000L, within(125_000_000L));
+        assertThat(snapshot.getValueAtPercentile(0.99)).isBetween(990_000_000L, 1_000_000_000L);
+        assertThat(snapshot.getValueAtPercentile(1)).isEqualTo(1_000_000_000L);
+    }
+
+    @Test
+    void resetForgetsTheValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.record(-1);
+
+        assertThat(histogram.snapshot().getCount()).isEqualTo(2);
+        histogram.reset();
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isZero();
+        assertThat(snapshot.getMax()).isZero();
+        assertThat(snapshot.getValueAtPercentile(0.5)).isZero();
+    }
+}
@@ -0,0 +1,31 @@
+package com.banking.threeom.aop.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.banking.threeom.service.dto.BankAccountDTO;
+import org.junit.jupiter.api.Test;
+
+class TracingAspectTest {
+
+    @Test
+    void rendersOnlyTheTypesOfTheArgumentsByDefault() {
+        TracingAspect tracingAspect = new TracingAspect(true, 1.0, 500, 10, 1000, false);
+
+        assertThat(tracingAspect.render(new Object[] { bankAccount(), 42L, null })).isEqualTo("[BankAccountDTO, Long, null]");
+    }
+
+    @Test
+    void rendersAndTruncatesTheArgumentsWhenAsked() {
+        TracingAspect tracingAspect = new TracingAspect(true, 1.0, 500, 10, 40, true);
+
+        assertThat(tracingAspect.render(new Object[] { 42L })).isEqualTo("[42]");
+        assertThat(tracingAspect.render(new Object[] { bankAccount() })).startsWith("[BankAccountDTO{").hasSize(43).endsWith("...");
+    }
+
+    private static BankAccountDTO bankAccount() {
+        BankAccountDTO bankAccount = new BankAccountDTO();
+        bankAccount.setEmail("anna.nowak@example.com");
+        bankAccount.setPhoneNumber("+48100000001");
+        return bankAccount;
+    }
+}
@@ -0,0 +1,110 @@
+package com.banking.threeom.aop.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.banking.threeom.IntegrationTest;
+import com.banking.threeom.service.BankAccountService;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+/**
+ * Integration tests for the {@link TracingAspect} and its {@link TracingEndpoint}.
+ */
+@IntegrationTest
+class TracingEndpointIT {
+
+    private static final String FIND_ONE = "BankAccountService.findOne(Long)";
+
+    @Autowired
+    private TracingAspect tracingAspect;
+
+    @Autowired
+    private TracingEndpoint tracingEndpoint;
+
+    @Autowired
+    private BankAccountService bankAccountService;
+
+    private boolean enabled;
+
+    private double sampleRate;
+
+    private long slowThresholdMillis;
+
+    @BeforeEach
+    public void saveSettings() {
+        enabled = tracingAspect.isEnabled();
+        sampleRate = tracingAspect.getSampleRate();
+        slowThresholdMillis = tracingAspect.getSlowThresholdMillis();
+        tracingEndpoint.reset();
+    }
+
+    @AfterEach
+    public void restoreSettings() {
+        tracingEndpoint.configure(enabled, sampleRate, slowThresholdMillis);
+        tracingEndpoint.reset();
+    }
+
+    @Test
+    void timesCallsAndSamplesTheirArguments() {
+        tracingEndpoint.configure(true, 1.0, 60_000L);
+
+        bankAccountService.findOne(-1L);
+        bankAccountService.findOne(-2L);
+
+        Map<String, Object> method = method(FIND_ONE);
+        assertThat(method.get("count")).isEqualTo(2L);
+        assertThat(method.get("errors")).isEqualTo(0L);
+        assertThat((double) method.get("p99")).isPositive();
+        List<TracingAspect.TraceSample> samples = samples();
+        assertThat(samples).extracting(TracingAspect.TraceSample::getMethod).containsOnly(FIND_ONE);
+        assertThat(samples).extracting(TracingAspect.TraceSample::getArguments).containsExactly("[Long]", "[Long]");
+        assertThat(samples).noneMatch(TracingAspect.TraceSample::isSlow);
+    }
+
+    @Test
+    void samplesSlowCallsOnly() {
+        tracingEndpoint.configure(true, 0.0, 0L);
+
+        bankAccountService.findOne(-1L);
+
+        assertThat(samples()).singleElement().satisfies(sample -> {
+            assertThat(sample.getMethod()).isEqualTo(FIND_ONE);
+            assertThat(sample.getArguments()).isEqualTo("[Long]");
+            assertThat(sample.isSlow()).isTrue();
+        });
+    }
+
+    @Test
+    void doesNotTraceOnceDisabled() {
+        Map<String, Object> settings = tracingEndpoint.configure(false, null, null);
+        assertThat(settings).containsEntry("enabled", false);
+
+        bankAccountService.findOne(-1L);
+
+        assertThat(tracingEndpoint.tracing().get("methods")).asList().isEmpty();
+        assertThat(samples()).isEmpty();
+    }
+
+    @Test
+    void rejectsAnInvalidSampleRate() {
+        assertThatThrownBy(() -> tracingEndpoint.configure(null, 1.5, null)).isInstanceOf(InvalidEndpointRequestException.class);
+        assertThat(tracingAspect.getSampleRate()).isEqualTo(sampleRate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> method(String name) {
+        List<Map<String, Object>> methods = (List<Map<String, Object>>) tracingEndpoint.tracing().get("methods");
+        return methods.stream().filter(method -> name.equals(method.get("name"))).findFirst().orElseThrow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TracingAspect.TraceSample> samples() {
+        return (List<TracingAspect.TraceSample>) tracingEndpoint.tracing().get("samples");
+    }
+}
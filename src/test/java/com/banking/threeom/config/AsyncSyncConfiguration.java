@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 public class AsyncSyncConfiguration {
@@ -13,4 +14,20 @@ public class AsyncSyncConfiguration {
     public Executor taskExecutor() {
         return new SyncTaskExecutor();
     }
+
+    @Bean(name = "transactionProcessingExecutor")
+    public Executor transactionProcessingExecutor() {
+        return new SyncTaskExecutor();
+    }
+
+    @Bean(name = "accountEventExecutor")
+    public ThreadPoolTaskExecutor accountEventExecutor() {
+        // The pool the AccountEventHub resizes, running its tasks in the calling thread
+        return new ThreadPoolTaskExecutor() {
+            @Override
+            public void execute(Runnable task) {
+                task.run();
+            }
+        };
+    }
 }
@@ -0,0 +1,51 @@
+package com.banking.threeom.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.banking.threeom.IntegrationTest;
+import com.banking.threeom.config.metrics.TimedDataSource;
+import com.banking.threeom.repository.BankAccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for the database metrics of {@link DatabaseMetricsConfiguration}.
+ */
+@IntegrationTest
+class DatabaseMetricsIT {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Test
+    void timesStatementsAndRepositoryMethodsAndBindsPoolMetrics() {
+        assertThat(dataSource).isInstanceOf(TimedDataSource.class);
+
+        bankAccountRepository.count();
+
+        Timer statements = meterRegistry
+            .find(TimedDataSource.STATEMENTS_METER)
+            .tags("operation", "select", "table", "bank_account")
+            .timer();
+        assertThat(statements).isNotNull();
+        assertThat(statements.count()).isPositive();
+        Timer invocations = meterRegistry
+            .find("spring.data.repository.invocations")
+            .tags("repository", "BankAccountRepository", "method", "count")
+            .timer();
+        assertThat(invocations).isNotNull();
+        assertThat(invocations.count()).isPositive();
+        assertThat(meterRegistry.find("hikaricp.connections.active").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").timer()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.timeout").counter()).isNotNull();
+    }
+}
@@ -0,0 +1,43 @@
+package com.banking.threeom.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+
+class ExceptionHandlingAsyncTaskExecutorTest {
+
+    private final ExceptionHandlingAsyncTaskExecutor executor = new ExceptionHandlingAsyncTaskExecutor(
+        new ConcurrentTaskExecutor(Runnable::run)
+    );
+
+    @Test
+    void runsTheTasks() throws Exception {
+        AtomicBoolean ran = new AtomicBoolean();
+
+        executor.execute(() -> ran.set(true));
+
+        assertThat(ran).isTrue();
+        assertThat(executor.submit(() -> 42).get()).isEqualTo(42);
+    }
+
+    @Test
+    void keepsAFailingRunnableFromReachingTheWorker() {
+        executor.execute(() -> {
+            throw new IllegalStateException("boom");
+        });
+    }
+
+    @Test
+    void stillFailsTheFutureOfAFailingCallable() {
+        Future<Object> future = executor.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThatThrownBy(future::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IllegalStateException.class);
+    }
+}
@@ -7,9 +7,6 @@ import org.springframework.beans.factory.InitializingBean;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.output.Slf4jLogConsumer;
 
-/**
- * ToDo: integrate Redis
- */
 public class RedisTestContainer implements InitializingBean, DisposableBean {
 
     private GenericContainer redisContainer;
@@ -0,0 +1,103 @@
+package com.banking.threeom.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.banking.threeom.IntegrationTest;
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.Transaction;
+import com.banking.threeom.domain.enumeration.TransactionOperationType;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BalanceRepository;
+import com.banking.threeom.repository.BankAccountRepository;
+import com.banking.threeom.service.TransferService;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Integration tests of the Redis second-level cache, run when Docker is available.
+ */
+@IntegrationTest
+@EmbeddedRedis
+@Testcontainers(disabledWithoutDocker = true)
+class SecondLevelCacheIT {
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Balance balance;
+
+    @BeforeEach
+    public void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        balance = balanceRepository.save(new Balance().initialBalance(Money.parse("10.00")).currentBalance(Money.parse("10.00")));
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        balanceRepository.deleteById(balance.getId());
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void readsBalanceFromCache() {
+        balanceRepository.findById(balance.getId());
+        balanceRepository.findById(balance.getId());
+
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void readsUpdatedBalance() {
+        balanceRepository.save(balanceRepository.findById(balance.getId()).get().currentBalance(Money.parse("1.00")));
+
+        assertThat(balanceRepository.findById(balance.getId()).get().getCurrentBalance()).isEqualByComparingTo(Money.parse("1.00"));
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void keepsOtherBalancesCachedAfterTransfer() {
+        Balance other = balanceRepository.save(new Balance().initialBalance(Money.parse("20.00")).currentBalance(Money.parse("20.00")));
+        BankAccount bankAccount = bankAccountRepository.save(
+            new BankAccount().firstName("Anna").lastName("Nowak").phoneNumber("+48100000097").balance(balance)
+        );
+        try {
+            balanceRepository.findById(other.getId());
+            statistics.clear();
+
+            Transaction deposit = new Transaction()
+                .transactionType(TransactionOperationType.DEPOSIT)
+                .amount(Money.parse("5.00"))
+                .destinationBankAccount(bankAccount);
+            assertThat(transferService.execute(deposit)).isEqualTo(TransactionStatus.SUCCESS);
+
+            assertThat(balanceRepository.findById(other.getId()).get().getCurrentBalance()).isEqualByComparingTo(Money.parse("20.00"));
+            assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+            assertThat(balanceRepository.findById(balance.getId()).get().getCurrentBalance()).isEqualByComparingTo(Money.parse("15.00"));
+        } finally {
+            bankAccountRepository.deleteById(bankAccount.getId());
+            balanceRepository.deleteById(other.getId());
+        }
+    }
+}
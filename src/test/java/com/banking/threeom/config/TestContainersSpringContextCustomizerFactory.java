@@ -17,8 +17,7 @@ public class TestContainersSpringContextCustomizerFactory implements ContextCust
 
     private Logger log = LoggerFactory.getLogger(TestContainersSpringContextCustomizerFactory.class);
 
-    // ToDo: integrate Redis
-    //private static RedisTestContainer redisBean;
+    private static RedisTestContainer redisBean;
     private static SqlTestContainer prodTestContainer;
 
     @Override
@@ -26,9 +25,8 @@ public class TestContainersSpringContextCustomizerFactory implements ContextCust
         return (context, mergedConfig) -> {
             ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
             TestPropertyValues testValues = TestPropertyValues.empty();
-            // ToDo: integrate Redis
-            //EmbeddedRedis redisAnnotation = AnnotatedElementUtils.findMergedAnnotation(testClass, EmbeddedRedis.class);
-           /* if (null != redisAnnotation) {
+            EmbeddedRedis redisAnnotation = AnnotatedElementUtils.findMergedAnnotation(testClass, EmbeddedRedis.class);
+            if (null != redisAnnotation) {
                 log.debug("detected the EmbeddedRedis annotation on class {}", testClass.getName());
                 log.info("Warming up the redis database");
                 if (null == redisBean) {
@@ -38,12 +36,13 @@ public class TestContainersSpringContextCustomizerFactory implements ContextCust
                 }
                 testValues =
                     testValues.and(
-                        "jhipster.cache.redis.server=redis://" +
-                        redisBean.getRedisContainer().getContainerIpAddress() +
+                        "application.cache.redis.server=redis://" +
+                        redisBean.getRedisContainer().getHost() +
                         ":" +
                         redisBean.getRedisContainer().getMappedPort(6379)
                     );
-            }*/
+                testValues = testValues.and("application.cache.redis.enabled=true");
+            }
             EmbeddedSQL sqlAnnotation = AnnotatedElementUtils.findMergedAnnotation(testClass, EmbeddedSQL.class);
             if (null != sqlAnnotation) {
                 log.debug("detected the EmbeddedSQL annotation on class {}", testClass.getName());
@@ -0,0 +1,105 @@
+package com.banking.threeom.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.banking.threeom.utils.ExpiringCache;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NearCacheStorageAccessTest {
+
+    private final MapStorageAccess remote = new MapStorageAccess();
+
+    private NearCacheStorageAccess node1;
+
+    private NearCacheStorageAccess node2;
+
+    @BeforeEach
+    public void init() {
+        // Two nodes sharing the remote cache, each one invalidating the near cache of the other
+        NearCacheStorageAccess[] nodes = new NearCacheStorageAccess[2];
+        nodes[0] = new NearCacheStorageAccess(remote, new ExpiringCache<>(10, 60000), key -> nodes[1].invalidateLocally(key));
+        nodes[1] = new NearCacheStorageAccess(remote, new ExpiringCache<>(10, 60000), key -> nodes[0].invalidateLocally(key));
+        node1 = nodes[0];
+        node2 = nodes[1];
+    }
+
+    @Test
+    void servesReadsFromNearCache() {
+        node1.putFromLoad(1L, "v1", null);
+        assertThat(node2.getFromCache(1L, null)).isEqualTo("v1");
+
+        remote.values.clear();
+        assertThat(node1.getFromCache(1L, null)).isEqualTo("v1");
+        assertThat(node2.getFromCache(1L, null)).isEqualTo("v1");
+        assertThat(remote.reads).isEqualTo(1);
+    }
+
+    @Test
+    void invalidatesOtherNodesOnWrite() {
+        node1.putFromLoad(1L, "v1", null);
+        assertThat(node2.getFromCache(1L, null)).isEqualTo("v1");
+
+        node1.putIntoCache(1L, "v2", null);
+        assertThat(node2.getFromCache(1L, null)).isEqualTo("v2");
+
+        node2.removeFromCache(1L, null);
+        assertThat(node1.getFromCache(1L, null)).isNull();
+    }
+
+    @Test
+    void invalidatesOtherNodesOnClear() {
+        node1.putFromLoad(1L, "v1", null);
+        node2.putFromLoad(2L, "v2", null);
+        assertThat(node2.getFromCache(1L, null)).isEqualTo("v1");
+
+        node1.evictData();
+        assertThat(node2.contains(1L)).isFalse();
+        assertThat(node2.getFromCache(2L, null)).isNull();
+    }
+
+    private static final class MapStorageAccess implements DomainDataStorageAccess {
+
+        private final Map<Object, Object> values = new ConcurrentHashMap<>();
+
+        private int reads;
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            reads++;
+            return values.get(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            values.put(key, value);
+        }
+
+        @Override
+        public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+            values.remove(key);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            values.clear();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            values.remove(key);
+        }
+
+        @Override
+        public void release() {}
+    }
+}
@@ -0,0 +1,33 @@
+package com.banking.threeom.config.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Tags;
+import org.junit.jupiter.api.Test;
+
+class TimedDataSourceTest {
+
+    @Test
+    void tagsStatementsWithOperationAndTable() {
+        assertThat(TimedDataSource.tags("select b1_0.id from bank_account b1_0 left join balance b2_0 on ..."))
+            .isEqualTo(Tags.of("operation", "select", "table", "bank_account"));
+        assertThat(TimedDataSource.tags("insert into transaction (amount, id) values (?, ?)"))
+            .isEqualTo(Tags.of("operation", "insert", "table", "transaction"));
+        assertThat(TimedDataSource.tags("  UPDATE public.\"balance\" set current_balance=? where id=?"))
+            .isEqualTo(Tags.of("operation", "update", "table", "balance"));
+        assertThat(TimedDataSource.tags("delete from idempotent_request where created_date < ?"))
+            .isEqualTo(Tags.of("operation", "delete", "table", "idempotent_request"));
+        assertThat(
+            TimedDataSource.tags(
+                "select balance.current_balance + coalesce((select sum(stripe.amount) from balance_stripe stripe " +
+                "where stripe.balance_id = balance.id), 0) from bank_account bankAccount join balance balance on ..."
+            )
+        )
+            .isEqualTo(Tags.of("operation", "select", "table", "bank_account"));
+        assertThat(TimedDataSource.tags("select count(*) from (select id from transaction where status = ') from x') t"))
+            .isEqualTo(Tags.of("operation", "select", "table", "none"));
+        assertThat(TimedDataSource.tags("select nextval('sequence_generator')")).isEqualTo(Tags.of("operation", "select", "table", "none"));
+        assertThat(TimedDataSource.tags("analyze balance")).isEqualTo(Tags.of("operation", "other", "table", "none"));
+        assertThat(TimedDataSource.tags(null)).isEqualTo(Tags.of("operation", "other", "table", "none"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.banking.threeom.domain.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void parsesAndFormatsPlainDecimals() {
+        assertThat(Money.parse("12.3").getMinorUnits()).isEqualTo(1230);
+        assertThat(Money.parse("-0.05").getMinorUnits()).isEqualTo(-5);
+        assertThat(Money.parse("7").getMinorUnits()).isEqualTo(700);
+        assertThat(Money.parse("1.500").getMinorUnits()).isEqualTo(150);
+        assertThat(Money.ofMinorUnits(1230)).hasToString("12.30");
+        assertThat(Money.ofMinorUnits(-5)).hasToString("-0.05");
+        assertThat(Money.ofMinorUnits(Long.MIN_VALUE)).hasToString("-92233720368547758.08");
+        assertThat(Money.of(new BigDecimal("12.30"))).isEqualTo(Money.parse("12.3"));
+        assertThat(Money.ofMinorUnits(1230).toBigDecimal()).isEqualTo(new BigDecimal("12.30"));
+
+        assertThatThrownBy(() -> Money.parse("1.005")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Money.parse("1e2")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1.005"))).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void arithmeticFailsOnOverflow() {
+        assertThat(Money.parse("10.00").minus(Money.parse("2.50"))).isEqualTo(Money.parse("7.50"));
+        assertThat(Money.parse("10.00").plus(Money.parse("2.50")).compareTo(Money.parse("12.49"))).isPositive();
+
+        Money max = Money.ofMinorUnits(Long.MAX_VALUE);
+        assertThatThrownBy(() -> max.plus(Money.ofMinorUnits(1))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofMinorUnits(Long.MIN_VALUE).negate()).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.parse("92233720368547758.08")).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void keepsJsonWireFormat() throws Exception {
+        assertThat(objectMapper.writeValueAsString(Money.parse("12.3"))).isEqualTo("12.30");
+        assertThat(objectMapper.writeValueAsString(Money.parse("-1"))).isEqualTo("-1.00");
+
+        assertThat(objectMapper.readValue("12.3", Money.class)).isEqualTo(Money.parse("12.30"));
+        assertThat(objectMapper.readValue("12", Money.class)).isEqualTo(Money.parse("12.00"));
+        assertThat(objectMapper.readValue("10000000000", Money.class)).isEqualTo(Money.ofMinorUnits(1_000_000_000_000L));
+        assertThat(objectMapper.readValue("\"0.05\"", Money.class)).isEqualTo(Money.ofMinorUnits(5));
+        assertThat(objectMapper.readValue("1.5e1", Money.class)).isEqualTo(Money.parse("15"));
+
+        assertThatThrownBy(() -> objectMapper.readValue("1.005", Money.class)).isInstanceOf(JsonMappingException.class);
+        assertThatThrownBy(() -> objectMapper.readValue("100000000000000000000", Money.class))
+            .isInstanceOf(JsonMappingException.class);
+    }
+}
@@ -0,0 +1,153 @@
+package com.banking.threeom.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Open-loop load generator: requests are issued at a fixed arrival rate whatever the response times, like
+ * independent users would, instead of waiting for a response before sending the next request.
+ * <p>
+ * The latency of a request is measured from the time it was scheduled to be sent, not from the time it was actually
+ * sent, so that a stalled server or client shows up in the percentiles instead of silently lowering the request rate
+ * (coordinated omission).
+ */
+final class LoadGenerator {
+
+    /** One hour, in microseconds */
+    private static final long HIGHEST_TRACKABLE_LATENCY = TimeUnit.HOURS.toMicros(1);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final HttpClient client;
+
+    private final LoadRequests requests;
+
+    private final OperationMix mix;
+
+    private final Random random;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    LoadGenerator(HttpClient client, LoadRequests requests, OperationMix mix, long seed) {
+        this.client = client;
+        this.requests = requests;
+        this.mix = mix;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Issue requests for a given duration and wait for their responses.
+     *
+     * @param ratePerSecond the number of requests issued per second.
+     * @param duration the time during which requests are issued.
+     * @param drainTimeout the maximum time to wait for the responses of the last requests.
+     * @return the latencies and errors of the requests, by operation.
+     */
+    Result run(double ratePerSecond, Duration duration, Duration drainTimeout) {
+        Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_LATENCY, SIGNIFICANT_DIGITS));
+            errors.put(operation, new LongAdder());
+        }
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long scheduled = 0;
+        for (long intended = start; intended < end; intended = start + scheduled * intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = mix.next(random);
+            send(operation, requests.build(operation, random), intended, recorders.get(operation), errors.get(operation));
+            scheduled++;
+        }
+        long drainDeadline = System.nanoTime() + drainTimeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        recorders.forEach((operation, recorder) -> latencies.put(operation, recorder.getIntervalHistogram()));
+        errors.forEach((operation, count) -> errorCounts.put(operation, count.sum()));
+        return new Result(latencies, errorCounts, scheduled, inFlight.get(), elapsed);
+    }
+
+    private void send(Operation operation, HttpRequest request, long intended, Recorder recorder, LongAdder errors) {
+        inFlight.incrementAndGet();
+        client
+            .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended), HIGHEST_TRACKABLE_LATENCY));
+                if (error != null || response.statusCode() >= 400) {
+                    errors.increment();
+                }
+                inFlight.decrementAndGet();
+            });
+    }
+
+    /**
+     * The outcome of a {@link LoadGenerator#run}.
+     */
+    static final class Result {
+
+        private final Map<Operation, Histogram> latencies;
+
+        private final Map<Operation, Long> errors;
+
+        private final long scheduled;
+
+        private final long unanswered;
+
+        private final Duration elapsed;
+
+        Result(Map<Operation, Histogram> latencies, Map<Operation, Long> errors, long scheduled, long unanswered, Duration elapsed) {
+            this.latencies = latencies;
+            this.errors = errors;
+            this.scheduled = scheduled;
+            this.unanswered = unanswered;
+            this.elapsed = elapsed;
+        }
+
+        /**
+         * @return the latency histograms, in microseconds.
+         */
+        Map<Operation, Histogram> getLatencies() {
+            return latencies;
+        }
+
+        Map<Operation, Long> getErrors() {
+            return errors;
+        }
+
+        long getScheduled() {
+            return scheduled;
+        }
+
+        /**
+         * @return the number of requests still without response after the drain timeout.
+         */
+        long getUnanswered() {
+            return unanswered;
+        }
+
+        Duration getElapsed() {
+            return elapsed;
+        }
+    }
+}
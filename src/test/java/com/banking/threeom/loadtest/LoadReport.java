@@ -0,0 +1,98 @@
+package com.banking.threeom.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Writes the outcome of a load test: a summary table, and the full latency distribution of every operation as an
+ * HdrHistogram percentile file ({@code <operation>.hgrm}), which can be plotted with the HdrHistogram plotter.
+ */
+final class LoadReport {
+
+    /** The histograms hold microseconds, the reports show milliseconds */
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadGenerator.Result result;
+
+    private final double targetRate;
+
+    LoadReport(LoadGenerator.Result result, double targetRate) {
+        this.result = result;
+        this.targetRate = targetRate;
+    }
+
+    /**
+     * Write the report files into a directory, created if needed.
+     *
+     * @param directory the directory.
+     * @return the summary table.
+     * @throws IOException if a file cannot be written.
+     */
+    String write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, Histogram> entry : result.getLatencies().entrySet()) {
+            if (entry.getValue().getTotalCount() == 0) {
+                continue;
+            }
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey().getKey() + ".hgrm")), false, "UTF-8")) {
+                entry.getValue().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        String summary = summary();
+        Files.writeString(directory.resolve("summary.txt"), summary, StandardCharsets.UTF_8);
+        return summary;
+    }
+
+    String summary() {
+        double seconds = result.getElapsed().toNanos() / 1e9;
+        StringBuilder summary = new StringBuilder();
+        summary.append(
+            String.format(
+                "Target rate %.1f req/s, %d requests scheduled in %.1f s, %d unanswered%n",
+                targetRate,
+                result.getScheduled(),
+                seconds,
+                result.getUnanswered()
+            )
+        );
+        summary.append(
+            String.format("%-10s %10s %8s %10s %10s %10s %10s %10s %10s%n", "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms")
+        );
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Map.Entry<Operation, Histogram> entry : result.getLatencies().entrySet()) {
+            Histogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            long errors = result.getErrors().get(entry.getKey());
+            total.add(histogram);
+            totalErrors += errors;
+            appendRow(summary, entry.getKey().getKey(), histogram, errors, seconds);
+        }
+        appendRow(summary, "all", total, totalErrors, seconds);
+        return summary.toString();
+    }
+
+    private static void appendRow(StringBuilder summary, String name, Histogram histogram, long errors, double seconds) {
+        summary.append(
+            String.format(
+                "%-10s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                name,
+                histogram.getTotalCount(),
+                errors,
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(90) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI
+            )
+        );
+    }
+}
@@ -0,0 +1,104 @@
+package com.banking.threeom.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the request of each {@link Operation} against the seeded bank accounts.
+ * <p>
+ * Transfers reference the seeded accounts by id and version: the accounts themselves are never updated by the load
+ * test, so their version stays at 0, and a reference without version would be taken for a new account.
+ */
+final class LoadRequests {
+
+    private static final String JSON = "application/json";
+
+    private final URI baseUri;
+
+    private final long[] bankAccountIds;
+
+    private final long[] balanceIds;
+
+    private final Duration timeout;
+
+    private final AtomicLong createdAccounts = new AtomicLong();
+
+    /**
+     * @param baseUri the root of the application, such as {@code http://localhost:8080/}.
+     * @param bankAccountIds the ids of the seeded bank accounts.
+     * @param balanceIds the ids of their balances, in the same order.
+     * @param timeout the timeout of a request.
+     */
+    LoadRequests(URI baseUri, long[] bankAccountIds, long[] balanceIds, Duration timeout) {
+        this.baseUri = baseUri;
+        this.bankAccountIds = bankAccountIds;
+        this.balanceIds = balanceIds;
+        this.timeout = timeout;
+    }
+
+    HttpRequest build(Operation operation, Random random) {
+        switch (operation) {
+            case CREATE:
+                return post("api/bank-accounts", createBody());
+            case TRANSFER:
+                return post("api/transactions", transferBody(random));
+            case READ:
+                return get("api/bank-accounts/" + bankAccountIds[random.nextInt(bankAccountIds.length)]);
+            case BALANCE:
+                return get("api/balances/" + balanceIds[random.nextInt(balanceIds.length)]);
+            case LIST:
+                return get("api/transactions?size=20&sort=id,desc");
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + operation);
+        }
+    }
+
+    private String createBody() {
+        long index = createdAccounts.incrementAndGet();
+        return (
+            "{\"firstName\":\"Load\",\"lastName\":\"Test " +
+            index +
+            "\",\"phoneNumber\":\"+48" +
+            String.format("%09d", index) +
+            "\",\"email\":\"load.test." +
+            index +
+            "@example.com\"}"
+        );
+    }
+
+    private String transferBody(Random random) {
+        int source = random.nextInt(bankAccountIds.length);
+        int destination = random.nextInt(bankAccountIds.length - 1);
+        if (destination >= source) {
+            destination++;
+        }
+        return (
+            "{\"transactionType\":\"TRANSFER\",\"amount\":1.00,\"transactionDate\":\"" +
+            Instant.now() +
+            "\",\"sourceType\":\"USER\",\"destinationType\":\"USER\",\"status\":\"WAITING\"," +
+            "\"sourceBankAccount\":{\"id\":" +
+            bankAccountIds[source] +
+            ",\"version\":0},\"destinationBankAccount\":{\"id\":" +
+            bankAccountIds[destination] +
+            ",\"version\":0}}"
+        );
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(timeout).header("Accept", JSON).GET().build();
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest
+            .newBuilder(baseUri.resolve(path))
+            .timeout(timeout)
+            .header("Accept", JSON)
+            .header("Content-Type", JSON)
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.banking.threeom.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.banking.threeom.Banking3OmApp;
+import com.banking.threeom.config.EmbeddedSQL;
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BalanceRepository;
+import com.banking.threeom.repository.BankAccountRepository;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * End-to-end load test of the REST API, run by the {@code load-test} Maven profile on the database of the active
+ * profile: H2 with {@code dev}, PostgreSQL in a Testcontainers container with {@code prod}.
+ * <p>
+ * Seeds {@code load-test.accounts} bank accounts, warms the application up, then issues a mix of requests at a fixed
+ * arrival rate and writes the HdrHistogram latency reports to {@code load-test.report-dir}. Every setting can be
+ * overridden with a system property, such as {@code -Dload-test.rate=500}.
+ */
+@SpringBootTest(
+    classes = Banking3OmApp.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "logging.level.ROOT=WARN",
+        "logging.level.com.banking.threeom=WARN",
+        "logging.level.tech.jhipster=WARN",
+        "spring.datasource.hikari.maximum-pool-size=${load-test.pool-size:20}",
+    }
+)
+@EmbeddedSQL
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class LoadTestRunner {
+
+    private static final int SEED_BATCH_SIZE = 500;
+
+    private static final Money SEED_BALANCE = Money.parse("1000000.00");
+
+    private final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${load-test.accounts:1000}")
+    private int accounts;
+
+    @Value("${load-test.rate:200}")
+    private double rate;
+
+    @Value("${load-test.warmup-seconds:10}")
+    private long warmupSeconds;
+
+    @Value("${load-test.duration-seconds:60}")
+    private long durationSeconds;
+
+    @Value("${load-test.mix:transfer=60,read=15,balance=10,list=10,create=5}")
+    private String mix;
+
+    @Value("${load-test.threads:16}")
+    private int threads;
+
+    @Value("${load-test.timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    @Value("${load-test.seed:42}")
+    private long seed;
+
+    @Value("${load-test.report-dir:target/load-test}")
+    private String reportDir;
+
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.DAYS)
+    void runLoadTest() throws Exception {
+        long[][] seeded = seedBankAccounts();
+        OperationMix operationMix = OperationMix.parse(mix);
+        LoadRequests requests = new LoadRequests(
+            URI.create("http://localhost:" + port + "/"),
+            seeded[0],
+            seeded[1],
+            Duration.ofSeconds(timeoutSeconds)
+        );
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build();
+            LoadGenerator generator = new LoadGenerator(client, requests, operationMix, seed);
+
+            log.warn("Warming up for {} s at {} req/s with {}", warmupSeconds, rate, operationMix);
+            generator.run(rate, Duration.ofSeconds(warmupSeconds), Duration.ofSeconds(timeoutSeconds));
+
+            log.warn("Measuring for {} s at {} req/s with {}", durationSeconds, rate, operationMix);
+            LoadGenerator.Result result = generator.run(rate, Duration.ofSeconds(durationSeconds), Duration.ofSeconds(timeoutSeconds));
+            String summary = new LoadReport(result, rate).write(Path.of(reportDir));
+            log.warn("Load test results, written to {}:\n{}", reportDir, summary);
+
+            assertThat(result.getScheduled()).isPositive();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the ids of the seeded bank accounts, and the ids of their balances.
+     */
+    private long[][] seedBankAccounts() {
+        log.warn("Seeding {} bank accounts", accounts);
+        List<Long> bankAccountIds = new ArrayList<>(accounts);
+        List<Long> balanceIds = new ArrayList<>(accounts);
+        for (int first = 0; first < accounts; first += SEED_BATCH_SIZE) {
+            int from = first;
+            int to = Math.min(accounts, first + SEED_BATCH_SIZE);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = from; i < to; i++) {
+                    Balance balance = balanceRepository.save(new Balance().initialBalance(SEED_BALANCE).currentBalance(SEED_BALANCE));
+                    BankAccount bankAccount = bankAccountRepository.save(
+                        new BankAccount()
+                            .firstName("Seed")
+                            .lastName("Account " + i)
+                            .phoneNumber(String.format("+380%09d", i))
+                            .email("seed." + i + "@example.com")
+                            .balance(balance)
+                    );
+                    bankAccountIds.add(bankAccount.getId());
+                    balanceIds.add(balance.getId());
+                }
+            });
+        }
+        return new long[][] {
+            bankAccountIds.stream().mapToLong(Long::longValue).toArray(),
+            balanceIds.stream().mapToLong(Long::longValue).toArray(),
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.banking.threeom.loadtest;
+
+/**
+ * The kinds of request issued by the {@link LoadGenerator}.
+ */
+enum Operation {
+    /** {@code POST /api/bank-accounts} */
+    CREATE("create"),
+    /** {@code POST /api/transactions} of a transfer between two seeded accounts */
+    TRANSFER("transfer"),
+    /** {@code GET /api/bank-accounts/{id}} */
+    READ("read"),
+    /** {@code GET /api/balances/{id}} */
+    BALANCE("balance"),
+    /** {@code GET /api/transactions} */
+    LIST("list");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + key);
+    }
+}
@@ -0,0 +1,65 @@
+package com.banking.threeom.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Relative weights of the {@link Operation}s of a load test, parsed from a specification such as
+ * {@code transfer=60,read=20,list=10,create=5,balance=5}.
+ */
+final class OperationMix {
+
+    private final Map<Operation, Integer> weights;
+
+    private final Operation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    private OperationMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    static OperationMix parse(String specification) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : specification.split(",")) {
+            String[] keyAndWeight = entry.trim().split("=");
+            if (keyAndWeight.length != 2) {
+                throw new IllegalArgumentException("Invalid operation mix entry " + entry);
+            }
+            int weight = Integer.parseInt(keyAndWeight[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in operation mix entry " + entry);
+            }
+            if (weight > 0) {
+                weights.merge(Operation.fromKey(keyAndWeight[0].trim()), weight, Integer::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Empty operation mix " + specification);
+        }
+        return new OperationMix(weights);
+    }
+
+    Operation next(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public String toString() {
+        return weights.toString();
+    }
+}
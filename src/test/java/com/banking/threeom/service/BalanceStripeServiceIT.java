@@ -0,0 +1,146 @@
+package com.banking.threeom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.banking.threeom.IntegrationTest;
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.BalanceStripe;
+import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BalanceRef;
+import com.banking.threeom.repository.BalanceStripeRepository;
+import com.banking.threeom.repository.BankAccountRepository;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link BalanceStripeService}.
+ */
+@IntegrationTest
+@Transactional
+class BalanceStripeServiceIT {
+
+    private static final int STRIPES = 4;
+
+    @Autowired
+    private BalanceStripeService balanceStripeService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private BalanceStripeRepository balanceStripeRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private BankAccount bankAccount;
+
+    private Balance balance;
+
+    @BeforeEach
+    public void createHotBankAccount() {
+        balance = new Balance().initialBalance(Money.ZERO).currentBalance(Money.parse("100.00"));
+        em.persist(balance);
+        bankAccount = new BankAccount().firstName("Anna").lastName("Nowak").phoneNumber("+48100000098").balance(balance);
+        em.persist(bankAccount);
+        em.flush();
+        assertThat(balanceStripeService.stripe(bankAccount.getId(), STRIPES)).isTrue();
+    }
+
+    @Test
+    void creditsAStripe() {
+        assertThat(balanceStripeService.credit(balanceRef(), Money.parse("10.00")).orElseThrow()).isBetween(0, STRIPES - 1);
+
+        assertThat(currentBalance()).isEqualTo(Money.parse("110.00"));
+        assertThat(baseBalance()).isEqualTo(Money.ZERO);
+        assertThat(stripeAmounts()).containsOnly(Money.parse("25.00"), Money.parse("35.00"));
+    }
+
+    @Test
+    void undoesACreditOnTheRowItWasAddedTo() {
+        int stripe = balanceStripeService.credit(balanceRef(), Money.parse("10.00")).orElseThrow();
+
+        balanceStripeService.undoCredit(balanceRef(), stripe, Money.parse("10.00"));
+
+        assertThat(currentBalance()).isEqualTo(Money.parse("100.00"));
+        assertThat(baseBalance()).isEqualTo(Money.ZERO);
+        assertThat(stripeAmounts()).containsOnly(Money.parse("25.00"));
+    }
+
+    @Test
+    void debitsAStripeHoldingEnough() {
+        assertThat(balanceStripeService.debit(balanceRef(), Money.parse("20.00"))).isTrue();
+
+        assertThat(currentBalance()).isEqualTo(Money.parse("80.00"));
+        assertThat(stripeAmounts()).containsOnly(Money.parse("25.00"), Money.parse("5.00"));
+    }
+
+    @Test
+    void rebalancesWhenNoStripeHoldsEnough() {
+        assertThat(balanceStripeService.debit(balanceRef(), Money.parse("60.00"))).isTrue();
+
+        assertThat(currentBalance()).isEqualTo(Money.parse("40.00"));
+        assertThat(stripeAmounts()).hasSize(STRIPES).containsOnly(Money.parse("10.00"));
+    }
+
+    @Test
+    void declinesADebitAboveTheTotal() {
+        assertThat(balanceStripeService.debit(balanceRef(), Money.parse("100.01"))).isFalse();
+
+        assertThat(currentBalance()).isEqualTo(Money.parse("100.00"));
+        assertThat(stripeAmounts()).hasSize(STRIPES).containsOnly(Money.parse("25.00"));
+    }
+
+    @Test
+    void adjustsAgainstTheTotal() {
+        assertThat(balanceService.adjust(balance.getId(), Money.parse("-60.00"), Money.ZERO)).isEqualTo(AdjustmentResult.APPLIED);
+        assertThat(balanceService.adjust(balance.getId(), Money.parse("-50.00"), Money.ZERO)).isEqualTo(AdjustmentResult.OVERDRAFT);
+
+        assertThat(currentBalance()).isEqualTo(Money.parse("40.00"));
+        em.clear();
+        assertThat(balanceService.findOne(balance.getId()).orElseThrow().getCurrentBalance()).isEqualTo(Money.parse("40.00"));
+    }
+
+    @Test
+    void unstripeFoldsTheStripesBack() {
+        balanceStripeService.credit(balanceRef(), Money.parse("10.00"));
+
+        assertThat(balanceStripeService.unstripe(bankAccount.getId())).isTrue();
+
+        assertThat(stripeAmounts()).isEmpty();
+        assertThat(balanceRef().getStripes()).isZero();
+        assertThat(baseBalance()).isEqualTo(Money.parse("110.00"));
+    }
+
+    private BalanceRef balanceRef() {
+        return bankAccountRepository.findBalanceRefById(bankAccount.getId()).orElseThrow();
+    }
+
+    private Money currentBalance() {
+        return bankAccountRepository.findCurrentBalanceById(bankAccount.getId()).orElseThrow();
+    }
+
+    private Money baseBalance() {
+        em.clear();
+        return em.find(Balance.class, balance.getId()).getCurrentBalance();
+    }
+
+    private List<Money> stripeAmounts() {
+        em.clear();
+        return balanceStripeRepository
+            .findAll()
+            .stream()
+            .filter(stripe -> stripe.getBalanceId().equals(balance.getId()))
+            .map(BalanceStripe::getAmount)
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,155 @@
+package com.banking.threeom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.banking.threeom.IntegrationTest;
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.enumeration.TransactionOperationType;
+import com.banking.threeom.domain.enumeration.TransactionSourceType;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BalanceRepository;
+import com.banking.threeom.repository.BankAccountRepository;
+import com.banking.threeom.repository.OutboxEventRepository;
+import com.banking.threeom.repository.TransactionRepository;
+import com.banking.threeom.service.dto.BankAccountDTO;
+import com.banking.threeom.service.dto.TransactionDTO;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link CreditCoalescer}. Not {@code @Transactional}: deposits are written by the
+ * coalescer thread, which only sees committed bank accounts.
+ */
+@IntegrationTest
+@TestPropertySource(properties = { "application.credit-coalescing.enabled=true", "application.credit-coalescing.window-ms=200" })
+class CreditCoalescerIT {
+
+    private static final int DEPOSITS = 20;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> transactionIds = new ArrayList<>();
+
+    private BankAccount bankAccount;
+
+    @BeforeEach
+    public void createBankAccount() {
+        bankAccount = new TransactionTemplate(transactionManager).execute(status -> {
+            Balance balance = balanceRepository.save(new Balance().initialBalance(Money.ZERO).currentBalance(Money.parse("1.00")));
+            return bankAccountRepository.save(
+                new BankAccount().firstName("Anna").lastName("Nowak").phoneNumber("+48100000099").balance(balance)
+            );
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionIds.forEach(transactionRepository::deleteById);
+        outboxEventRepository.deleteAll();
+        bankAccountRepository.deleteById(bankAccount.getId());
+        balanceRepository.deleteById(bankAccount.getBalance().getId());
+    }
+
+    @Test
+    void creditsConcurrentDepositsToABalanceTogether() {
+        Balance before = balanceRepository.findById(bankAccount.getBalance().getId()).orElseThrow();
+        ExecutorService executor = Executors.newFixedThreadPool(DEPOSITS);
+        List<TransactionDTO> saved;
+        try {
+            List<CompletableFuture<TransactionDTO>> results = IntStream
+                .range(0, DEPOSITS)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> transactionService.save(createDeposit(bankAccount)), executor))
+                .collect(Collectors.toList());
+            saved = results.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } finally {
+            executor.shutdown();
+        }
+        saved.forEach(transaction -> transactionIds.add(transaction.getId()));
+
+        assertThat(saved).extracting(TransactionDTO::getStatus).containsOnly(TransactionStatus.SUCCESS);
+        assertThat(saved).extracting(TransactionDTO::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(transactionRepository.findAllById(transactionIds)).hasSize(DEPOSITS);
+        assertThat(outboxEventRepository.count()).isEqualTo(DEPOSITS);
+        Balance after = balanceRepository.findById(bankAccount.getBalance().getId()).orElseThrow();
+        assertThat(after.getCurrentBalance()).isEqualByComparingTo(Money.parse("201.00"));
+        // One update per group rather than per deposit
+        assertThat(after.getVersion() - before.getVersion()).isLessThan(DEPOSITS);
+    }
+
+    @Test
+    void failsOnlyTheInvalidDepositOfAGroup() {
+        CompletableFuture<TransactionDTO> valid = CompletableFuture.supplyAsync(() -> transactionService.save(createDeposit(bankAccount)));
+        CompletableFuture<TransactionDTO> invalid = CompletableFuture.supplyAsync(() ->
+            transactionService.save(createDeposit(new BankAccount().id(Long.MAX_VALUE)))
+        );
+
+        TransactionDTO saved = valid.join();
+        transactionIds.add(saved.getId());
+
+        assertThat(saved.getStatus()).isEqualTo(TransactionStatus.SUCCESS);
+        assertThatThrownBy(invalid::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(balanceRepository.findById(bankAccount.getBalance().getId()).orElseThrow().getCurrentBalance())
+            .isEqualByComparingTo(Money.parse("11.00"));
+    }
+
+    @Test
+    void executesADepositWithinTheTransactionOfTheCaller() {
+        TransactionDTO saved = new TransactionTemplate(transactionManager).execute(status -> {
+            status.setRollbackOnly();
+            return transactionService.save(createDeposit(bankAccount));
+        });
+
+        assertThat(saved.getStatus()).isEqualTo(TransactionStatus.SUCCESS);
+        // Rolled back with the caller rather than committed by the coalescer
+        assertThat(transactionRepository.findById(saved.getId())).isEmpty();
+        assertThat(balanceRepository.findById(bankAccount.getBalance().getId()).orElseThrow().getCurrentBalance())
+            .isEqualByComparingTo(Money.parse("1.00"));
+    }
+
+    private static TransactionDTO createDeposit(BankAccount bankAccount) {
+        BankAccountDTO destination = new BankAccountDTO();
+        destination.setId(bankAccount.getId());
+        destination.setVersion(bankAccount.getVersion());
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setTransactionType(TransactionOperationType.DEPOSIT);
+        transaction.setAmount(Money.parse("10.00"));
+        transaction.setTransactionDate(ZonedDateTime.now());
+        transaction.setSourceType(TransactionSourceType.USER);
+        transaction.setDestinationType(TransactionSourceType.USER);
+        transaction.setDestinationBankAccount(destination);
+        transaction.setStatus(TransactionStatus.WAITING);
+        return transaction;
+    }
+}
@@ -0,0 +1,120 @@
+package com.banking.threeom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.banking.threeom.IntegrationTest;
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.Transaction;
+import com.banking.threeom.domain.enumeration.TransactionOperationType;
+import com.banking.threeom.domain.enumeration.TransactionSourceType;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BalanceRepository;
+import com.banking.threeom.repository.BankAccountRepository;
+import com.banking.threeom.repository.TransactionRepository;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for the {@link TransactionProcessor}. Not {@code @Transactional}: claims and executions are
+ * committed in their own database transactions, like in production.
+ */
+@IntegrationTest
+class TransactionProcessorIT {
+
+    @Autowired
+    private TransactionProcessor transactionProcessor;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    private final List<Transaction> transactions = new ArrayList<>();
+
+    private final List<BankAccount> bankAccounts = new ArrayList<>();
+
+    @AfterEach
+    public void cleanUp() {
+        transactionRepository.deleteAll(transactions);
+        bankAccountRepository.deleteAll(bankAccounts);
+        bankAccounts.forEach(bankAccount -> balanceRepository.deleteById(bankAccount.getBalance().getId()));
+    }
+
+    @Test
+    void processWaitingTransactions() {
+        BankAccount source = createBankAccountWithBalance("+380000000011", Money.parse("10.00"));
+        BankAccount destination = createBankAccountWithBalance("+380000000012", Money.ZERO);
+        Transaction executable = createTransfer(source, destination, Money.parse("6.00"));
+        Transaction overdraft = createTransfer(source, destination, Money.parse("6.00"));
+
+        assertThat(transactionProcessor.processWaitingTransactions()).isEqualTo(2);
+        assertThat(transactionProcessor.processWaitingTransactions()).isZero();
+
+        assertThat(transactionRepository.findById(executable.getId())).get().satisfies(transaction -> {
+            assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.SUCCESS);
+            assertThat(transaction.getClaimedDate()).isNull();
+        });
+        assertThat(transactionRepository.findById(overdraft.getId()).get().getStatus()).isEqualTo(TransactionStatus.DECLINE);
+        assertThat(balanceRepository.findById(source.getBalance().getId()).get().getCurrentBalance()).isEqualByComparingTo(Money.parse("4.00"));
+        assertThat(balanceRepository.findById(destination.getBalance().getId()).get().getCurrentBalance()).isEqualByComparingTo(Money.parse("6.00"));
+    }
+
+    @Test
+    void releaseStaleClaims() {
+        BankAccount source = createBankAccountWithBalance("+380000000011", Money.parse("10.00"));
+        BankAccount destination = createBankAccountWithBalance("+380000000012", Money.ZERO);
+        Transaction transaction = createTransfer(source, destination, Money.parse("6.00"));
+
+        assertThat(transactionService.claimWaiting(10)).containsExactly(transaction.getId());
+        assertThat(transactionService.releaseStaleClaims(Instant.now().minusSeconds(60))).isZero();
+        assertThat(transactionService.releaseStaleClaims(Instant.now().plusSeconds(60))).isEqualTo(1);
+
+        assertThat(transactionRepository.findById(transaction.getId()).get().getStatus()).isEqualTo(TransactionStatus.WAITING);
+        assertThat(transactionService.process(transaction.getId())).isEmpty();
+    }
+
+    private BankAccount createBankAccountWithBalance(String phoneNumber, Money currentBalance) {
+        Balance balance = balanceRepository.save(new Balance().initialBalance(currentBalance).currentBalance(currentBalance));
+        BankAccount bankAccount = bankAccountRepository.save(
+            new BankAccount()
+                .firstName("AAAAAAAAAA")
+                .lastName("AAAAAAAAAA")
+                .email(phoneNumber + "@example.com")
+                .phoneNumber(phoneNumber)
+                .address("AAAAAAAAAA")
+                .balance(balance)
+        );
+        bankAccounts.add(bankAccount);
+        return bankAccount;
+    }
+
+    private Transaction createTransfer(BankAccount source, BankAccount destination, Money amount) {
+        Transaction transaction = transactionRepository.save(
+            new Transaction()
+                .transactionType(TransactionOperationType.TRANSFER)
+                .amount(amount)
+                .transactionDate(ZonedDateTime.now())
+                .sourceType(TransactionSourceType.USER)
+                .destinationType(TransactionSourceType.USER)
+                .status(TransactionStatus.WAITING)
+                .sourceBankAccount(source)
+                .destinationBankAccount(destination)
+        );
+        transactions.add(transaction);
+        return transaction;
+    }
+}
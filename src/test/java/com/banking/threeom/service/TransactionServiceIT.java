@@ -0,0 +1,111 @@
+package com.banking.threeom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.banking.threeom.IntegrationTest;
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.enumeration.TransactionOperationType;
+import com.banking.threeom.domain.enumeration.TransactionSourceType;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BalanceRepository;
+import com.banking.threeom.repository.BankAccountRepository;
+import com.banking.threeom.repository.OutboxEventRepository;
+import com.banking.threeom.repository.TransactionRepository;
+import com.banking.threeom.service.dto.BankAccountDTO;
+import com.banking.threeom.service.dto.TransactionBatchResultDTO;
+import com.banking.threeom.service.dto.TransactionDTO;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link TransactionService}. Not {@code @Transactional}: every executed transaction of a
+ * chunk commits on its own.
+ */
+@IntegrationTest
+class TransactionServiceIT {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private List<Long> transactionIds = List.of();
+
+    private BankAccount bankAccount;
+
+    @BeforeEach
+    public void createBankAccount() {
+        bankAccount = new TransactionTemplate(transactionManager).execute(status -> {
+            Balance balance = balanceRepository.save(new Balance().initialBalance(Money.ZERO).currentBalance(Money.parse("1.00")));
+            return bankAccountRepository.save(
+                new BankAccount().firstName("Anna").lastName("Nowak").phoneNumber("+48100000096").balance(balance)
+            );
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionIds.forEach(transactionRepository::deleteById);
+        outboxEventRepository.deleteAll();
+        bankAccountRepository.deleteById(bankAccount.getId());
+        balanceRepository.deleteById(bankAccount.getBalance().getId());
+    }
+
+    @Test
+    void failsOnlyTheFailingTransactionOfAChunk() {
+        BankAccount missing = new BankAccount().id(Long.MAX_VALUE);
+        missing.setVersion(0L);
+
+        List<TransactionBatchResultDTO> results = transactionService.saveAll(
+            List.of(createDeposit(bankAccount), createDeposit(missing), createDeposit(bankAccount))
+        );
+        transactionIds = results.stream().map(TransactionBatchResultDTO::getId).filter(Objects::nonNull).collect(Collectors.toList());
+
+        assertThat(results).extracting(TransactionBatchResultDTO::getIndex).containsExactly(0, 1, 2);
+        assertThat(results)
+            .extracting(TransactionBatchResultDTO::getStatus)
+            .containsExactly(TransactionStatus.SUCCESS, null, TransactionStatus.SUCCESS);
+        assertThat(results.get(1).getError()).isNotEmpty();
+        assertThat(transactionRepository.findAllById(transactionIds)).hasSize(2);
+        assertThat(balanceRepository.findById(bankAccount.getBalance().getId()).orElseThrow().getCurrentBalance())
+            .isEqualByComparingTo(Money.parse("21.00"));
+    }
+
+    private static TransactionDTO createDeposit(BankAccount bankAccount) {
+        BankAccountDTO destination = new BankAccountDTO();
+        destination.setId(bankAccount.getId());
+        destination.setVersion(bankAccount.getVersion());
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setTransactionType(TransactionOperationType.DEPOSIT);
+        transaction.setAmount(Money.parse("10.00"));
+        transaction.setTransactionDate(ZonedDateTime.now());
+        transaction.setSourceType(TransactionSourceType.USER);
+        transaction.setDestinationType(TransactionSourceType.USER);
+        transaction.setDestinationBankAccount(destination);
+        transaction.setStatus(TransactionStatus.WAITING);
+        return transaction;
+    }
+}
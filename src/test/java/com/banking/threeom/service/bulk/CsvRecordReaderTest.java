@@ -0,0 +1,32 @@
+package com.banking.threeom.service.bulk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void readsQuotedAndEmptyFields() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a,\"b,\"\"c\"\"\",,\"\"\r\n\"multi\nline\",x\nlast"));
+
+        assertThat(reader.next()).containsExactly("a", "b,\"c\"", null, "");
+        assertThat(reader.getLine()).isEqualTo(2);
+        assertThat(reader.next()).containsExactly("multi\nline", "x");
+        assertThat(reader.getLine()).isEqualTo(4);
+        assertThat(reader.next()).isEqualTo(Arrays.asList("last"));
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void rejectsUnterminatedQuote() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a\n\"b,c\n"));
+
+        assertThat(reader.next()).containsExactly("a");
+        assertThatThrownBy(reader::next).isInstanceOf(CsvRecordReader.CsvFormatException.class).hasMessageContaining("line 2");
+    }
+}
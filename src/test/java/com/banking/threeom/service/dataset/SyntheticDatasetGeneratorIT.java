@@ -0,0 +1,98 @@
+package com.banking.threeom.service.dataset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.banking.threeom.IntegrationTest;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link SyntheticDatasetGenerator}, on the batched insert path of H2.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "application.dataset.accounts=300",
+        "application.dataset.transactions=5000",
+        "application.dataset.threads=2",
+        "application.dataset.chunk-size=700",
+    }
+)
+class SyntheticDatasetGeneratorIT {
+
+    @Autowired
+    private SyntheticDatasetGenerator generator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long firstId;
+
+    @BeforeEach
+    public void rememberIds() {
+        firstId = jdbcTemplate.queryForObject("select next value for sequence_generator", Long.class);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from transaction where id > ?", firstId);
+            jdbcTemplate.update("delete from bank_account where id > ?", firstId);
+            jdbcTemplate.update("delete from balance where id > ?", firstId);
+        });
+    }
+
+    @Test
+    void generateSkewedConsistentDataset() {
+        long rows = generator.generate();
+
+        assertThat(rows).isEqualTo(300 + 300 + 5000);
+        assertThat(count("select count(*) from bank_account where id > ?")).isEqualTo(300);
+        assertThat(count("select count(*) from transaction where id > ?")).isEqualTo(5000);
+
+        // Every current balance is its initial balance plus its successful transactions, and never negative
+        assertThat(count("select count(*) from balance where id > ? and current_balance < 0")).isZero();
+        BigDecimal netChange = jdbcTemplate.queryForObject(
+            "select sum(current_balance - initial_balance) from balance where id > ?",
+            BigDecimal.class,
+            firstId
+        );
+        BigDecimal deposits = sumAmounts("DEPOSIT");
+        BigDecimal withdrawals = sumAmounts("WITHDRAWAL");
+        assertThat(netChange).isEqualByComparingTo(deposits.subtract(withdrawals));
+
+        // The hottest account takes part in far more transactions than the median one
+        List<Long> perAccount = jdbcTemplate.queryForList(
+            "select count(t.id) from bank_account a left join transaction t " +
+            "on t.source_bank_account_id = a.id or t.destination_bank_account_id = a.id " +
+            "where a.id > ? group by a.id order by count(t.id) desc",
+            Long.class,
+            firstId
+        );
+        assertThat(perAccount.get(0)).isGreaterThan(10 * perAccount.get(perAccount.size() / 2));
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class, firstId);
+    }
+
+    private BigDecimal sumAmounts(String type) {
+        return jdbcTemplate.queryForObject(
+            "select coalesce(sum(amount), 0) from transaction where id > ? and status = 'SUCCESS' and transaction_type = ?",
+            BigDecimal.class,
+            firstId,
+            type
+        );
+    }
+}
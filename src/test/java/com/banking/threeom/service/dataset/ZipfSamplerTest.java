@@ -0,0 +1,39 @@
+package com.banking.threeom.service.dataset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ZipfSamplerTest {
+
+    @Test
+    void samplesRanksWithZipfProbabilities() {
+        int n = 1000;
+        double exponent = 1.1;
+        ZipfSampler sampler = new ZipfSampler(n, exponent);
+        Random random = new Random(7);
+        int samples = 200_000;
+        int[] counts = new int[n + 1];
+        for (int i = 0; i < samples; i++) {
+            int rank = sampler.sample(random);
+            assertThat(rank).isBetween(1, n);
+            counts[rank]++;
+        }
+        double harmonic = 0;
+        for (int k = 1; k <= n; k++) {
+            harmonic += Math.pow(k, -exponent);
+        }
+        for (int k : new int[] { 1, 2, 10 }) {
+            double expected = Math.pow(k, -exponent) / harmonic;
+            assertThat((double) counts[k] / samples).isCloseTo(expected, within(0.01));
+        }
+    }
+
+    @Test
+    void samplesTheOnlyRank() {
+        ZipfSampler sampler = new ZipfSampler(1, 1);
+        assertThat(sampler.sample(new Random(1))).isEqualTo(1);
+    }
+}
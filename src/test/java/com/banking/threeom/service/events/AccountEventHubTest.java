@@ -0,0 +1,265 @@
+package com.banking.threeom.service.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BankAccountRepository;
+import com.banking.threeom.service.dto.BalanceChangeDTO;
+import com.banking.threeom.service.dto.BankAccountDTO;
+import com.banking.threeom.service.dto.TransactionDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+class AccountEventHubTest {
+
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private boolean rejecting;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private BankAccountRepository bankAccountRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AccountEventHub hub;
+
+    @BeforeEach
+    public void setUp() {
+        executor =
+            new ThreadPoolTaskExecutor() {
+                @Override
+                public void execute(Runnable task) {
+                    if (rejecting) {
+                        throw new RejectedExecutionException("Shutting down");
+                    }
+                    tasks.add(task);
+                }
+            };
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(3);
+        bankAccountRepository = mock(BankAccountRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        hub = new AccountEventHub(executor, 2, 0, bankAccountRepository, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void coalescesBalancesAndDropsTheOldestTransactions() {
+        RecordingSink sink = new RecordingSink();
+        hub.subscribe(1L, sink);
+
+        hub.publishBalance(1L, Money.parse("1.00"));
+        for (long id = 1; id <= 3; id++) {
+            hub.publishTransaction(transfer(id, 1L, 2L));
+        }
+        hub.publishBalance(1L, Money.parse("2.00"));
+        hub.publishBalance(2L, Money.parse("3.00"));
+
+        assertThat(tasks).hasSize(1);
+        runTasks();
+
+        assertThat(sink.events).extracting(AccountEvent::getName).containsExactly("overflow", "transaction", "transaction", "balance");
+        assertThat(sink.events.get(0).getData()).isEqualTo(Map.of("dropped", 1L));
+        assertThat(sink.events.subList(1, 3)).extracting(event -> ((TransactionDTO) event.getData()).getId()).containsExactly(2L, 3L);
+        assertThat(((BalanceChangeDTO) sink.events.get(3).getData()).getCurrentBalance()).isEqualByComparingTo(Money.parse("2.00"));
+        assertThat(meterRegistry.get(AccountEventHub.DROPPED_METER).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sendsTransactionsToBothAccounts() {
+        RecordingSink source = new RecordingSink();
+        RecordingSink destination = new RecordingSink();
+        hub.subscribe(1L, source);
+        hub.subscribe(2L, destination);
+
+        hub.publishTransaction(transfer(7L, 1L, 2L));
+        runTasks();
+
+        assertThat(source.events).extracting(event -> ((TransactionDTO) event.getData()).getId()).containsExactly(7L);
+        assertThat(destination.events).extracting(event -> ((TransactionDTO) event.getData()).getId()).containsExactly(7L);
+    }
+
+    @Test
+    void publishesOnlyOnceTheTransactionCommits() {
+        RecordingSink sink = new RecordingSink();
+        hub.subscribe(1L, sink);
+
+        TransactionSynchronizationManager.initSynchronization();
+        hub.publishBalance(1L, Money.parse("1.00"));
+        assertThat(tasks).isEmpty();
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        runTasks();
+
+        assertThat(sink.events).extracting(AccountEvent::getName).containsExactly("balance");
+    }
+
+    @Test
+    void offersTheInitialBalanceOnlyWithoutNewerChange() {
+        RecordingSink first = new RecordingSink();
+        RecordingSink second = new RecordingSink();
+        AccountEventHub.Subscription firstSubscription = hub.subscribe(1L, first);
+        firstSubscription.offerInitialBalance(Money.parse("1.00"));
+        runTasks();
+        AccountEventHub.Subscription secondSubscription = hub.subscribe(1L, second);
+
+        hub.publishBalance(1L, Money.parse("2.00"));
+        runTasks();
+        secondSubscription.offerInitialBalance(Money.parse("1.00"));
+        firstSubscription.offerInitialBalance(Money.parse("1.50"));
+        runTasks();
+
+        assertThat(balances(first)).containsExactly("1.00", "2.00");
+        assertThat(balances(second)).containsExactly("2.00");
+    }
+
+    @Test
+    void closesTheSubscriptionOfAGoneSubscriber() {
+        RecordingSink sink = new RecordingSink();
+        sink.failing = true;
+        hub.subscribe(1L, sink);
+        assertThat(meterRegistry.get(AccountEventHub.SUBSCRIBERS_METER).gauge().value()).isEqualTo(1);
+
+        hub.heartbeat();
+        runTasks();
+        hub.publishBalance(1L, Money.parse("1.00"));
+
+        assertThat(tasks).isEmpty();
+        assertThat(meterRegistry.get(AccountEventHub.SUBSCRIBERS_METER).gauge().value()).isZero();
+    }
+
+    @Test
+    void readsAChangedBalanceWhenSendingIt() {
+        RecordingSink sink = new RecordingSink();
+        hub.subscribe(1L, sink);
+
+        // Published in the reverse order of their commits, only the balance read last is sent
+        when(bankAccountRepository.findCurrentBalanceById(1L)).thenReturn(Optional.of(Money.parse("2.00")));
+        hub.publishBalanceChange(1L);
+        hub.publishBalance(1L, Money.parse("1.00"));
+        hub.publishBalanceChange(1L);
+        runTasks();
+
+        assertThat(balances(sink)).containsExactly("2.00");
+    }
+
+    @Test
+    void closesTheSubscriptionOfAStalledSubscriber() throws InterruptedException {
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch resumed = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink() {
+            @Override
+            public void send(AccountEvent event) throws IOException {
+                stalled.countDown();
+                try {
+                    resumed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(event);
+            }
+        };
+        hub.subscribe(1L, sink);
+        hub.publishBalance(1L, Money.parse("1.00"));
+        Thread sender = new Thread(tasks.remove(0));
+        sender.start();
+        stalled.await();
+
+        hub.closeStalledSubscriptions();
+
+        assertThat(meterRegistry.get(AccountEventHub.SUBSCRIBERS_METER).gauge().value()).isZero();
+        assertThat(meterRegistry.get(AccountEventHub.STALLED_METER).counter().count()).isEqualTo(1);
+        assertThat(executor.getCorePoolSize()).isEqualTo(3);
+        resumed.countDown();
+        sender.join();
+        assertThat(executor.getCorePoolSize()).isEqualTo(2);
+        assertThat(sink.completed).isTrue();
+    }
+
+    @Test
+    void closesTheSubscriptionTheExecutorRejects() {
+        RecordingSink sink = new RecordingSink();
+        hub.subscribe(1L, sink);
+
+        rejecting = true;
+        hub.publishBalance(1L, Money.parse("1.00"));
+
+        assertThat(sink.completed).isTrue();
+        assertThat(meterRegistry.get(AccountEventHub.SUBSCRIBERS_METER).gauge().value()).isZero();
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    private static List<String> balances(RecordingSink sink) {
+        return sink.events
+            .stream()
+            .map(event -> ((BalanceChangeDTO) event.getData()).getCurrentBalance().toString())
+            .collect(Collectors.toList());
+    }
+
+    private static TransactionDTO transfer(Long id, Long sourceId, Long destinationId) {
+        BankAccountDTO source = new BankAccountDTO();
+        source.setId(sourceId);
+        BankAccountDTO destination = new BankAccountDTO();
+        destination.setId(destinationId);
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setId(id);
+        transaction.setSourceBankAccount(source);
+        transaction.setDestinationBankAccount(destination);
+        return transaction;
+    }
+
+    private static class RecordingSink implements AccountEventSink {
+
+        private final List<AccountEvent> events = new ArrayList<>();
+
+        private boolean failing;
+
+        private volatile boolean completed;
+
+        @Override
+        public void send(AccountEvent event) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            events.add(event);
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.banking.threeom.service.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import com.banking.threeom.IntegrationTest;
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.Transaction;
+import com.banking.threeom.domain.enumeration.TransactionOperationType;
+import com.banking.threeom.domain.enumeration.TransactionSourceType;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BalanceRepository;
+import com.banking.threeom.repository.BankAccountRepository;
+import com.banking.threeom.service.BalanceStripeService;
+import com.banking.threeom.service.TransactionService;
+import com.banking.threeom.service.dto.BankAccountDTO;
+import com.banking.threeom.service.dto.TransactionDTO;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link ShardedLedger}. Not {@code @Transactional}: the ledger reverses the commands of
+ * database transactions that really roll back. The ledger is only flushed by the tests.
+ */
+@IntegrationTest
+@TestPropertySource(properties = { "application.ledger.enabled=true", "application.ledger.flush-delay-ms=3600000" })
+class ShardedLedgerIT {
+
+    @Autowired
+    private ShardedLedger shardedLedger;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @SpyBean
+    private BalanceStripeService balanceStripeService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BankAccount bankAccount;
+
+    @BeforeEach
+    public void createBankAccount() {
+        bankAccount = new TransactionTemplate(transactionManager).execute(status -> {
+            Balance balance = balanceRepository.save(new Balance().initialBalance(Money.ZERO).currentBalance(Money.parse("1.00")));
+            return bankAccountRepository.save(
+                new BankAccount().firstName("Anna").lastName("Nowak").phoneNumber("+48100000095").balance(balance)
+            );
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        shardedLedger.flush();
+        balanceStripeService.deleteStripes(bankAccount.getBalance().getId());
+        bankAccountRepository.deleteById(bankAccount.getId());
+        balanceRepository.deleteById(bankAccount.getBalance().getId());
+    }
+
+    @Test
+    void reversesTheDepositOfATransactionFailingToSave() {
+        BankAccountDTO missing = new BankAccountDTO();
+        missing.setId(Long.MAX_VALUE);
+        missing.setVersion(0L);
+        TransactionDTO deposit = createDeposit(bankAccount);
+        deposit.setSourceBankAccount(missing);
+
+        // Applied on the ledger, then the insert violates the foreign key of the source bank account
+        assertThatThrownBy(() -> transactionService.save(deposit)).isInstanceOf(DataIntegrityViolationException.class);
+
+        // The reversal was forwarded to the shard before this withdrawal, which sees the balance without the deposit
+        assertThat(shardedLedger.execute(withdrawal(bankAccount, "1.01"))).isEqualTo(TransactionStatus.DECLINE);
+        shardedLedger.flush();
+        assertThat(balanceRepository.findById(bankAccount.getBalance().getId()).orElseThrow().getCurrentBalance())
+            .isEqualByComparingTo(Money.parse("1.00"));
+    }
+
+    @Test
+    void flushesAgainOnTheFreshRowAfterAConflictingWrite() {
+        Long balanceId = bankAccount.getBalance().getId();
+        balanceStripeService.stripe(bankAccount.getId(), 2);
+        assertThat(shardedLedger.execute(deposit(bankAccount, "10.00"))).isEqualTo(TransactionStatus.SUCCESS);
+
+        // Once the flush read the balance row, a concurrent transaction changes its initial balance
+        TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicBoolean conflicted = new AtomicBoolean();
+        doAnswer(invocation -> {
+                if (conflicted.compareAndSet(false, true)) {
+                    concurrent.executeWithoutResult(status ->
+                        balanceRepository.findById(balanceId).orElseThrow().setInitialBalance(Money.parse("2.00"))
+                    );
+                }
+                return invocation.callRealMethod();
+            })
+            .when(balanceStripeService)
+            .lockStripedAmount(any());
+
+        shardedLedger.flush();
+
+        assertThat(conflicted).isTrue();
+        assertThat(balanceRepository.findById(balanceId).orElseThrow().getInitialBalance()).isEqualByComparingTo(Money.parse("2.00"));
+        assertThat(bankAccountRepository.findCurrentBalanceById(bankAccount.getId()).orElseThrow())
+            .isEqualByComparingTo(Money.parse("11.00"));
+    }
+
+    private static Transaction deposit(BankAccount bankAccount, String amount) {
+        return new Transaction()
+            .transactionType(TransactionOperationType.DEPOSIT)
+            .amount(Money.parse(amount))
+            .destinationBankAccount(new BankAccount().id(bankAccount.getId()));
+    }
+
+    private static Transaction withdrawal(BankAccount bankAccount, String amount) {
+        return new Transaction()
+            .transactionType(TransactionOperationType.WITHDRAWAL)
+            .amount(Money.parse(amount))
+            .sourceBankAccount(new BankAccount().id(bankAccount.getId()));
+    }
+
+    private static TransactionDTO createDeposit(BankAccount bankAccount) {
+        BankAccountDTO destination = new BankAccountDTO();
+        destination.setId(bankAccount.getId());
+        destination.setVersion(bankAccount.getVersion());
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setTransactionType(TransactionOperationType.DEPOSIT);
+        transaction.setAmount(Money.parse("10.00"));
+        transaction.setTransactionDate(ZonedDateTime.now());
+        transaction.setSourceType(TransactionSourceType.USER);
+        transaction.setDestinationType(TransactionSourceType.USER);
+        transaction.setDestinationBankAccount(destination);
+        transaction.setStatus(TransactionStatus.WAITING);
+        return transaction;
+    }
+}
@@ -0,0 +1,165 @@
+package com.banking.threeom.service.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.Transaction;
+import com.banking.threeom.domain.enumeration.TransactionOperationType;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BankAccountRepository;
+import com.banking.threeom.service.events.AccountEventHub;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+class ShardedLedgerTest {
+
+    private static final int ACCOUNTS = 8;
+
+    private InMemoryLedgerStore store;
+
+    private ShardedLedger ledger;
+
+    @BeforeEach
+    public void setUp() {
+        store = new InMemoryLedgerStore();
+        for (long id = 1; id <= ACCOUNTS; id++) {
+            store.balances.put(id, Money.parse("100.00"));
+        }
+        ledger = new ShardedLedger(store, eventHub(), 3, 16, 5000);
+        ledger.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        ledger.stop();
+    }
+
+    @Test
+    void transferMovesMoneyBetweenShards() throws Exception {
+        assertThat(ledger.execute(transfer(1L, 2L, "40.00"))).isEqualTo(TransactionStatus.SUCCESS);
+        assertThat(ledger.execute(transfer(1L, 2L, "70.00"))).isEqualTo(TransactionStatus.DECLINE);
+        ledger.stop();
+
+        assertThat(store.balances.get(1L)).isEqualByComparingTo(Money.parse("60.00"));
+        assertThat(store.balances.get(2L)).isEqualByComparingTo(Money.parse("140.00"));
+    }
+
+    @Test
+    void transferToUnknownAccountIsRefunded() throws Exception {
+        assertThat(ledger.execute(transfer(1L, 99L, "40.00"))).isEqualTo(TransactionStatus.DECLINE);
+        ledger.stop();
+
+        assertThat(store.balances.get(1L)).isEqualByComparingTo(Money.parse("100.00"));
+    }
+
+    @Test
+    void concurrentTransfersPreserveTotalBalance() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2000; i++) {
+            long source = 1 + (i % ACCOUNTS);
+            long destination = 1 + ((i * 7 + 3) % ACCOUNTS);
+            executor.execute(() -> ledger.execute(transfer(source, destination, "7.00")));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        ledger.stop();
+
+        Money total = store.balances.values().stream().reduce(Money.ZERO, Money::plus);
+        assertThat(total).isEqualByComparingTo(Money.parse("800.00"));
+        assertThat(store.balances.values()).allMatch(balance -> balance.signum() >= 0);
+    }
+
+    @Test
+    void declinesOnlyTheCommandsGivenUpOnBeforeTheyRan() throws Exception {
+        // Accounts 1 and 4 are on the same shard, which is stuck loading account 1
+        store.block(1L);
+        ShardedLedger slowLedger = new ShardedLedger(store, eventHub(), 3, 16, 50);
+        slowLedger.start();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<TransactionStatus> applying = executor.submit(() -> slowLedger.execute(deposit(1L, "10.00")));
+            assertThat(store.loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(slowLedger.execute(deposit(4L, "10.00"))).isEqualTo(TransactionStatus.DECLINE);
+
+            store.release.countDown();
+            assertThat(applying.get(5, TimeUnit.SECONDS)).isEqualTo(TransactionStatus.SUCCESS);
+        } finally {
+            store.release.countDown();
+            executor.shutdown();
+            slowLedger.stop();
+        }
+
+        assertThat(store.balances.get(1L)).isEqualByComparingTo(Money.parse("110.00"));
+        assertThat(store.balances.get(4L)).isEqualByComparingTo(Money.parse("100.00"));
+    }
+
+    private static AccountEventHub eventHub() {
+        // Nobody subscribes, nothing is ever sent
+        return new AccountEventHub(new ThreadPoolTaskExecutor(), 16, 10000, mock(BankAccountRepository.class), new SimpleMeterRegistry());
+    }
+
+    private static Transaction deposit(Long destination, String amount) {
+        return new Transaction()
+            .transactionType(TransactionOperationType.DEPOSIT)
+            .amount(Money.parse(amount))
+            .destinationBankAccount(new BankAccount().id(destination));
+    }
+
+    private static Transaction transfer(Long source, Long destination, String amount) {
+        return new Transaction()
+            .transactionType(TransactionOperationType.TRANSFER)
+            .amount(Money.parse(amount))
+            .sourceBankAccount(new BankAccount().id(source))
+            .destinationBankAccount(new BankAccount().id(destination));
+    }
+
+    /**
+     * Store where the balance id of an account is its bank account id.
+     */
+    private static class InMemoryLedgerStore implements LedgerStore {
+
+        private final Map<Long, Money> balances = new ConcurrentHashMap<>();
+
+        private final CountDownLatch loading = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private volatile Long blockedId;
+
+        void block(Long bankAccountId) {
+            blockedId = bankAccountId;
+        }
+
+        @Override
+        public Optional<LedgerAccount> load(Long bankAccountId) {
+            if (bankAccountId.equals(blockedId)) {
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Optional.ofNullable(balances.get(bankAccountId)).map(balance -> new LedgerAccount(bankAccountId, balance.getMinorUnits()));
+        }
+
+        @Override
+        public void persist(Map<Long, Money> currentBalances) {
+            balances.putAll(currentBalances);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.banking.threeom.service.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.banking.threeom.IntegrationTest;
+import com.banking.threeom.domain.OutboxEvent;
+import com.banking.threeom.domain.enumeration.TransactionOperationType;
+import com.banking.threeom.domain.enumeration.TransactionSourceType;
+import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.OutboxEventRepository;
+import com.banking.threeom.repository.TransactionRepository;
+import com.banking.threeom.service.TransactionService;
+import com.banking.threeom.service.dto.TransactionDTO;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link OutboxService} and the {@link OutboxRelay}. Not {@code @Transactional}: the events
+ * are only relayed once the transaction writing them commits.
+ */
+@IntegrationTest
+class OutboxRelayIT {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxPublisher outboxPublisher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> transactionIds = new ArrayList<>();
+
+    @BeforeEach
+    public void drainOutbox() {
+        // Events committed by other tests
+        while (outboxRelay.relayBatch() > 0) {
+            outboxPublisher.clear();
+        }
+        outboxPublisher.clear();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        transactionIds.stream().filter(transactionRepository::existsById).forEach(transactionRepository::deleteById);
+        outboxEventRepository.deleteAll();
+        outboxPublisher.clear();
+    }
+
+    @Test
+    void relaysTheEventsOfCommittedChangesInOrder() {
+        TransactionDTO created = transactionService.save(createDeposit());
+        transactionIds.add(created.getId());
+        created.setStatus(TransactionStatus.DECLINE);
+        transactionService.update(created);
+        transactionService.delete(created.getId());
+
+        assertThat(outboxRelay.relayBatch()).isEqualTo(3);
+        assertThat(outboxRelay.relayBatch()).isZero();
+
+        List<OutboxEvent> published = outboxPublisher.getPublished();
+        assertThat(published).extracting(OutboxEvent::getAggregateType).containsOnly(TransactionService.AGGREGATE_TYPE);
+        assertThat(published).extracting(OutboxEvent::getAggregateId).containsOnly(created.getId());
+        assertThat(published)
+            .extracting(OutboxEvent::getEventType)
+            .containsExactly(
+                TransactionService.TRANSACTION_CREATED,
+                TransactionService.TRANSACTION_UPDATED,
+                TransactionService.TRANSACTION_DELETED
+            );
+        assertThat(published.get(0).getPayload()).contains("\"status\":\"SUCCESS\"");
+        assertThat(published.get(1).getPayload()).contains("\"status\":\"DECLINE\"");
+        assertThat(published).extracting(OutboxEvent::getId).isSorted();
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void doesNotRecordTheEventsOfRolledBackChanges() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            transactionIds.add(transactionService.save(createDeposit()).getId());
+            assertThat(outboxEventRepository.count()).isEqualTo(1);
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(outboxRelay.relayBatch()).isZero();
+    }
+
+    @Test
+    void keepsTheEventsWhenPublishingFails() {
+        transactionIds.add(transactionService.save(createDeposit()).getId());
+        transactionIds.add(transactionService.save(createDeposit()).getId());
+        OutboxRelay failingRelay = new OutboxRelay(
+            outboxEventRepository,
+            events -> {
+                throw new OutboxPublishException("Broker unavailable", null);
+            },
+            transactionManager,
+            true,
+            10
+        );
+
+        failingRelay.poll();
+
+        assertThat(outboxEventRepository.count()).isEqualTo(2);
+        assertThat(outboxRelay.relayBatch()).isEqualTo(2);
+        assertThat(outboxPublisher.getPublished().stream().map(OutboxEvent::getAggregateId).collect(Collectors.toList()))
+            .containsExactlyElementsOf(transactionIds);
+    }
+
+    private static TransactionDTO createDeposit() {
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setTransactionType(TransactionOperationType.DEPOSIT);
+        transaction.setAmount(Money.parse("10.00"));
+        transaction.setTransactionDate(ZonedDateTime.now());
+        transaction.setSourceType(TransactionSourceType.USER);
+        transaction.setDestinationType(TransactionSourceType.USER);
+        transaction.setStatus(TransactionStatus.SUCCESS);
+        return transaction;
+    }
+}
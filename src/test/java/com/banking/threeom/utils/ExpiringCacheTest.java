@@ -0,0 +1,71 @@
+package com.banking.threeom.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class ExpiringCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void expiresEntriesAfterTimeToLive() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, 100, now::get);
+        cache.put("a", "1");
+        now.set(99);
+        assertThat(cache.get("a")).isEqualTo("1");
+        now.set(100);
+        assertThat(cache.get("a")).isNull();
+
+        cache.put("b", "2");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsOldestEntriesOverMaxSize() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(2, 100, now::get);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("a", "3");
+        cache.put("c", "4");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isEqualTo("3");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo("4");
+    }
+
+    @Test
+    void removesAndClearsEntries() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(2, 100, now::get);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.remove("a");
+        cache.put("c", "3");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isEqualTo("2");
+
+        cache.clear();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get("c")).isNull();
+    }
+
+    @Test
+    void boundsTheQueueUnderOverwritesAndRemovals() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(4, 100, now::get);
+        cache.put("a", "1");
+        for (int i = 0; i < 1000; i++) {
+            cache.put("b", Integer.toString(i));
+            cache.remove("b");
+        }
+        cache.put("b", "2");
+
+        assertThat(cache.queued()).isLessThanOrEqualTo(8);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("b")).isEqualTo("2");
+    }
+}
@@ -3,6 +3,7 @@ package com.banking.threeom.web.rest;
 import static com.banking.threeom.web.rest.TestUtil.sameNumber;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -10,16 +11,15 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.banking.threeom.IntegrationTest;
 import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.money.Money;
 import com.banking.threeom.repository.BalanceRepository;
 import com.banking.threeom.service.dto.BalanceDTO;
 import com.banking.threeom.service.mapper.BalanceMapper;
-import java.math.BigDecimal;
+import com.banking.threeom.web.rest.errors.BadRequestAlertException;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
-
-import com.banking.threeom.web.rest.errors.BadRequestAlertException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -37,11 +37,11 @@ import org.springframework.web.util.NestedServletException;
 @AutoConfigureMockMvc
 class BalanceResourceIT {
 
-    private static final BigDecimal DEFAULT_INITIAL_BALANCE = new BigDecimal(1);
-    private static final BigDecimal UPDATED_INITIAL_BALANCE = new BigDecimal(2);
+    private static final Money DEFAULT_INITIAL_BALANCE = Money.ofMinorUnits(100);
+    private static final Money UPDATED_INITIAL_BALANCE = Money.ofMinorUnits(200);
 
-    private static final BigDecimal DEFAULT_CURRENT_BALANCE = new BigDecimal(1);
-    private static final BigDecimal UPDATED_CURRENT_BALANCE = new BigDecimal(2);
+    private static final Money DEFAULT_CURRENT_BALANCE = Money.ofMinorUnits(100);
+    private static final Money UPDATED_CURRENT_BALANCE = Money.ofMinorUnits(200);
 
     private static final String ENTITY_API_URL = "/api/balances";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
@@ -179,8 +179,26 @@ class BalanceResourceIT {
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(balance.getId().intValue())))
-            .andExpect(jsonPath("$.[*].initialBalance").value(hasItem(sameNumber(DEFAULT_INITIAL_BALANCE))))
-            .andExpect(jsonPath("$.[*].currentBalance").value(hasItem(sameNumber(DEFAULT_CURRENT_BALANCE))));
+            .andExpect(jsonPath("$.[*].initialBalance").value(hasItem(sameNumber(DEFAULT_INITIAL_BALANCE.toBigDecimal()))))
+            .andExpect(jsonPath("$.[*].currentBalance").value(hasItem(sameNumber(DEFAULT_CURRENT_BALANCE.toBigDecimal()))));
+    }
+
+    @Test
+    @Transactional
+    void getAllBalancesWhereBankAccountIsNull() throws Exception {
+        // Initialize the database with an orphan balance and a balance of a bank account
+        balanceRepository.saveAndFlush(balance);
+        Balance linkedBalance = balanceRepository.saveAndFlush(createEntity(em));
+        em.persist(BankAccountResourceIT.createEntity(em).balance(linkedBalance));
+        em.flush();
+        em.clear();
+
+        restBalanceMockMvc
+            .perform(get(ENTITY_API_URL + "?filter=bankaccount-is-null&size=1000"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(balance.getId().intValue())))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(linkedBalance.getId().intValue()))));
     }
 
     @Test
@@ -195,8 +213,8 @@ class BalanceResourceIT {
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.id").value(balance.getId().intValue()))
-            .andExpect(jsonPath("$.initialBalance").value(sameNumber(DEFAULT_INITIAL_BALANCE)))
-            .andExpect(jsonPath("$.currentBalance").value(sameNumber(DEFAULT_CURRENT_BALANCE)));
+            .andExpect(jsonPath("$.initialBalance").value(sameNumber(DEFAULT_INITIAL_BALANCE.toBigDecimal())))
+            .andExpect(jsonPath("$.currentBalance").value(sameNumber(DEFAULT_CURRENT_BALANCE.toBigDecimal())));
     }
 
     @Test
@@ -235,6 +253,109 @@ class BalanceResourceIT {
         Balance testBalance = balanceList.get(balanceList.size() - 1);
         assertThat(testBalance.getInitialBalance()).isEqualByComparingTo(UPDATED_INITIAL_BALANCE);
         assertThat(testBalance.getCurrentBalance()).isEqualByComparingTo(UPDATED_CURRENT_BALANCE);
+        assertThat(testBalance.getVersion()).isEqualTo(balanceDTO.getVersion() + 1);
+    }
+
+    @Test
+    @Transactional
+    void putExistingBalanceWithStaleVersion() throws Exception {
+        // Initialize the database
+        balanceRepository.saveAndFlush(balance);
+
+        Balance updatedBalance = balanceRepository.findById(balance.getId()).get();
+        em.detach(updatedBalance);
+        updatedBalance.initialBalance(UPDATED_INITIAL_BALANCE).currentBalance(UPDATED_CURRENT_BALANCE);
+        updatedBalance.setVersion(updatedBalance.getVersion() - 1);
+        BalanceDTO balanceDTO = balanceMapper.toDto(updatedBalance);
+
+        restBalanceMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, balanceDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(balanceDTO))
+            )
+            .andExpect(status().isConflict())
+            .andExpect(header().string("X-bookstoreApp-params", "balance"));
+
+        // Validate the Balance in the database is unchanged
+        em.clear();
+        Balance testBalance = balanceRepository.findById(balance.getId()).get();
+        assertThat(testBalance.getCurrentBalance()).isEqualByComparingTo(DEFAULT_CURRENT_BALANCE);
+    }
+
+    @Test
+    @Transactional
+    void patchExistingBalanceWithStaleVersion() throws Exception {
+        // Initialize the database
+        balanceRepository.saveAndFlush(balance);
+
+        Balance partialUpdatedBalance = new Balance();
+        partialUpdatedBalance.setId(balance.getId());
+        partialUpdatedBalance.setVersion(balance.getVersion() + 1);
+        partialUpdatedBalance.currentBalance(UPDATED_CURRENT_BALANCE);
+
+        restBalanceMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedBalance.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedBalance))
+            )
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @Transactional
+    void adjustBalance() throws Exception {
+        // Initialize the database
+        balanceRepository.saveAndFlush(balance);
+        Long version = balance.getVersion();
+
+        restBalanceMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/adjustments", balance.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"delta\":-0.75}")
+            )
+            .andExpect(status().isNoContent());
+
+        // Validate the Balance in the database
+        em.clear();
+        Balance testBalance = balanceRepository.findById(balance.getId()).get();
+        assertThat(testBalance.getCurrentBalance()).isEqualByComparingTo(Money.parse("0.25"));
+        assertThat(testBalance.getInitialBalance()).isEqualByComparingTo(DEFAULT_INITIAL_BALANCE);
+        assertThat(testBalance.getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    @Transactional
+    void adjustBalanceBelowFloor() throws Exception {
+        // Initialize the database
+        balanceRepository.saveAndFlush(balance);
+
+        restBalanceMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/adjustments", balance.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"delta\":-0.75,\"floor\":0.50}")
+            )
+            .andExpect(status().isConflict());
+
+        // Validate the Balance in the database is unchanged
+        em.clear();
+        Balance testBalance = balanceRepository.findById(balance.getId()).get();
+        assertThat(testBalance.getCurrentBalance()).isEqualByComparingTo(DEFAULT_CURRENT_BALANCE);
+    }
+
+    @Test
+    @Transactional
+    void adjustNonExistingBalance() throws Exception {
+        restBalanceMockMvc
+            .perform(
+                post(ENTITY_API_URL_ID + "/adjustments", Long.MAX_VALUE)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"delta\":1}")
+            )
+            .andExpect(status().isNotFound());
     }
 
     @Test
@@ -7,10 +7,15 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.banking.threeom.IntegrationTest;
+import com.banking.threeom.domain.Balance;
 import com.banking.threeom.domain.BankAccount;
+import com.banking.threeom.domain.money.Money;
+import com.banking.threeom.repository.BalanceStripeRepository;
 import com.banking.threeom.repository.BankAccountRepository;
 import com.banking.threeom.service.dto.BankAccountDTO;
+import com.banking.threeom.service.events.AccountEventHub;
 import com.banking.threeom.service.mapper.BankAccountMapper;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -21,6 +26,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.util.NestedServletException;
 
@@ -61,6 +67,9 @@ class BankAccountResourceIT {
     @Autowired
     private BankAccountMapper bankAccountMapper;
 
+    @Autowired
+    private BalanceStripeRepository balanceStripeRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -512,6 +521,80 @@ class BankAccountResourceIT {
         assertThat(bankAccountList).hasSize(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    @Transactional
+    void importBankAccountsFromCsv() throws Exception {
+        bankAccountRepository.saveAndFlush(bankAccount.phoneNumber("+48100000001"));
+        int databaseSizeBeforeImport = bankAccountRepository.findAll().size();
+        String body =
+            "phoneNumber,firstName,lastName,email,initialBalance\n" +
+            "+48100000002,Anna,\"Nowak, Jr.\",anna@example.com,12.50\n" +
+            "+48100000001,Jan,Kowalski,,\n" +
+            "+48100000003,Piotr,,,\n" +
+            "+48100000002,Maria,Nowak,,\n" +
+            "+48100000004,Zofia,Wiśniewska,,-1\n" +
+            "+48100000005,Adam,Smith,,\n";
+
+        restBankAccountMockMvc
+            .perform(post(ENTITY_API_URL + "/import").contentType("text/csv").content(body.getBytes(StandardCharsets.UTF_8)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.rejected").value(4))
+            .andExpect(jsonPath("$.errors[0].index").value(1))
+            .andExpect(jsonPath("$.errors[0].error").value("phoneNumber: already exists"))
+            .andExpect(jsonPath("$.errors[1].error").value("lastName: must not be null"))
+            .andExpect(jsonPath("$.errors[2].error").value("phoneNumber: duplicated in the upload"))
+            .andExpect(jsonPath("$.errors[3].error").value("initialBalance: must not be negative"));
+
+        List<BankAccount> bankAccountList = bankAccountRepository.findAll();
+        assertThat(bankAccountList).hasSize(databaseSizeBeforeImport + 2);
+        BankAccount imported = bankAccountList
+            .stream()
+            .filter(account -> "+48100000002".equals(account.getPhoneNumber()))
+            .findFirst()
+            .orElseThrow();
+        assertThat(imported.getLastName()).isEqualTo("Nowak, Jr.");
+        assertThat(imported.getAddress()).isNull();
+        assertThat(imported.getBalance().getInitialBalance()).isEqualTo(Money.parse("12.50"));
+        assertThat(imported.getBalance().getCurrentBalance()).isEqualTo(Money.parse("12.50"));
+    }
+
+    @Test
+    @Transactional
+    void importBankAccountsFromNdjson() throws Exception {
+        int databaseSizeBeforeImport = bankAccountRepository.findAll().size();
+        String body =
+            "{\"firstName\":\"Anna\",\"lastName\":\"Nowak\",\"phoneNumber\":\"+48100000011\",\"balance\":{\"initialBalance\":5}}\n" +
+            "{\"firstName\":\"Jan\",\"lastName\":\"Kowalski\",\"phoneNumber\":\"+48100000012\",\"balance\":{\"initialBalance\":\"x\"}}\n" +
+            "{\"firstName\":\"Piotr\",\"lastName\":\"Nowak\",\"phoneNumber\":\"+48100000013\"}\n";
+
+        restBankAccountMockMvc
+            .perform(post(ENTITY_API_URL + "/import").contentType(MediaType.APPLICATION_NDJSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.errors[0].index").value(1));
+
+        assertThat(bankAccountRepository.findAll()).hasSize(databaseSizeBeforeImport + 2);
+    }
+
+    @Test
+    @Transactional
+    void importBankAccountsWithUnknownCsvColumn() throws Exception {
+        int databaseSizeBeforeImport = bankAccountRepository.findAll().size();
+
+        // The header names an unknown column, so this API call must fail before importing anything
+        assertThrows(
+            NestedServletException.class,
+            () ->
+                restBankAccountMockMvc
+                    .perform(post(ENTITY_API_URL + "/import").contentType("text/csv").content("phoneNumber,firstName,lastName,iban\n"))
+                    .andExpect(status().isBadRequest())
+        );
+
+        assertThat(bankAccountRepository.findAll()).hasSize(databaseSizeBeforeImport);
+    }
+
     @Test
     @Transactional
     void deleteBankAccount() throws Exception {
@@ -529,4 +612,86 @@ class BankAccountResourceIT {
         List<BankAccount> bankAccountList = bankAccountRepository.findAll();
         assertThat(bankAccountList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void streamBankAccountEvents() throws Exception {
+        // Initialize the database
+        Balance balance = BalanceResourceIT.createEntity(em).currentBalance(Money.parse("42.50"));
+        em.persist(balance);
+        bankAccount.setBalance(balance);
+        bankAccountRepository.saveAndFlush(bankAccount);
+
+        // Subscribe to the events of the bankAccount, which starts with its current balance
+        MvcResult result = restBankAccountMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/events", bankAccount.getId()).accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(result.getResponse().getContentAsString())
+            .contains("event:" + AccountEventHub.BALANCE_EVENT)
+            .contains("\"bankAccountId\":" + bankAccount.getId())
+            .contains("\"currentBalance\":42.50");
+        result.getRequest().getAsyncContext().complete();
+    }
+
+    @Test
+    @Transactional
+    void streamNonExistingBankAccountEvents() throws Exception {
+        restBankAccountMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/events", Long.MAX_VALUE).accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void markBankAccountHot() throws Exception {
+        // Initialize the database
+        Balance balance = BalanceResourceIT.createEntity(em).currentBalance(Money.parse("42.50"));
+        em.persist(balance);
+        bankAccount.setBalance(balance);
+        bankAccountRepository.saveAndFlush(bankAccount);
+
+        restBankAccountMockMvc.perform(post(ENTITY_API_URL_ID + "/hot", bankAccount.getId()).param("stripes", "4")).andExpect(status().isNoContent());
+
+        // The balance is spread over the stripes, and still reads as a whole
+        em.clear();
+        assertThat(balanceStripeRepository.findAll())
+            .filteredOn(stripe -> stripe.getBalanceId().equals(balance.getId()))
+            .hasSize(4)
+            .allSatisfy(stripe -> assertThat(stripe.getAmount()).isEqualByComparingTo(Money.parse("10.62")));
+        assertThat(bankAccountRepository.findCurrentBalanceById(bankAccount.getId())).contains(Money.parse("42.50"));
+        restBankAccountMockMvc
+            .perform(get("/api/balances/{id}", balance.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.currentBalance").value(42.50))
+            .andExpect(jsonPath("$.stripes").value(4));
+
+        // Unmark it
+        restBankAccountMockMvc.perform(delete(ENTITY_API_URL_ID + "/hot", bankAccount.getId())).andExpect(status().isNoContent());
+
+        em.clear();
+        assertThat(balanceStripeRepository.findAll()).noneMatch(stripe -> stripe.getBalanceId().equals(balance.getId()));
+        assertThat(em.find(Balance.class, balance.getId()).getCurrentBalance()).isEqualByComparingTo(Money.parse("42.50"));
+    }
+
+    @Test
+    @Transactional
+    void markBankAccountHotWithInvalidStripes() throws Exception {
+        bankAccountRepository.saveAndFlush(bankAccount);
+
+        // Fewer than two stripes are no stripes, so this API call must fail
+        assertThrows(NestedServletException.class, () -> restBankAccountMockMvc
+                .perform(post(ENTITY_API_URL_ID + "/hot", bankAccount.getId()).param("stripes", "1"))
+                .andExpect(status().isBadRequest()));
+        assertThat(balanceStripeRepository.count()).isZero();
+    }
+
+    @Test
+    @Transactional
+    void markNonExistingBankAccountHot() throws Exception {
+        restBankAccountMockMvc.perform(post(ENTITY_API_URL_ID + "/hot", Long.MAX_VALUE)).andExpect(status().isNotFound());
+        restBankAccountMockMvc.perform(delete(ENTITY_API_URL_ID + "/hot", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
 }
@@ -3,34 +3,41 @@ package com.banking.threeom.web.rest;
 import static com.banking.threeom.web.rest.TestUtil.sameInstant;
 import static com.banking.threeom.web.rest.TestUtil.sameNumber;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.banking.threeom.IntegrationTest;
+import com.banking.threeom.domain.Balance;
+import com.banking.threeom.domain.BankAccount;
 import com.banking.threeom.domain.Transaction;
 import com.banking.threeom.domain.enumeration.TransactionOperationType;
 import com.banking.threeom.domain.enumeration.TransactionSourceType;
 import com.banking.threeom.domain.enumeration.TransactionStatus;
+import com.banking.threeom.domain.money.Money;
 import com.banking.threeom.repository.TransactionRepository;
 import com.banking.threeom.service.dto.TransactionDTO;
+import com.banking.threeom.service.idempotency.IdempotencyService;
 import com.banking.threeom.service.mapper.TransactionMapper;
-import java.math.BigDecimal;
+import com.banking.threeom.web.rest.errors.BadRequestAlertException;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Random;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
-
-import com.banking.threeom.web.rest.errors.BadRequestAlertException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
@@ -47,8 +54,8 @@ class TransactionResourceIT {
     private static final TransactionOperationType DEFAULT_TRANSACTION_TYPE = TransactionOperationType.DEPOSIT;
     private static final TransactionOperationType UPDATED_TRANSACTION_TYPE = TransactionOperationType.WITHDRAWAL;
 
-    private static final BigDecimal DEFAULT_AMOUNT = new BigDecimal(1);
-    private static final BigDecimal UPDATED_AMOUNT = new BigDecimal(2);
+    private static final Money DEFAULT_AMOUNT = Money.ofMinorUnits(100);
+    private static final Money UPDATED_AMOUNT = Money.ofMinorUnits(200);
 
     private static final ZonedDateTime DEFAULT_TRANSACTION_DATE = ZonedDateTime.ofInstant(Instant.ofEpochMilli(0L), ZoneOffset.UTC);
     private static final ZonedDateTime UPDATED_TRANSACTION_DATE = ZonedDateTime.now(ZoneId.systemDefault()).withNano(0);
@@ -142,7 +149,194 @@ class TransactionResourceIT {
         assertThat(testTransaction.getTransactionDate()).isEqualTo(DEFAULT_TRANSACTION_DATE);
         assertThat(testTransaction.getSourceType()).isEqualTo(DEFAULT_SOURCE_TYPE);
         assertThat(testTransaction.getDestinationType()).isEqualTo(DEFAULT_DESTINATION_TYPE);
-        assertThat(testTransaction.getStatus()).isEqualTo(DEFAULT_STATUS);
+        // A deposit without a destination bank account cannot be executed
+        assertThat(testTransaction.getStatus()).isEqualTo(TransactionStatus.DECLINE);
+    }
+
+    @Test
+    @Transactional
+    void createTransactionWithIdempotencyKey() throws Exception {
+        int databaseSizeBeforeCreate = transactionRepository.findAll().size();
+        String idempotencyKey = UUID.randomUUID().toString();
+        TransactionDTO transactionDTO = transactionMapper.toDto(transaction);
+
+        String first = restTransactionMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(transactionDTO))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        String replayed = restTransactionMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(transactionDTO))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(replayed).isEqualTo(first);
+        assertThat(transactionRepository.findAll()).hasSize(databaseSizeBeforeCreate + 1);
+
+        // The same key with another request is rejected
+        transactionDTO.setAmount(UPDATED_AMOUNT);
+        restTransactionMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(transactionDTO))
+            )
+            .andExpect(status().isUnprocessableEntity());
+        assertThat(transactionRepository.findAll()).hasSize(databaseSizeBeforeCreate + 1);
+    }
+
+    @Test
+    @Transactional
+    void createTransferTransaction() throws Exception {
+        BankAccount source = createBankAccountWithBalance("+380000000001", Money.parse("10.00"));
+        BankAccount destination = createBankAccountWithBalance("+380000000002", Money.ZERO);
+        transaction.transactionType(TransactionOperationType.TRANSFER).sourceBankAccount(source).destinationBankAccount(destination);
+        TransactionDTO transactionDTO = transactionMapper.toDto(transaction);
+
+        restTransactionMockMvc
+            .perform(
+                post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(transactionDTO))
+            )
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.status").value(TransactionStatus.SUCCESS.toString()));
+
+        // The balances are updated in SQL, behind the entities loaded in the test
+        em.clear();
+        assertThat(em.find(Balance.class, source.getBalance().getId()).getCurrentBalance()).isEqualByComparingTo(Money.parse("9.00"));
+        assertThat(em.find(Balance.class, destination.getBalance().getId()).getCurrentBalance()).isEqualByComparingTo(Money.parse("1.00"));
+    }
+
+    @Test
+    @Transactional
+    void createTransferTransactionWithStatusOtherThanWaiting() throws Exception {
+        int databaseSizeBeforeCreate = transactionRepository.findAll().size();
+        BankAccount source = createBankAccountWithBalance("+380000000001", Money.parse("10.00"));
+        BankAccount destination = createBankAccountWithBalance("+380000000002", Money.ZERO);
+        transaction
+            .transactionType(TransactionOperationType.TRANSFER)
+            .sourceBankAccount(source)
+            .destinationBankAccount(destination)
+            .status(TransactionStatus.SUCCESS);
+        TransactionDTO transactionDTO = transactionMapper.toDto(transaction);
+
+        // Only a WAITING transaction is executed, a settled one would be saved without moving money
+        assertThrows(NestedServletException.class, () -> restTransactionMockMvc
+                .perform(
+                        post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(transactionDTO))
+                )
+                .andExpect(status().isBadRequest()));
+
+        assertThat(transactionRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+        em.clear();
+        assertThat(em.find(Balance.class, source.getBalance().getId()).getCurrentBalance()).isEqualByComparingTo(Money.parse("10.00"));
+        assertThat(em.find(Balance.class, destination.getBalance().getId()).getCurrentBalance()).isEqualByComparingTo(Money.ZERO);
+    }
+
+    @Test
+    @Transactional
+    void createTransferTransactionWithInsufficientFunds() throws Exception {
+        BankAccount source = createBankAccountWithBalance("+380000000001", Money.ZERO);
+        BankAccount destination = createBankAccountWithBalance("+380000000002", Money.ZERO);
+        transaction.transactionType(TransactionOperationType.TRANSFER).sourceBankAccount(source).destinationBankAccount(destination);
+        TransactionDTO transactionDTO = transactionMapper.toDto(transaction);
+
+        restTransactionMockMvc
+            .perform(
+                post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(transactionDTO))
+            )
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.status").value(TransactionStatus.DECLINE.toString()));
+
+        em.clear();
+        assertThat(em.find(Balance.class, source.getBalance().getId()).getCurrentBalance()).isEqualByComparingTo(Money.ZERO);
+        assertThat(em.find(Balance.class, destination.getBalance().getId()).getCurrentBalance()).isEqualByComparingTo(Money.ZERO);
+    }
+
+    @Test
+    @Transactional
+    void createTransferTransactionWithInsufficientFundsUndoesTheCredit() throws Exception {
+        // The destination balance has the lower id, so it is credited before the source is debited
+        BankAccount destination = createBankAccountWithBalance("+380000000002", Money.ZERO);
+        BankAccount source = createBankAccountWithBalance("+380000000001", Money.parse("0.50"));
+        transaction.transactionType(TransactionOperationType.TRANSFER).sourceBankAccount(source).destinationBankAccount(destination);
+        TransactionDTO transactionDTO = transactionMapper.toDto(transaction);
+
+        restTransactionMockMvc
+            .perform(
+                post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(transactionDTO))
+            )
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.status").value(TransactionStatus.DECLINE.toString()));
+
+        em.clear();
+        assertThat(em.find(Balance.class, source.getBalance().getId()).getCurrentBalance()).isEqualByComparingTo(Money.parse("0.50"));
+        assertThat(em.find(Balance.class, destination.getBalance().getId()).getCurrentBalance()).isEqualByComparingTo(Money.ZERO);
+    }
+
+    @Test
+    @Transactional
+    void createTransactionsInBatch() throws Exception {
+        int databaseSizeBeforeCreate = transactionRepository.findAll().size();
+        TransactionDTO valid = transactionMapper.toDto(transaction);
+        TransactionDTO invalid = transactionMapper.toDto(createEntity(em).amount(null));
+        TransactionDTO settled = transactionMapper.toDto(createEntity(em).status(TransactionStatus.SUCCESS));
+        byte[] body = TestUtil.convertObjectToJsonBytes(List.of(valid, invalid, valid, settled));
+
+        restTransactionMockMvc
+            .perform(post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(4))
+            .andExpect(jsonPath("$[0].status").value(TransactionStatus.DECLINE.toString()))
+            .andExpect(jsonPath("$[1].error").value("amount: must not be null"))
+            .andExpect(jsonPath("$[2].id").isNumber())
+            .andExpect(jsonPath("$[3].error").value("A new transaction must be WAITING"));
+
+        assertThat(transactionRepository.findAll()).hasSize(databaseSizeBeforeCreate + 2);
+    }
+
+    @Test
+    @Transactional
+    void createTransactionsInNdjsonBatch() throws Exception {
+        int databaseSizeBeforeCreate = transactionRepository.findAll().size();
+        String item = new String(TestUtil.convertObjectToJsonBytes(transactionMapper.toDto(transaction)));
+        String body = item + "\n{\"transactionType\":\"UNKNOWN\"}\n" + item + "\n";
+
+        restTransactionMockMvc
+            .perform(post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_NDJSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(3))
+            .andExpect(jsonPath("$[0].id").isNumber())
+            .andExpect(jsonPath("$[1].error").isNotEmpty())
+            .andExpect(jsonPath("$[2].id").isNumber());
+
+        assertThat(transactionRepository.findAll()).hasSize(databaseSizeBeforeCreate + 2);
+    }
+
+    private BankAccount createBankAccountWithBalance(String phoneNumber, Money currentBalance) {
+        Balance balance = BalanceResourceIT.createEntity(em).currentBalance(currentBalance);
+        em.persist(balance);
+        BankAccount bankAccount = BankAccountResourceIT
+            .createEntity(em)
+            .phoneNumber(phoneNumber)
+            .email(phoneNumber + "@example.com")
+            .balance(balance);
+        em.persist(bankAccount);
+        em.flush();
+        return bankAccount;
     }
 
     @Test
@@ -301,13 +495,219 @@ class TransactionResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(transaction.getId().intValue())))
             .andExpect(jsonPath("$.[*].transactionType").value(hasItem(DEFAULT_TRANSACTION_TYPE.toString())))
-            .andExpect(jsonPath("$.[*].amount").value(hasItem(sameNumber(DEFAULT_AMOUNT))))
+            .andExpect(jsonPath("$.[*].amount").value(hasItem(sameNumber(DEFAULT_AMOUNT.toBigDecimal()))))
             .andExpect(jsonPath("$.[*].transactionDate").value(hasItem(sameInstant(DEFAULT_TRANSACTION_DATE))))
             .andExpect(jsonPath("$.[*].sourceType").value(hasItem(DEFAULT_SOURCE_TYPE.toString())))
             .andExpect(jsonPath("$.[*].destinationType").value(hasItem(DEFAULT_DESTINATION_TYPE.toString())))
             .andExpect(jsonPath("$.[*].status").value(hasItem(DEFAULT_STATUS.toString())));
     }
 
+    @Test
+    @Transactional
+    void getAllTransactionsWithCachedCount() throws Exception {
+        // Initialize the database
+        transactionRepository.saveAndFlush(transaction);
+        String count = restTransactionMockMvc
+            .perform(get(ENTITY_API_URL + "?count=cached"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Total-Count");
+        assertThat(Long.parseLong(count)).isEqualTo(transactionRepository.count());
+
+        // Inserted behind the back of the service, so the cached count is not invalidated
+        transactionRepository.saveAndFlush(createEntity(em));
+        // A short page, as the total of the last page is always corrected to what it holds
+        restTransactionMockMvc.perform(get(ENTITY_API_URL + "?count=cached&size=1")).andExpect(header().string("X-Total-Count", count));
+        // No planner statistics on H2: falls back to the cached count
+        restTransactionMockMvc
+            .perform(get(ENTITY_API_URL + "?count=estimated&size=1"))
+            .andExpect(header().string("X-Total-Count", count));
+        restTransactionMockMvc
+            .perform(get(ENTITY_API_URL + "?count=exact"))
+            .andExpect(header().string("X-Total-Count", Long.toString(transactionRepository.count())));
+
+        assertThrows(NestedServletException.class, () -> restTransactionMockMvc.perform(get(ENTITY_API_URL + "?count=approximate")));
+    }
+
+    @Test
+    @Transactional
+    void getAllTransactionsByCursor() throws Exception {
+        // Initialize the database with transactions newer than any other
+        ZonedDateTime date = ZonedDateTime.of(3000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        Transaction newest = transactionRepository.saveAndFlush(createEntity(em).transactionDate(date.plusDays(1)));
+        Transaction sameDate1 = transactionRepository.saveAndFlush(createEntity(em).transactionDate(date));
+        Transaction sameDate2 = transactionRepository.saveAndFlush(createEntity(em).transactionDate(date));
+
+        String next = restTransactionMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(newest.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(sameDate2.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LINK);
+        String nextUri = next.substring(next.indexOf('<') + 1, next.indexOf('>'));
+
+        restTransactionMockMvc
+            .perform(get(nextUri))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(sameDate1.getId().intValue()));
+
+        assertThrows(NestedServletException.class, () -> restTransactionMockMvc.perform(get(ENTITY_API_URL + "?cursor=notacursor")));
+    }
+
+    @Test
+    @Transactional
+    void getAllTransactionsWithoutLoadingBankAccounts() throws Exception {
+        // Initialize the database with transfers between bank accounts, and a deposit
+        BankAccount source = createBankAccountWithBalance("+380000000001", Money.ZERO);
+        BankAccount destination = createBankAccountWithBalance("+380000000002", Money.ZERO);
+        Transaction transfer = transactionRepository.saveAndFlush(
+            createEntity(em).sourceBankAccount(source).destinationBankAccount(destination)
+        );
+        transactionRepository.saveAndFlush(createEntity(em).sourceBankAccount(destination).destinationBankAccount(source));
+        Transaction deposit = transactionRepository.saveAndFlush(createEntity(em).destinationBankAccount(source));
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            restTransactionMockMvc
+                .perform(get(ENTITY_API_URL + "?sort=id,desc&size=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$.[0].id").value(deposit.getId().intValue()))
+                .andExpect(jsonPath("$.[0].sourceBankAccount").isEmpty())
+                .andExpect(jsonPath("$.[0].destinationBankAccount.id").value(source.getId().intValue()));
+
+            // The page and the count, whatever the number of bank accounts
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+            assertThat(statistics.getEntityLoadCount()).isZero();
+
+            restTransactionMockMvc
+                .perform(get(ENTITY_API_URL + "?sort=id,desc&size=3&count=cached"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[2].id").value(transfer.getId().intValue()))
+                .andExpect(jsonPath("$.[2].sourceBankAccount.id").value(source.getId().intValue()))
+                .andExpect(jsonPath("$.[2].destinationBankAccount.id").value(destination.getId().intValue()));
+            assertThat(statistics.getEntityLoadCount()).isZero();
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    @Transactional
+    void exportTransactions() throws Exception {
+        // Initialize the database with transactions newer than any other
+        ZonedDateTime date = ZonedDateTime.of(3000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        Transaction first = transactionRepository.saveAndFlush(createEntity(em).transactionDate(date));
+        Transaction second = transactionRepository.saveAndFlush(createEntity(em).transactionDate(date.plusDays(1)));
+
+        String ndjson = restTransactionMockMvc
+            .perform(get(ENTITY_API_URL + "/export").param("from", date.toString()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"id\":" + first.getId()).contains("\"transactionDate\":\"3000-01-01T00:00:00Z\"");
+        assertThat(lines[1]).contains("\"id\":" + second.getId()).contains("\"sourceBankAccountId\":null");
+
+        restTransactionMockMvc
+            .perform(get(ENTITY_API_URL + "/export").param("from", date.toString()).param("to", date.toString()).param("format", "csv"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(
+                content()
+                    .string(
+                        "id,transactionType,amount,transactionDate,sourceType,destinationType,status,sourceBankAccountId,destinationBankAccountId\n" +
+                        first.getId() +
+                        "," +
+                        DEFAULT_TRANSACTION_TYPE +
+                        "," +
+                        DEFAULT_AMOUNT.toString() +
+                        ",3000-01-01T00:00:00Z," +
+                        DEFAULT_SOURCE_TYPE +
+                        "," +
+                        DEFAULT_DESTINATION_TYPE +
+                        "," +
+                        DEFAULT_STATUS +
+                        ",,\n"
+                    )
+            );
+
+        assertThrows(NestedServletException.class, () -> restTransactionMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")));
+    }
+
+    @Test
+    @Transactional
+    void getBankAccountTransactions() throws Exception {
+        // Initialize the database with a debit, a credit and a deposit of the same bank account
+        BankAccount bankAccount = createBankAccountWithBalance("+380000000001", Money.ZERO);
+        BankAccount other = createBankAccountWithBalance("+380000000002", Money.ZERO);
+        ZonedDateTime date = ZonedDateTime.of(2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        Transaction debit = transactionRepository.saveAndFlush(
+            createEntity(em).transactionDate(date).status(TransactionStatus.SUCCESS).sourceBankAccount(bankAccount).destinationBankAccount(other)
+        );
+        Transaction credit = transactionRepository.saveAndFlush(
+            createEntity(em)
+                .transactionDate(date.plusDays(1))
+                .status(TransactionStatus.SUCCESS)
+                .sourceBankAccount(other)
+                .destinationBankAccount(bankAccount)
+        );
+        Transaction deposit = transactionRepository.saveAndFlush(
+            createEntity(em).transactionDate(date.plusDays(2)).status(TransactionStatus.DECLINE).destinationBankAccount(bankAccount)
+        );
+        transactionRepository.saveAndFlush(createEntity(em).transactionDate(date.plusDays(1)).sourceBankAccount(other));
+        String url = "/api/bank-accounts/{id}/transactions";
+
+        String next = restTransactionMockMvc
+            .perform(get(url + "?size=2", bankAccount.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(deposit.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(credit.getId().intValue()))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LINK);
+        String nextUri = next.substring(next.indexOf('<') + 1, next.indexOf('>'));
+
+        restTransactionMockMvc
+            .perform(get(nextUri))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(debit.getId().intValue()))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+
+        restTransactionMockMvc
+            .perform(get(url, bankAccount.getId()).param("status", TransactionStatus.SUCCESS.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(credit.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(debit.getId().intValue()));
+
+        restTransactionMockMvc
+            .perform(get(url, bankAccount.getId()).param("from", date.plusDays(1).toString()).param("to", date.plusDays(1).toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(credit.getId().intValue()));
+
+        restTransactionMockMvc.perform(get(url, Long.MAX_VALUE)).andExpect(status().isNotFound());
+        assertThrows(
+            NestedServletException.class,
+            () -> restTransactionMockMvc.perform(get(url, bankAccount.getId()).param("from", date.plusDays(1).toString()).param("to", date.toString()))
+        );
+    }
+
     @Test
     @Transactional
     void getTransaction() throws Exception {
@@ -321,7 +721,7 @@ class TransactionResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.id").value(transaction.getId().intValue()))
             .andExpect(jsonPath("$.transactionType").value(DEFAULT_TRANSACTION_TYPE.toString()))
-            .andExpect(jsonPath("$.amount").value(sameNumber(DEFAULT_AMOUNT)))
+            .andExpect(jsonPath("$.amount").value(sameNumber(DEFAULT_AMOUNT.toBigDecimal())))
             .andExpect(jsonPath("$.transactionDate").value(sameInstant(DEFAULT_TRANSACTION_DATE)))
             .andExpect(jsonPath("$.sourceType").value(DEFAULT_SOURCE_TYPE.toString()))
             .andExpect(jsonPath("$.destinationType").value(DEFAULT_DESTINATION_TYPE.toString()))